@@ -0,0 +1,68 @@
+package shop.zailushang.spring.boot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import shop.zailushang.spring.boot.framework.SAM;
+
+import java.util.concurrent.TimeUnit;
+
+// 经由 RefreshableScope 查找动态 Bean：applicationContext.getBean(name, SAM.class) 及其后的 execute，对比持有委托对象直接 execute
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanLookupBenchmark {
+
+    @Param({"10", "1000"})
+    public int beanCount;
+
+    private DynamicBeanFixture fixture;
+
+    private String beanName;
+
+    // 注入一次、长期持有的委托对象
+    private SAM<Object, Object> cached;
+
+    @Setup
+    public void setup() {
+        fixture = new DynamicBeanFixture("native");
+        for (var i = 0; i < beanCount; i++) {
+            fixture.register(DynamicBeanFixture.model("bean-" + i, "return { param -> param } as shop.zailushang.spring.boot.framework.SAM"));
+        }
+        beanName = "bean-" + beanCount / 2;
+        // 预先触发一次 getBean，使工厂 Bean 进入 RefreshableScope 的缓存
+        cached = fixture.getBean(beanName);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public SAM<Object, Object> getBean() {
+        return fixture.getBean(beanName);
+    }
+
+    @Benchmark
+    public Object getBeanAndExecute() {
+        return fixture.getBean(beanName).execute("zailushang");
+    }
+
+    @Benchmark
+    public Object cachedExecute() {
+        return cached.execute("zailushang");
+    }
+}
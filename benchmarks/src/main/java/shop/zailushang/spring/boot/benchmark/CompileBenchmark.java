@@ -0,0 +1,66 @@
+package shop.zailushang.spring.boot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// resolveBeanDefinitionFromModel 的编译开销，按脚本语句数分档
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompileBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int statements;
+
+    // jsr223-cached 自第二次调用起命中字节码缓存，衡量的是从缓存定义类的开销
+    @Param({"jsr223", "jsr223-cached", "native"})
+    public String scriptEngine;
+
+    private DynamicBeanFixture fixture;
+
+    private RefreshBeanModel refreshBeanModel;
+
+    @Setup
+    public void setup() {
+        fixture = new DynamicBeanFixture(scriptEngine);
+        refreshBeanModel = DynamicBeanFixture.model("compile-task", script(statements));
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public BeanDefinitionHolder resolveBeanDefinitionFromModel() {
+        return RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModel(refreshBeanModel, fixture.scriptEngineCreator(), fixture.refreshableScope());
+    }
+
+    // 生成包含 statements 条语句的脚本
+    static String script(int statements) {
+        var body = IntStream.range(0, statements)
+                .mapToObj(i -> "    def v" + i + " = param.toString().replace(\"PHP\", \"Java" + i + "\")")
+                .collect(Collectors.joining("\n"));
+        return "return { param ->\n" + body + "\n    v" + (statements - 1) + "\n} as shop.zailushang.spring.boot.framework.SAM";
+    }
+}
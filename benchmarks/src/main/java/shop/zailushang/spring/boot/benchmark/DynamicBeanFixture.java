@@ -0,0 +1,119 @@
+package shop.zailushang.spring.boot.benchmark;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.CompilingGroovyScriptEngine;
+import shop.zailushang.spring.boot.framework.JavaSourceScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.PolyglotScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.framework.ScriptClassCache;
+import shop.zailushang.spring.boot.framework.ScriptEngineCreator;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// 进程内的最小运行环境：GenericApplicationContext + RefreshableScope + 脚本引擎，无需 mysql、redis、canal
+public class DynamicBeanFixture implements AutoCloseable {
+
+    private final GenericApplicationContext applicationContext;
+
+    private final RefreshableScope refreshableScope;
+
+    private final ScriptEngineCreator scriptEngineCreator;
+
+    public DynamicBeanFixture(String scriptEngine) {
+        this(scriptEngine, 0);
+    }
+
+    // residencyMaximumSize 大于 0 时启用有界驻留，不按空闲时间淘汰
+    public DynamicBeanFixture(String scriptEngine, long residencyMaximumSize) {
+        applicationContext = new GenericApplicationContext();
+        refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        if (residencyMaximumSize > 0) refreshableScope.bound(residencyMaximumSize, null);
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        applicationContext.refresh();
+        scriptEngineCreator = scriptEngineCreator(scriptEngine, applicationContext, new InheritableThreadLocal<>());
+    }
+
+    // jsr223 与 EarlySourceRegistrar 中的 groovyCreator 保持一致，native 为 NativeGroovyScriptEngineCreator；language 为 java 的 Bean 均经 javac 编译
+    // jsr223-cached 为启用 script-cache 时的 groovyCreator：不再经过 ScriptEngineManager，而是 CompilingGroovyScriptEngine（字节码缓存位于临时目录）
+    public static ScriptEngineCreator scriptEngineCreator(String scriptEngine, ApplicationContext applicationContext, InheritableThreadLocal<Object> inheritableThreadLocal) {
+        ScriptEngineCreator groovyCreator = switch (scriptEngine) {
+            case "jsr223" -> classLoader -> bind(new ScriptEngineManager(classLoader).getEngineByName("groovy"), applicationContext, inheritableThreadLocal);
+            case "jsr223-cached" -> {
+                var scriptClassCache = new ScriptClassCache(tempDirectory());
+                yield classLoader -> bind(new CompilingGroovyScriptEngine(classLoader, scriptClassCache), applicationContext, inheritableThreadLocal);
+            }
+            case "native" -> new NativeGroovyScriptEngineCreator(applicationContext, inheritableThreadLocal, null);
+            default -> throw new IllegalArgumentException("unknown script engine: " + scriptEngine);
+        };
+        return new PolyglotScriptEngineCreator(groovyCreator, new JavaSourceScriptEngineCreator(applicationContext, inheritableThreadLocal, null));
+    }
+
+    private static ScriptEngine bind(ScriptEngine groovy, ApplicationContext applicationContext, InheritableThreadLocal<Object> inheritableThreadLocal) {
+        groovy.getContext().setAttribute("act", applicationContext, ScriptContext.ENGINE_SCOPE);
+        groovy.getContext().setAttribute("itl", inheritableThreadLocal, ScriptContext.ENGINE_SCOPE);
+        return groovy;
+    }
+
+    private static Path tempDirectory() {
+        try {
+            return Files.createTempDirectory("dynamic-bean-benchmark-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static RefreshBeanModel model(String beanName, String lambdaScript) {
+        return new RefreshBeanModel(null, beanName, lambdaScript, beanName);
+    }
+
+    // language 为 groovy 时以 @CompileStatic 静态编译
+    public static RefreshBeanModel model(String beanName, String lambdaScript, String language) {
+        var compileStatic = RefreshBeanModel.GROOVY.equals(language) ? Boolean.TRUE : null;
+        return new RefreshBeanModel(null, beanName, lambdaScript, beanName, compileStatic, language);
+    }
+
+    // 编译并注册 BeanDefinition，与启动时的注册流程一致
+    public void register(RefreshBeanModel refreshBeanModel) {
+        var beanDefinitionHolder = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModel(refreshBeanModel, scriptEngineCreator, refreshableScope);
+        applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+    }
+
+    @SuppressWarnings("unchecked")
+    public SAM<Object, Object> getBean(String beanName) {
+        return applicationContext.getBean(beanName, SAM.class);
+    }
+
+    public DefaultEventProcessor eventProcessor() {
+        return new DefaultEventProcessor(beanFactory(), refreshableScope, scriptEngineCreator);
+    }
+
+    public DefaultListableBeanFactory beanFactory() {
+        return applicationContext.getDefaultListableBeanFactory();
+    }
+
+    public RefreshableScope refreshableScope() {
+        return refreshableScope;
+    }
+
+    public ScriptEngineCreator scriptEngineCreator() {
+        return scriptEngineCreator;
+    }
+
+    @Override
+    public void close() {
+        applicationContext.close();
+    }
+}
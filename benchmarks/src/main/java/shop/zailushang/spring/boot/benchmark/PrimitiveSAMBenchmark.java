@@ -0,0 +1,129 @@
+package shop.zailushang.spring.boot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import shop.zailushang.spring.boot.framework.IntPredicateSAM;
+import shop.zailushang.spring.boot.framework.IntToDoubleSAM;
+import shop.zailushang.spring.boot.framework.SAM;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 原始类型特化 SAM 与泛型 SAM 在数值热路径上的对比：均经由动态 Bean 的委托对象调用，脚本逻辑相同，仅签名不同
+// groovy 为 @CompileStatic 下的 lambda，java 为 javac 编译的源码；配合 -prof gc 观察每次调用的分配量（泛型版本需装箱参数及返回值）
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveSAMBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private static final String GROOVY_BOXED_PREDICATE = "shop.zailushang.spring.boot.framework.SAM<Integer, Boolean> sam = (Integer param) -> param % 3 == 0; return sam";
+
+    private static final String GROOVY_INT_PREDICATE = "shop.zailushang.spring.boot.framework.IntPredicateSAM sam = (int param) -> param % 3 == 0; return sam";
+
+    private static final String GROOVY_BOXED_SCORER = "shop.zailushang.spring.boot.framework.SAM<Integer, Double> sam = (Integer param) -> param * 0.75d; return sam";
+
+    private static final String GROOVY_INT_SCORER = "shop.zailushang.spring.boot.framework.IntToDoubleSAM sam = (int param) -> param * 0.75d; return sam";
+
+    private static final String JAVA_BOXED_PREDICATE = """
+            public class BoxedPredicate implements shop.zailushang.spring.boot.framework.SAM<Integer, Boolean> {
+                public Boolean execute(Integer param) { return param % 3 == 0; }
+            }
+            """;
+
+    private static final String JAVA_INT_PREDICATE = """
+            public class PrimitivePredicate implements shop.zailushang.spring.boot.framework.IntPredicateSAM {
+                public boolean test(int param) { return param % 3 == 0; }
+            }
+            """;
+
+    private static final String JAVA_BOXED_SCORER = """
+            public class BoxedScorer implements shop.zailushang.spring.boot.framework.SAM<Integer, Double> {
+                public Double execute(Integer param) { return param * 0.75d; }
+            }
+            """;
+
+    private static final String JAVA_INT_SCORER = """
+            public class PrimitiveScorer implements shop.zailushang.spring.boot.framework.IntToDoubleSAM {
+                public double applyAsDouble(int param) { return param * 0.75d; }
+            }
+            """;
+
+    @Param({"groovy", "java"})
+    public String language;
+
+    // 取值超出 Integer 缓存（-128 ~ 127），装箱必然分配
+    private final int[] values = new int[SIZE];
+
+    private int index;
+
+    private DynamicBeanFixture fixture;
+
+    private SAM<Object, Object> boxedPredicate;
+
+    private IntPredicateSAM intPredicate;
+
+    private SAM<Object, Object> boxedScorer;
+
+    private IntToDoubleSAM intScorer;
+
+    @Setup
+    public void setup() {
+        var random = ThreadLocalRandom.current();
+        for (var i = 0; i < SIZE; i++) values[i] = random.nextInt(1_000, 1_000_000);
+        var java = "java".equals(language);
+        fixture = new DynamicBeanFixture("native");
+        fixture.register(DynamicBeanFixture.model("boxed-predicate", java ? JAVA_BOXED_PREDICATE : GROOVY_BOXED_PREDICATE, language));
+        fixture.register(DynamicBeanFixture.model("int-predicate", java ? JAVA_INT_PREDICATE : GROOVY_INT_PREDICATE, language));
+        fixture.register(DynamicBeanFixture.model("boxed-scorer", java ? JAVA_BOXED_SCORER : GROOVY_BOXED_SCORER, language));
+        fixture.register(DynamicBeanFixture.model("int-scorer", java ? JAVA_INT_SCORER : GROOVY_INT_SCORER, language));
+        // 与业务代码一致：注入委托对象，原始类型视图只获取一次并长期持有
+        boxedPredicate = fixture.getBean("boxed-predicate");
+        intPredicate = IntPredicateSAM.of(fixture.getBean("int-predicate"));
+        boxedScorer = fixture.getBean("boxed-scorer");
+        intScorer = IntToDoubleSAM.of(fixture.getBean("int-scorer"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    private int next() {
+        return values[index++ & (SIZE - 1)];
+    }
+
+    @Benchmark
+    public boolean boxedPredicate() {
+        return boxedPredicate.test(next());
+    }
+
+    @Benchmark
+    public boolean intPredicate() {
+        return intPredicate.test(next());
+    }
+
+    @Benchmark
+    public double boxedScorer() {
+        return (Double) boxedScorer.execute(next());
+    }
+
+    @Benchmark
+    public double intScorer() {
+        return intScorer.applyAsDouble(next());
+    }
+}
@@ -0,0 +1,88 @@
+package shop.zailushang.spring.boot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.client.protocol.Decoder;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.redis.RefreshBeanModelCodec;
+
+import java.util.concurrent.TimeUnit;
+
+// 列出并解析 RMapCache 中全部条目（启动加载、selectAll）的解码开销：响应字节预先放入直接内存（与 netty 收到的响应一致），每次操作解码全部条目
+// legacy 为原实现（StringCodec 解码为 String 后，每条新建 ObjectMapper 解析），sharedReader 仅复用 ObjectReader，modelCodec 为 RefreshBeanModelCodec 直接解析字节
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisCodecBenchmark {
+
+    @Param({"50000"})
+    public int entries;
+
+    private ByteBuf[] values;
+
+    private final Decoder<Object> stringDecoder = StringCodec.INSTANCE.getMapValueDecoder();
+
+    private final Decoder<Object> modelDecoder = RefreshBeanModelCodec.INSTANCE.getMapValueDecoder();
+
+    @Setup
+    public void setup() throws Exception {
+        var encoder = RefreshBeanModelCodec.INSTANCE.getMapValueEncoder();
+        values = new ByteBuf[entries];
+        for (var i = 0; i < entries; i++) {
+            var script = "return { param -> param.replace('PHP', 'Java') + '-%d' } as shop.zailushang.spring.boot.framework.SAM".formatted(i);
+            var model = new RefreshBeanModel((long) i, "bean-" + i, script, "description of bean-" + i, i % 2 == 0, RefreshBeanModel.GROOVY);
+            var encoded = encoder.encode(model);
+            try {
+                values[i] = PooledByteBufAllocator.DEFAULT.directBuffer(encoded.readableBytes()).writeBytes(encoded);
+            } finally {
+                encoded.release();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (var value : values) value.release();
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) throws Exception {
+        for (var value : values) {
+            var jsonStr = (String) stringDecoder.decode(value.readerIndex(0), null);
+            blackhole.consume(new ObjectMapper().readValue(jsonStr, RefreshBeanModel.class));
+        }
+    }
+
+    @Benchmark
+    public void sharedReader(Blackhole blackhole) throws Exception {
+        for (var value : values) {
+            var jsonStr = (String) stringDecoder.decode(value.readerIndex(0), null);
+            blackhole.consume(RefreshBeanModel.parse(jsonStr));
+        }
+    }
+
+    @Benchmark
+    public void modelCodec(Blackhole blackhole) throws Exception {
+        for (var value : values) {
+            blackhole.consume(modelDecoder.decode(value.readerIndex(0), null));
+        }
+    }
+}
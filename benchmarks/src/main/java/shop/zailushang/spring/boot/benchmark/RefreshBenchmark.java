@@ -0,0 +1,88 @@
+package shop.zailushang.spring.boot.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeansException;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+
+import java.util.concurrent.TimeUnit;
+
+// 并发读取下的刷新吞吐：3 个读线程持续 getBean + execute，1 个写线程持续经由 DefaultEventProcessor 更新脚本
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RefreshBenchmark {
+
+    private static final String BEAN_NAME = "refresh-task";
+
+    private DynamicBeanFixture fixture;
+
+    private DefaultEventProcessor eventProcessor;
+
+    private RefreshBeanModel current;
+
+    private RefreshBeanModel next;
+
+    // 读线程的命中次数与 Bean 缺失（刷新间隙）次数
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ReadCounters {
+        public long hits;
+        public long misses;
+    }
+
+    @Setup
+    public void setup() {
+        fixture = new DynamicBeanFixture("native");
+        eventProcessor = fixture.eventProcessor();
+        current = DynamicBeanFixture.model(BEAN_NAME, "return { param -> param + '-v1' } as shop.zailushang.spring.boot.framework.SAM");
+        next = DynamicBeanFixture.model(BEAN_NAME, "return { param -> param + '-v2' } as shop.zailushang.spring.boot.framework.SAM");
+        fixture.register(current);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    @Group("refresh")
+    @GroupThreads(3)
+    public Object read(ReadCounters readCounters) {
+        try {
+            var result = fixture.getBean(BEAN_NAME).execute("zailushang");
+            readCounters.hits++;
+            return result;
+        } catch (BeansException e) {
+            readCounters.misses++;
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Group("refresh")
+    @GroupThreads(1)
+    public void refresh() {
+        eventProcessor.processEvent(RefreshBeanEvent.updateWith(current, next));
+        var previous = current;
+        current = next;
+        next = previous;
+    }
+}
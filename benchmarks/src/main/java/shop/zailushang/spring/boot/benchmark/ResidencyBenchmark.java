@@ -0,0 +1,80 @@
+package shop.zailushang.spring.boot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import shop.zailushang.spring.boot.framework.SAM;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// 有界驻留下的元空间占用与调用开销：beanCount 个互不相同的脚本，少量热点 Bean 承担绝大多数调用，其余为冷门 Bean
+// residency 为 0 时不启用有界驻留；每轮迭代结束后 GC 并打印元空间占用及驻留数量
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:MaxMetaspaceSize=1g")
+public class ResidencyBenchmark {
+
+    // 热点 Bean 数量，其调用占比为 HOT_RATIO
+    private static final int HOT_COUNT = 100;
+
+    private static final double HOT_RATIO = 0.99;
+
+    @Param({"5000"})
+    public int beanCount;
+
+    @Param({"0", "500"})
+    public long residency;
+
+    private DynamicBeanFixture fixture;
+
+    private List<SAM<Object, Object>> sams;
+
+    @Setup
+    public void setup() {
+        fixture = new DynamicBeanFixture("native", residency);
+        sams = new ArrayList<>(beanCount);
+        for (var i = 0; i < beanCount; i++) {
+            fixture.register(DynamicBeanFixture.model("bean-" + i, "return { param -> param + '" + i + "' } as shop.zailushang.spring.boot.framework.SAM"));
+            sams.add(fixture.getBean("bean-" + i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Object execute() {
+        var random = ThreadLocalRandom.current();
+        var index = random.nextDouble() < HOT_RATIO ? random.nextInt(HOT_COUNT) : random.nextInt(beanCount);
+        return sams.get(index).execute("zailushang");
+    }
+
+    @TearDown(Level.Iteration)
+    public void printMetaspace() {
+        System.gc();
+        var metaspaceKb = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(memoryPool -> "Metaspace".equals(memoryPool.getName()))
+                .mapToLong(memoryPool -> memoryPool.getUsage().getUsed() / 1024)
+                .sum();
+        System.out.printf("%n residency=%d: metaspace %d KB, %d of %d SAMs resident%n", residency, metaspaceKb, fixture.refreshableScope().residentSize(), beanCount);
+    }
+}
@@ -0,0 +1,85 @@
+package shop.zailushang.spring.boot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import java.util.concurrent.TimeUnit;
+
+// SAM 默认方法分派：run、accept、get、apply、test，java 为手写 lambda 基线
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SAMDispatchBenchmark {
+
+    @Param({"java", "jsr223", "native"})
+    public String implementation;
+
+    private final String param = "make PHP great again.";
+
+    private DynamicBeanFixture fixture;
+
+    private SAM<Object, Object> function;
+
+    private SAM<Object, Object> predicate;
+
+    @Setup
+    public void setup() {
+        if ("java".equals(implementation)) {
+            function = param -> param;
+            predicate = "gay"::equals;
+            return;
+        }
+        fixture = new DynamicBeanFixture(implementation);
+        function = RefreshableBeanDefinitionResolver.resolveTarget(
+                DynamicBeanFixture.model("function-task", "return { param -> param } as shop.zailushang.spring.boot.framework.SAM"),
+                fixture.scriptEngineCreator());
+        predicate = RefreshableBeanDefinitionResolver.resolveTarget(
+                DynamicBeanFixture.model("predicate-task", "return { param -> \"gay\" == param } as shop.zailushang.spring.boot.framework.SAM"),
+                fixture.scriptEngineCreator());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (fixture != null) fixture.close();
+    }
+
+    @Benchmark
+    public void run() {
+        function.run();
+    }
+
+    @Benchmark
+    public void accept() {
+        function.accept(param);
+    }
+
+    @Benchmark
+    public Object get() {
+        return function.get();
+    }
+
+    @Benchmark
+    public Object apply() {
+        return function.apply(param);
+    }
+
+    @Benchmark
+    public boolean test() {
+        return predicate.test(param);
+    }
+}
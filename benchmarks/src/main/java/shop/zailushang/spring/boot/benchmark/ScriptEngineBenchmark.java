@@ -0,0 +1,55 @@
+package shop.zailushang.spring.boot.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import java.util.concurrent.TimeUnit;
+
+// JSR-223 引擎与 native 引擎的单次调用开销：闭包每次调用都访问 act（jsr223 下为 Binding 变量，native 下为 SAMScript 的字段）
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptEngineBenchmark {
+
+    @Param({"jsr223", "jsr223-cached", "native"})
+    public String scriptEngine;
+
+    private final String param = "zailushang";
+
+    private DynamicBeanFixture fixture;
+
+    private SAM<Object, Object> sam;
+
+    @Setup
+    public void setup() {
+        fixture = new DynamicBeanFixture(scriptEngine);
+        sam = RefreshableBeanDefinitionResolver.resolveTarget(
+                DynamicBeanFixture.model("context-task", "return { param -> param + act.getId() } as shop.zailushang.spring.boot.framework.SAM"),
+                fixture.scriptEngineCreator());
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Object execute() {
+        return sam.execute(param);
+    }
+}
@@ -26,18 +26,23 @@ CREATE TABLE `refresh_bean` (
     `bean_name` varchar(32) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT 'bean在内存中名字',
     `lambda_script` text CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT 'SAM类源码',
     `description` varchar(32) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '描述信息',
+    `compile_static` tinyint(1) NOT NULL DEFAULT 0 COMMENT '是否以 @CompileStatic 静态编译，类型错误在刷新时即报告',
+    `language` varchar(16) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT 'groovy' COMMENT '脚本语言：groovy 或 java',
+    `updated_at` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间，启动快照据此增量拉取',
     PRIMARY KEY (`id`)
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci ROW_FORMAT = Dynamic;
 
 -- ----------------------------
 -- Records of refresh_bean
 -- ----------------------------
-INSERT INTO `refresh_bean` VALUES (1, 'runnable-task', 'return { param -> println \"Runnable running ...\" } as shop.zailushang.spring.boot.framework.SAM', '任务型接口示例：无参无返回值');
-INSERT INTO `refresh_bean` VALUES (2, 'consumer-task', 'return { param -> println \"Hello $param\" } as shop.zailushang.spring.boot.framework.SAM', '消费型接口示例：单参无返回值');
-INSERT INTO `refresh_bean` VALUES (3, 'supplier-task', 'return { param -> \"zailushang\"} as shop.zailushang.spring.boot.framework.SAM', '供给型接口示例：无参带返回值');
-INSERT INTO `refresh_bean` VALUES (4, 'function-task', 'return { param -> param.replace(\"PHP\",\"Java\") } as shop.zailushang.spring.boot.framework.SAM', '函数型接口示例：单参带返回值（任意）');
-INSERT INTO `refresh_bean` VALUES (5, 'predicate-task', 'return { param -> \"gay\" == param } as shop.zailushang.spring.boot.framework.SAM', '断言型接口示例：单参带返回值（Boolean）');
-INSERT INTO `refresh_bean` VALUES (6, 'run-4-act', 'import javax.sql.DataSource;return { param -> println act.getBean(DataSource.class) } as shop.zailushang.spring.boot.framework.SAM', '使用内置对象 act 查找依赖示例');
-INSERT INTO `refresh_bean` VALUES (7, 'run-4-itl', 'return { param -> println \"itl.get() = ${itl.get()}, in groovy.\"; itl.remove(); } as shop.zailushang.spring.boot.framework.SAM', '使用内置对象 itl 获取线程变量示例');
+INSERT INTO `refresh_bean` (`id`, `bean_name`, `lambda_script`, `description`) VALUES (1, 'runnable-task', 'return { param -> println \"Runnable running ...\" } as shop.zailushang.spring.boot.framework.SAM', '任务型接口示例：无参无返回值');
+INSERT INTO `refresh_bean` (`id`, `bean_name`, `lambda_script`, `description`) VALUES (2, 'consumer-task', 'return { param -> println \"Hello $param\" } as shop.zailushang.spring.boot.framework.SAM', '消费型接口示例：单参无返回值');
+INSERT INTO `refresh_bean` (`id`, `bean_name`, `lambda_script`, `description`) VALUES (3, 'supplier-task', 'return { param -> \"zailushang\"} as shop.zailushang.spring.boot.framework.SAM', '供给型接口示例：无参带返回值');
+INSERT INTO `refresh_bean` (`id`, `bean_name`, `lambda_script`, `description`) VALUES (4, 'function-task', 'return { param -> param.replace(\"PHP\",\"Java\") } as shop.zailushang.spring.boot.framework.SAM', '函数型接口示例：单参带返回值（任意）');
+INSERT INTO `refresh_bean` (`id`, `bean_name`, `lambda_script`, `description`) VALUES (5, 'predicate-task', 'return { param -> \"gay\" == param } as shop.zailushang.spring.boot.framework.SAM', '断言型接口示例：单参带返回值（Boolean）');
+INSERT INTO `refresh_bean` (`id`, `bean_name`, `lambda_script`, `description`) VALUES (6, 'run-4-act', 'import javax.sql.DataSource;return { param -> println act.getBean(DataSource.class) } as shop.zailushang.spring.boot.framework.SAM', '使用内置对象 act 查找依赖示例');
+INSERT INTO `refresh_bean` (`id`, `bean_name`, `lambda_script`, `description`) VALUES (7, 'run-4-itl', 'return { param -> println \"itl.get() = ${itl.get()}, in groovy.\"; itl.remove(); } as shop.zailushang.spring.boot.framework.SAM', '使用内置对象 itl 获取线程变量示例');
+INSERT INTO `refresh_bean` (`id`, `bean_name`, `lambda_script`, `description`, `compile_static`) VALUES (8, 'static-task', 'return { String param -> param.replace(\"PHP\",\"Java\") } as shop.zailushang.spring.boot.framework.SAM<String, String>', '静态编译示例：参数需声明类型', 1);
+INSERT INTO `refresh_bean` (`id`, `bean_name`, `lambda_script`, `description`, `language`) VALUES (9, 'java-task', 'import shop.zailushang.spring.boot.framework.SAMSource; public class JavaTask extends SAMSource<String, String> { @Override public String execute(String param) { return param.replace(\"PHP\", \"Java\"); } }', 'Java 源码示例：经 javac 编译', 'java');
 
 SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,19 @@
+package shop.zailushang.spring.boot.autoconfigure;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// redis 模式下按存储布局装配：与 DynamicBeanProperties 以同一方式绑定配置，layout 的取值不区分大小写及 -、_ 写法
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Conditional(OnRedisLayoutCondition.class)
+public @interface ConditionalOnRedisLayout {
+
+    DynamicBeanProperties.Layout value();
+}
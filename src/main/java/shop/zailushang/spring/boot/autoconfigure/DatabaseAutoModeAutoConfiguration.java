@@ -6,25 +6,22 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
-import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.transaction.event.TransactionalEventListener;
+import shop.zailushang.spring.boot.framework.DynamicBeanExecutors;
 import shop.zailushang.spring.boot.framework.RefreshableScope;
 import shop.zailushang.spring.boot.framework.ScriptEngineCreator;
 import shop.zailushang.spring.boot.pubsub.database.CanalClientListener;
 import shop.zailushang.spring.boot.pubsub.database.CanalConfigurationProperties;
-import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
 import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.pubsub.event.RefreshEventPipeline;
 import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
 
 import java.net.InetSocketAddress;
@@ -42,8 +39,9 @@ public class DatabaseAutoModeAutoConfiguration {
         public static BeanDefinitionRegistryPostProcessor beanDefinitionRegistryPostProcessor(Environment environment, @Qualifier("groovyCreator") ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
             return registry -> {
                 log.info("starting DatabaseAutoMode BeanDefinitionRegistry.");
-                var beanDefinitionHolders = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromDatabase(environment, scriptEngineCreator, refreshableScope);
-                beanDefinitionHolders.forEach(beanDefinitionHolder -> registry.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition()));
+                // 边解析边注册，不在内存中收集全部 BeanDefinition
+                var registered = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromDatabase(environment, registry, scriptEngineCreator, refreshableScope);
+                log.info("registered {} dynamic beanDefinitions.", registered);
             };
         }
 
@@ -63,30 +61,26 @@ public class DatabaseAutoModeAutoConfiguration {
     }
 
     // 数据库自动模式下配置 事件监听器
-    @EnableAsync
     @Configuration
     @RequiredArgsConstructor
     @AutoConfigureAfter(EarlySourceRegistrar.class)
     @ConditionalOnProperty(name = "dynamic-bean.mode", havingValue = "database-auto")
     static class DatabaseAutoModeListenerRegistrar {
         private final CanalConnector canalConnector;
-        private final ApplicationEventPublisher applicationEventPublisher;
-        private final DefaultListableBeanFactory defaultListableBeanFactory;
+        private final CanalConfigurationProperties canalConfigurationProperties;
         private final RefreshableScope refreshableScope;
-        private final ScriptEngineCreator scriptEngineCreator;
+        private final DynamicBeanExecutors dynamicBeanExecutors;
+        private final RefreshEventPipeline refreshEventPipeline;
 
-        @Async
         @EventListener(ApplicationReadyEvent.class)
         public void canalListener() {
-            new CanalClientListener(canalConnector, applicationEventPublisher)
-                    .startListener();
+            var canalClientListener = new CanalClientListener(canalConnector, refreshEventPipeline::submitAll, canalConfigurationProperties, refreshableScope.metrics());
+            dynamicBeanExecutors.listen(canalClientListener::startListener);
         }
 
-        @Async
         @TransactionalEventListener(RefreshBeanEvent.class)
         public void eventListener(RefreshBeanEvent refreshBeanEvent) {
-            new DefaultEventProcessor(defaultListableBeanFactory, refreshableScope, scriptEngineCreator)
-                    .processEvent(refreshBeanEvent);
+            refreshEventPipeline.submit(refreshBeanEvent);
         }
     }
 }
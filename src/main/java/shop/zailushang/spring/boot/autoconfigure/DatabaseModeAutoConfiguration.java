@@ -31,8 +31,9 @@ public class DatabaseModeAutoConfiguration {
         public static BeanDefinitionRegistryPostProcessor beanDefinitionRegistryPostProcessor(Environment environment, @Qualifier("groovyCreator") ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
             return registry -> {
                 log.info("starting DatabaseMode BeanDefinitionRegistry.");
-                var beanDefinitionHolders = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromDatabase(environment, scriptEngineCreator, refreshableScope);
-                beanDefinitionHolders.forEach(beanDefinitionHolder -> registry.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition()));
+                // 边解析边注册，不在内存中收集全部 BeanDefinition
+                var registered = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromDatabase(environment, registry, scriptEngineCreator, refreshableScope);
+                log.info("registered {} dynamic beanDefinitions.", registered);
             };
         }
     }
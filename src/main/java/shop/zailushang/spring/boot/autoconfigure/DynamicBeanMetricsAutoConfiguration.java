@@ -0,0 +1,26 @@
+package shop.zailushang.spring.boot.autoconfigure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import shop.zailushang.spring.boot.framework.MicrometerDynamicBeanMetrics;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.ScriptClassCache;
+
+// Micrometer 位于类路径时，将动态 Bean 指标绑定至 MeterRegistry
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+public class DynamicBeanMetricsAutoConfiguration {
+    // 由 MeterRegistry 的后置处理器回调，绑定前的启动期编译耗时会被回放
+    @Bean
+    public MeterBinder dynamicBeanMeterBinder(RefreshableScope refreshableScope, ObjectProvider<ScriptClassCache> scriptClassCacheProvider, DynamicBeanProperties dynamicBeanProperties) {
+        var compileHistogram = dynamicBeanProperties.getMetrics().isCompileHistogram();
+        return meterRegistry -> {
+            refreshableScope.bindMetrics(new MicrometerDynamicBeanMetrics(meterRegistry, refreshableScope, compileHistogram));
+            scriptClassCacheProvider.ifAvailable(scriptClassCache -> MicrometerDynamicBeanMetrics.bindScriptClassCache(meterRegistry, scriptClassCache));
+        };
+    }
+}
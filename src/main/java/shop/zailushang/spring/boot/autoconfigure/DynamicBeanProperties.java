@@ -0,0 +1,154 @@
+package shop.zailushang.spring.boot.autoconfigure;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "dynamic-bean")
+public class DynamicBeanProperties {
+    // database || redis || database-auto
+    private String mode;
+    // jsr223：经由 ScriptEngineManager 获取 Groovy 引擎；native：直接编译为 SAMScript 子类，act、itl 以字段注入
+    private ScriptEngineType scriptEngine = ScriptEngineType.JSR223;
+    // 脚本编译产物缓存配置
+    private ScriptCache scriptCache = new ScriptCache();
+    // 启动阶段配置
+    private Startup startup = new Startup();
+    // 刷新事件处理及监听循环的专用线程池配置
+    private Executor executor = new Executor();
+    // 启动快照配置
+    private Snapshot snapshot = new Snapshot();
+    // RefreshableScope 有界驻留配置
+    private Residency residency = new Residency();
+    // redis 模式的存储配置
+    private Redis redis = new Redis();
+    // 周期性对账配置
+    private Reconcile reconcile = new Reconcile();
+    // 指标配置
+    private Metrics metrics = new Metrics();
+
+    // BeanDefinitionRegistryPostProcessor 执行时，配置属性尚未完成绑定，需手动从 Environment 中绑定
+    public static DynamicBeanProperties resolve(Environment environment) {
+        return Binder.get(environment)
+                .bind("dynamic-bean", DynamicBeanProperties.class)
+                .orElseGet(DynamicBeanProperties::new);
+    }
+
+    @Data
+    public static class ScriptCache {
+        // 是否启用字节码缓存
+        private boolean enabled = false;
+        // 字节码落盘目录，默认位于用户目录下（而非所有用户共享的临时目录），新建时仅本用户可访问；不属于本用户或组、其他用户可写时启动失败
+        private String directory = Path.of(System.getProperty("user.home"), ".dynamic-bean", "script-cache").toString();
+    }
+
+    @Data
+    public static class Startup {
+        // 启动时并发编译脚本的线程数，为 1 时在当前线程中顺序编译
+        private int parallelism = 1;
+        // eager：启动时编译全部脚本；lazy：启动时仅注册 BeanDefinition，首次调用时才编译
+        private Resolution resolution = Resolution.EAGER;
+        // 流式加载时每批读取的条数：JDBC 的 fetchSize（mysql 需在 url 中开启 useCursorFetch=true），redis 的 HSCAN COUNT
+        private int chunkSize = 500;
+        // 启动加载使用的连接池（Hikari）及 RedissonClient 是否移交给主容器复用，替代自动配置的同类型 Bean，避免重复建立连接
+        private boolean shareEarlyConnections = true;
+    }
+
+    @Data
+    public static class Executor {
+        // 是否使用虚拟线程（需 Java 21）
+        private boolean virtualThreads = false;
+        // 同时处理刷新事件（编译脚本）的最大并发数，超出的任务排队等待，避免刷新风暴挤占应用的 CPU
+        private int refreshConcurrency = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // 排队等待处理的刷新事件上限，达到上限时拒绝新事件，事件发布方不会阻塞
+        private int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class Snapshot {
+        // 是否启用启动快照，database 模式下要求 refresh_bean 表包含 updated_at 列
+        private boolean enabled = false;
+        // 快照文件
+        private String file = Path.of(System.getProperty("java.io.tmpdir"), "dynamic-bean", "snapshot.bin").toString();
+        // 存在快照时，数据源超过该时间仍未返回，则以快照启动
+        private Duration sourceTimeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Residency {
+        // 是否启用有界驻留（需 caffeine 位于类路径），未启用时所有 SAM 的编译产物常驻
+        private boolean enabled = false;
+        // 同时持有编译产物的 SAM 数量上限，超出时按 W-TinyLFU 淘汰
+        private long maximumSize = 10_000;
+        // 空闲超过该时间的 SAM 释放其编译产物，为空时不按空闲时间淘汰
+        private Duration expireAfterAccess = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class Redis {
+        // map-cache：RMapCache 中存储 JSON，字段级监听；compact：普通 hash 中存储压缩的二进制记录，另以 sidecar 存储内容摘要，经 channel 通知变更
+        private Layout layout = Layout.MAP_CACHE;
+        // notify：map-cache 布局为 RMapCache 字段级监听，compact 布局为 channel 订阅，节点断开期间的变更会丢失
+        // stream：消费写入时同步追加的变更日志（Redis Stream），消费位置由消费组持久化，重连或重启后从该位置继续
+        private ChangeFeed changeFeed = ChangeFeed.NOTIFY;
+        // 变更日志配置
+        private ChangeStream changeStream = new ChangeStream();
+        // 单点编译：写入节点编译脚本（编译失败时拒绝写入）并经 channel 发布字节码，其他节点直接由字节码定义类；启用时自动启用 script-cache
+        private boolean bytecodeFanout = false;
+    }
+
+    @Data
+    public static class ChangeStream {
+        // 变更日志的近似最大长度（XADD MAXLEN ~），节点离线期间的变更超出该长度时，需重启节点全量加载
+        private int maxLength = 100_000;
+        // 每次读取的最大条数，同一批次内的变更按 beanName 合并
+        private int batchSize = 100;
+        // 阻塞读取的超时时间
+        private Duration pollTimeout = Duration.ofSeconds(2);
+        // 单个条目的最大处理次数，均失败后记录日志并确认跳过，由对账修复
+        private int maxAttempts = 5;
+        // 本节点的消费组，每个节点独占一个，为空时取 ${spring.application.name}@主机名并在关闭时删除，同一主机部署多个实例时须显式配置
+        private String consumerGroup;
+    }
+
+    @Data
+    public static class Reconcile {
+        // 是否启用周期性对账：比对本节点各 Bean 的内容摘要与数据源中的摘要，修复丢失变更通知造成的偏差
+        private boolean enabled = false;
+        // 对账间隔
+        private Duration interval = Duration.ofMinutes(5);
+        // 间隔的随机偏移上限（±），避免各节点同时查询数据源
+        private Duration jitter = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Metrics {
+        // 是否为每个 Bean 的编译耗时发布百分位直方图：每个 Bean 产生数十个时间序列，Bean 较多时慎用
+        private boolean compileHistogram = false;
+    }
+
+    public enum ScriptEngineType {
+        JSR223,
+        NATIVE
+    }
+
+    public enum Resolution {
+        EAGER,
+        LAZY
+    }
+
+    public enum Layout {
+        MAP_CACHE,
+        COMPACT
+    }
+
+    public enum ChangeFeed {
+        NOTIFY,
+        STREAM
+    }
+}
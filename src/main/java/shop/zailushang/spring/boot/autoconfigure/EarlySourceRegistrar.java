@@ -1,25 +1,50 @@
 package shop.zailushang.spring.boot.autoconfigure;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ClassUtils;
+import shop.zailushang.spring.boot.framework.CompilingGroovyScriptEngine;
+import shop.zailushang.spring.boot.framework.DynamicBeanExecutors;
+import shop.zailushang.spring.boot.framework.JavaSourceScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.PolyglotScriptEngineCreator;
 import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.ScriptClassCache;
 import shop.zailushang.spring.boot.framework.ScriptEngineCreator;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshEventPipeline;
+import shop.zailushang.spring.boot.util.Assert;
 
 import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
+import java.nio.file.Path;
 
 // 提前初始化的资源配置
 @Configuration
 public class EarlySourceRegistrar {
     // 自定义可刷新作用域对象：refreshableScope
     @Bean("refreshableScope")
-    public static RefreshableScope refreshableScope(DefaultListableBeanFactory defaultListableBeanFactory) {
-        return new RefreshableScope(defaultListableBeanFactory);
+    public static RefreshableScope refreshableScope(DefaultListableBeanFactory defaultListableBeanFactory, Environment environment) {
+        var refreshableScope = new RefreshableScope(defaultListableBeanFactory);
+        // 有界驻留：冷门 SAM 的编译产物被淘汰，下次调用时重新编译
+        var residency = DynamicBeanProperties.resolve(environment).getResidency();
+        if (residency.isEnabled()) {
+            // caffeine 为可选依赖，缺失时在启动期明确报错，而不是在创建首个 SAM 时抛出 NoClassDefFoundError
+            if (!ClassUtils.isPresent("com.github.benmanes.caffeine.cache.Caffeine", EarlySourceRegistrar.class.getClassLoader()))
+                throw new IllegalStateException("dynamic-bean.residency.enabled=true requires com.github.ben-manes.caffeine:caffeine on the classpath");
+            refreshableScope.bound(residency.getMaximumSize(), residency.getExpireAfterAccess());
+        }
+        return refreshableScope;
     }
 
     // 配置使用自定义作用域对象
@@ -35,18 +60,62 @@ public class EarlySourceRegistrar {
         return new InheritableThreadLocal<>();
     }
 
+    // 脚本字节码缓存，按 lambdaScript 摘要落盘，重启或多节点间复用编译结果；单点编译时，其他节点发布的字节码同样写入此处
+    @Bean("scriptClassCache")
+    @ConditionalOnExpression("${dynamic-bean.script-cache.enabled:false} || ${dynamic-bean.redis.bytecode-fanout:false}")
+    public static ScriptClassCache scriptClassCache(Environment environment) {
+        var scriptCache = DynamicBeanProperties.resolve(environment).getScriptCache();
+        return new ScriptClassCache(Path.of(scriptCache.getDirectory()));
+    }
+
+    // 刷新事件处理及监听循环的专用线程池
+    @Bean("dynamicBeanExecutors")
+    public static DynamicBeanExecutors dynamicBeanExecutors(Environment environment) {
+        var executor = DynamicBeanProperties.resolve(environment).getExecutor();
+        return new DynamicBeanExecutors(executor.isVirtualThreads(), executor.getRefreshConcurrency(), executor.getQueueCapacity());
+    }
+
+    // 刷新事件流水线：同一 Bean 按序处理，不同 Bean 并行处理
+    @Bean("refreshEventPipeline")
+    public static RefreshEventPipeline refreshEventPipeline(DefaultListableBeanFactory defaultListableBeanFactory, RefreshableScope refreshableScope, @Qualifier("groovyCreator") ScriptEngineCreator scriptEngineCreator, DynamicBeanExecutors dynamicBeanExecutors, Environment environment) {
+        var eventProcessor = new DefaultEventProcessor(defaultListableBeanFactory, refreshableScope, scriptEngineCreator);
+        var queueCapacity = DynamicBeanProperties.resolve(environment).getExecutor().getQueueCapacity();
+        return new RefreshEventPipeline(eventProcessor, dynamicBeanExecutors, queueCapacity);
+    }
+
     // groovy 脚本引擎
     @Bean("groovyCreator")
     @DependsOn("inheritableThreadLocal")
-    public static ScriptEngineCreator scriptEngineCreator(ApplicationContext applicationContext, @Qualifier("inheritableThreadLocal") InheritableThreadLocal<Object> inheritableThreadLocal) {
-        return classLoader -> {
-            var scriptEngineManager = new ScriptEngineManager(classLoader);
-            var groovy = scriptEngineManager.getEngineByName("groovy");
-            var context = groovy.getContext();
-            // 绑定上下文对象
-            context.setAttribute("act", applicationContext, ScriptContext.ENGINE_SCOPE);
-            context.setAttribute("itl", inheritableThreadLocal, ScriptContext.ENGINE_SCOPE);
-            return groovy;
+    public static ScriptEngineCreator scriptEngineCreator(ApplicationContext applicationContext, @Qualifier("inheritableThreadLocal") InheritableThreadLocal<Object> inheritableThreadLocal, ObjectProvider<ScriptClassCache> scriptClassCacheProvider, Environment environment) {
+        var scriptClassCache = scriptClassCacheProvider.getIfAvailable();
+        var nativeCreator = new NativeGroovyScriptEngineCreator(applicationContext, inheritableThreadLocal, scriptClassCache);
+        // language 为 java 的 Bean 经 javac 编译，与 groovy 引擎的选择无关
+        var javaCreator = new JavaSourceScriptEngineCreator(applicationContext, inheritableThreadLocal, scriptClassCache);
+        // 原生引擎：跳过 JSR-223，脚本直接编译为类
+        if (DynamicBeanProperties.resolve(environment).getScriptEngine() == DynamicBeanProperties.ScriptEngineType.NATIVE)
+            return new PolyglotScriptEngineCreator(nativeCreator, javaCreator);
+        var jsr223Creator = new ScriptEngineCreator() {
+            @Override
+            public ScriptEngine createScriptEngine(ClassLoader classLoader) {
+                // 启用字节码缓存时，命中缓存将跳过 Groovy 编译
+                var groovy = Assert.isNull(scriptClassCache)
+                        ? new ScriptEngineManager(classLoader).getEngineByName("groovy")
+                        : new CompilingGroovyScriptEngine(classLoader, scriptClassCache);
+                var context = groovy.getContext();
+                // 绑定上下文对象
+                context.setAttribute("act", applicationContext, ScriptContext.ENGINE_SCOPE);
+                context.setAttribute("itl", inheritableThreadLocal, ScriptContext.ENGINE_SCOPE);
+                return groovy;
+            }
+
+            // 静态编译的脚本始终交由原生引擎编译：jsr223 下 act、itl 为 Binding 变量，无法通过类型检查
+            @Override
+            public ScriptEngine createScriptEngine(ClassLoader classLoader, RefreshBeanModel refreshBeanModel) {
+                return refreshBeanModel.requiresStaticCompilation()
+                        ? nativeCreator.createScriptEngine(classLoader, refreshBeanModel)
+                        : createScriptEngine(classLoader);
+            }
         };
+        return new PolyglotScriptEngineCreator(jsr223Creator, javaCreator);
     }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package shop.zailushang.spring.boot.autoconfigure;
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+// 绑定 DynamicBeanProperties 后比较 layout，避免以原始字符串比较时与枚举的宽松绑定规则不一致
+class OnRedisLayoutCondition extends SpringBootCondition {
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        var attributes = metadata.getAnnotationAttributes(ConditionalOnRedisLayout.class.getName());
+        var expected = (DynamicBeanProperties.Layout) attributes.get("value");
+        var dynamicBeanProperties = DynamicBeanProperties.resolve(context.getEnvironment());
+        if (!"redis".equals(dynamicBeanProperties.getMode()))
+            return ConditionOutcome.noMatch("dynamic-bean.mode is not redis");
+        var layout = dynamicBeanProperties.getRedis().getLayout();
+        return layout == expected
+                ? ConditionOutcome.match("dynamic-bean.redis.layout is " + layout)
+                : ConditionOutcome.noMatch("dynamic-bean.redis.layout is " + layout + ", expected " + expected);
+    }
+}
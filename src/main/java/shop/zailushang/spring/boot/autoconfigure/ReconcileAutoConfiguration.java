@@ -0,0 +1,119 @@
+package shop.zailushang.spring.boot.autoconfigure;
+
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import shop.zailushang.spring.boot.framework.DynamicBeanExecutors;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.mapper.RefreshBeanMapper;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanReconciler;
+import shop.zailushang.spring.boot.pubsub.event.RefreshEventPipeline;
+import shop.zailushang.spring.boot.pubsub.redis.CompactRefreshBeanStore;
+import shop.zailushang.spring.boot.pubsub.redis.RedisConst;
+import shop.zailushang.spring.boot.pubsub.redis.RefreshBeanModelCodec;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// 周期性对账配置：dynamic-bean.reconcile.enabled 为 true 时，按模式选择数据源的摘要视图，应用就绪后在监听线程中运行
+@Configuration
+public class ReconcileAutoConfiguration {
+
+    // 数据库模式（含 database-auto）：以 SQL 计算摘要
+    @Configuration
+    @AutoConfigureAfter(EarlySourceRegistrar.class)
+    @ConditionalOnExpression("(${dynamic-bean.reconcile.enabled:false} || ${dynamic-bean.snapshot.enabled:false}) && ('${dynamic-bean.mode:}' == 'database' || '${dynamic-bean.mode:}' == 'database-auto')")
+    static class DatabaseReconcileRegistrar {
+        @Bean
+        public RefreshBeanReconciler refreshBeanReconciler(RefreshBeanMapper refreshBeanMapper, RefreshableScope refreshableScope, RefreshEventPipeline refreshEventPipeline, DynamicBeanProperties dynamicBeanProperties) {
+            var digestSource = new RefreshBeanReconciler.DigestSource() {
+                @Override
+                public Map<String, Long> digests() {
+                    return refreshBeanMapper.selectDigests()
+                            .stream()
+                            .collect(Collectors.toMap(RefreshBeanMapper.Digest::beanName, digest -> Long.parseUnsignedLong(digest.contentHash(), 16)));
+                }
+
+                @Override
+                public Map<String, RefreshBeanModel> fetch(Collection<String> beanNames) {
+                    return refreshBeanMapper.selectByBeanNames(beanNames)
+                            .stream()
+                            .collect(Collectors.toMap(RefreshBeanModel::beanName, Function.identity()));
+                }
+            };
+            return reconciler(refreshableScope, digestSource, refreshEventPipeline, dynamicBeanProperties);
+        }
+    }
+
+    // redis 模式：compact 布局直接读取 sidecar 中的摘要；map-cache 布局没有摘要，分批 HSCAN 后在本地计算，须传输全部脚本
+    @Configuration
+    @AutoConfigureAfter(EarlySourceRegistrar.class)
+    @ConditionalOnExpression("(${dynamic-bean.reconcile.enabled:false} || ${dynamic-bean.snapshot.enabled:false}) && '${dynamic-bean.mode:}' == 'redis'")
+    static class RedisReconcileRegistrar {
+        @Bean
+        public RefreshBeanReconciler refreshBeanReconciler(RedissonClient redissonClient, RefreshableScope refreshableScope, RefreshEventPipeline refreshEventPipeline, DynamicBeanProperties dynamicBeanProperties) {
+            var compact = dynamicBeanProperties.getRedis().getLayout() == DynamicBeanProperties.Layout.COMPACT;
+            var chunkSize = dynamicBeanProperties.getStartup().getChunkSize();
+            var digestSource = new RefreshBeanReconciler.DigestSource() {
+                @Override
+                public Map<String, Long> digests() {
+                    if (compact) return CompactRefreshBeanStore.metadata(redissonClient).readAllMap();
+                    var digests = new HashMap<String, Long>();
+                    mapCache().values(chunkSize).forEach(refreshBeanModel -> digests.put(refreshBeanModel.beanName(), refreshBeanModel.contentHash()));
+                    return digests;
+                }
+
+                @Override
+                public Map<String, RefreshBeanModel> fetch(Collection<String> beanNames) {
+                    return compact
+                            ? CompactRefreshBeanStore.records(redissonClient).getAll(Set.copyOf(beanNames))
+                            : mapCache().getAll(Set.copyOf(beanNames));
+                }
+
+                private RMapCache<String, RefreshBeanModel> mapCache() {
+                    return redissonClient.getMapCache(RedisConst.REFRESH_BEAN_KEY, RefreshBeanModelCodec.INSTANCE);
+                }
+            };
+            return reconciler(refreshableScope, digestSource, refreshEventPipeline, dynamicBeanProperties);
+        }
+    }
+
+    // 应用就绪后，以启动快照启动时先追赶一次，再启动对账循环
+    @Configuration
+    @RequiredArgsConstructor
+    @ConditionalOnExpression("${dynamic-bean.reconcile.enabled:false} || ${dynamic-bean.snapshot.enabled:false}")
+    static class ReconcileListenerRegistrar {
+        private final ObjectProvider<RefreshBeanReconciler> refreshBeanReconcilerProvider;
+        private final DynamicBeanExecutors dynamicBeanExecutors;
+        private final RefreshableScope refreshableScope;
+        private final DynamicBeanProperties dynamicBeanProperties;
+
+        @EventListener(ApplicationReadyEvent.class)
+        public void reconcileListener() {
+            var catchUp = refreshableScope.startedFromSnapshot();
+            var reconcile = dynamicBeanProperties.getReconcile().isEnabled();
+            if (!catchUp && !reconcile) return;
+            refreshBeanReconcilerProvider.ifAvailable(refreshBeanReconciler -> dynamicBeanExecutors.listen(() -> {
+                if (catchUp) refreshBeanReconciler.catchUp();
+                if (reconcile) refreshBeanReconciler.startReconciler();
+            }));
+        }
+    }
+
+    private static RefreshBeanReconciler reconciler(RefreshableScope refreshableScope, RefreshBeanReconciler.DigestSource digestSource, RefreshEventPipeline refreshEventPipeline, DynamicBeanProperties dynamicBeanProperties) {
+        var reconcile = dynamicBeanProperties.getReconcile();
+        return new RefreshBeanReconciler(refreshableScope, digestSource, refreshEventPipeline::submitAll, reconcile.getInterval(), reconcile.getJitter());
+    }
+}
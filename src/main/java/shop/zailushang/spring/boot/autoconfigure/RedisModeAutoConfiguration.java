@@ -7,9 +7,10 @@ import org.redisson.api.map.event.EntryCreatedListener;
 import org.redisson.api.map.event.EntryRemovedListener;
 import org.redisson.api.map.event.EntryUpdatedListener;
 import org.redisson.api.map.event.MapEntryListener;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
-import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -18,17 +19,26 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.EnableAsync;
+import shop.zailushang.spring.boot.framework.DynamicBeanExecutors;
 import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.ScriptClassCache;
 import shop.zailushang.spring.boot.framework.ScriptEngineCreator;
 import shop.zailushang.spring.boot.model.RefreshBeanModel;
-import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
 import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.pubsub.event.RefreshEventPipeline;
+import shop.zailushang.spring.boot.pubsub.redis.BytecodeFanout;
+import shop.zailushang.spring.boot.pubsub.redis.CompactRedisChangeListener;
+import shop.zailushang.spring.boot.pubsub.redis.CompactRefreshBeanStore;
+import shop.zailushang.spring.boot.pubsub.redis.RedisChangeStream;
+import shop.zailushang.spring.boot.pubsub.redis.RedisChangeStreamListener;
 import shop.zailushang.spring.boot.pubsub.redis.RedisConst;
+import shop.zailushang.spring.boot.pubsub.redis.RefreshBeanModelCodec;
+import shop.zailushang.spring.boot.util.Assert;
 import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiFunction;
 
 @Configuration
 public class RedisModeAutoConfiguration {
@@ -43,22 +53,20 @@ public class RedisModeAutoConfiguration {
         private final ApplicationEventPublisher applicationEventPublisher;
 
         @Bean
-        public EntryCreatedListener<String, String> entryCreatedListener() {
+        public EntryCreatedListener<String, RefreshBeanModel> entryCreatedListener() {
             return event -> {
                 var key = event.getKey();
-                refresh(RefreshBeanEvent.addWith(RefreshBeanModel.parse(event.getValue())));
+                refresh(RefreshBeanEvent.addWith(event.getValue()));
                 log.info("redis listener create callback ==> {}", key);
             };
         }
 
         @Bean
-        public EntryUpdatedListener<String, String> entryUpdatedListener() {
+        public EntryUpdatedListener<String, RefreshBeanModel> entryUpdatedListener() {
             return event -> {
                 var key = event.getKey();
-                var oldValue = event.getOldValue();
-                var value = event.getValue();
-                var beforeModel = RefreshBeanModel.parse(oldValue);
-                var afterModel = RefreshBeanModel.parse(value);
+                var beforeModel = event.getOldValue();
+                var afterModel = event.getValue();
                 // 修改了 lambdaScript 时，才触发后续的刷新操作
                 if (beforeModel.diff(afterModel)) refresh(RefreshBeanEvent.updateWith(beforeModel, afterModel));
                 log.info("redis listener update callback ==> {}", key);
@@ -66,7 +74,7 @@ public class RedisModeAutoConfiguration {
         }
 
         @Bean
-        public EntryRemovedListener<String, String> entryRemovedListener() {
+        public EntryRemovedListener<String, RefreshBeanModel> entryRemovedListener() {
             return event -> {
                 var key = event.getKey();
                 refresh(RefreshBeanEvent.deleteWith(RefreshBeanModel.withBeanName(key)));
@@ -74,13 +82,27 @@ public class RedisModeAutoConfiguration {
             };
         }
 
+        // compact 布局下的变更监听器
+        @Bean
+        public CompactRedisChangeListener compactRedisChangeListener(RedissonClient redissonClient, RefreshableScope refreshableScope) {
+            return new CompactRedisChangeListener(redissonClient, applicationEventPublisher, refreshableScope);
+        }
+
+        // 单点编译：写入时编译并发布字节码，同时接收其他节点发布的字节码
+        @Bean
+        @ConditionalOnProperty(name = "dynamic-bean.redis.bytecode-fanout", havingValue = "true")
+        public BytecodeFanout bytecodeFanout(ScriptClassCache scriptClassCache, @Qualifier("groovyCreator") ScriptEngineCreator scriptEngineCreator) {
+            return new BytecodeFanout(scriptClassCache, scriptEngineCreator);
+        }
+
         // BeanDefinition 注册器
         @Bean
         public static BeanDefinitionRegistryPostProcessor beanDefinitionRegistryPostProcessor(Environment environment, @Qualifier("groovyCreator") ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
             return registry -> {
                 log.info("starting RedisMode BeanDefinitionRegistry.");
-                var beanDefinitionHolders = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromRedis(environment, scriptEngineCreator, refreshableScope);
-                beanDefinitionHolders.forEach(beanDefinitionHolder -> registry.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition()));
+                // 边解析边注册，不在内存中收集全部 BeanDefinition
+                var registered = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromRedis(environment, registry, scriptEngineCreator, refreshableScope);
+                log.info("registered {} dynamic beanDefinitions.", registered);
             };
         }
 
@@ -90,32 +112,72 @@ public class RedisModeAutoConfiguration {
     }
 
     // redis模式下配置 事件监听器
-    @EnableAsync
     @Configuration
     @RequiredArgsConstructor
     @AutoConfigureAfter(EarlySourceRegistrar.class)
     @ConditionalOnProperty(name = "dynamic-bean.mode", havingValue = "redis")
-    static class RedisModeListenerRegistrar {
-        private final DefaultListableBeanFactory defaultListableBeanFactory;
-        private final RefreshableScope refreshableScope;
-        private final ScriptEngineCreator scriptEngineCreator;
+    static class RedisModeListenerRegistrar implements DisposableBean {
+        private final RefreshEventPipeline refreshEventPipeline;
 
         private final RedissonClient redissonClient;
         private final Set<MapEntryListener> mapEntryListeners;
+        private final CompactRedisChangeListener compactRedisChangeListener;
+        private final DynamicBeanProperties dynamicBeanProperties;
+        private final DynamicBeanExecutors dynamicBeanExecutors;
+        private final RefreshableScope refreshableScope;
+        private final Environment environment;
+        private final ObjectProvider<BytecodeFanout> bytecodeFanoutProvider;
+
+        // change-feed 为 stream 时的消费循环，关闭时先于 RedissonClient 停止
+        private volatile RedisChangeStreamListener redisChangeStreamListener;
 
-        @Async
         @EventListener(ApplicationReadyEvent.class)
         public void eventListener() {
-            var rMapCache = redissonClient.<String, String>getMapCache(RedisConst.REFRESH_BEAN_KEY);
+            // 先于变更监听订阅字节码
+            bytecodeFanoutProvider.ifAvailable(bytecodeFanout -> BytecodeFanout.channel(redissonClient).addListener(byte[].class, bytecodeFanout));
+            var redis = dynamicBeanProperties.getRedis();
+            var compact = redis.getLayout() == DynamicBeanProperties.Layout.COMPACT;
+            // 变更日志：以本节点的消费组持久化消费位置，断线或重启后从该位置重放
+            if (redis.getChangeFeed() == DynamicBeanProperties.ChangeFeed.STREAM) {
+                var changeStream = redis.getChangeStream();
+                var group = RedisChangeStream.consumerGroup(changeStream.getConsumerGroup(), environment);
+                BiFunction<RedissonClient, Set<String>, Map<String, RefreshBeanModel>> fetcher = compact
+                        ? (client, beanNames) -> CompactRefreshBeanStore.records(client).getAll(beanNames)
+                        : (client, beanNames) -> client.<String, RefreshBeanModel>getMapCache(RedisConst.REFRESH_BEAN_KEY, RefreshBeanModelCodec.INSTANCE).getAll(beanNames);
+                redisChangeStreamListener = new RedisChangeStreamListener(
+                        redissonClient,
+                        refreshEventPipeline::submitAll,
+                        refreshableScope.contentHashes(),
+                        group,
+                        fetcher,
+                        changeStream.getBatchSize(),
+                        changeStream.getPollTimeout(),
+                        changeStream.getMaxAttempts(),
+                        !Assert.strNotBlank(changeStream.getConsumerGroup())
+                );
+                dynamicBeanExecutors.listen(redisChangeStreamListener::startListener);
+                return;
+            }
+            // compact 布局：普通 hash 不支持字段级监听，订阅写入时发布的变更通知
+            if (compact) {
+                CompactRefreshBeanStore.channel(redissonClient).addListener(String.class, compactRedisChangeListener);
+                return;
+            }
+            // 事件中的值同样由 RefreshBeanModelCodec 解码
+            var rMapCache = redissonClient.<String, RefreshBeanModel>getMapCache(RedisConst.REFRESH_BEAN_KEY, RefreshBeanModelCodec.INSTANCE);
             // 注册监听器
             mapEntryListeners.forEach(rMapCache::addListener);
         }
 
-        @Async
         @EventListener(RefreshBeanEvent.class)
         public void eventListener(RefreshBeanEvent refreshBeanEvent) {
-            new DefaultEventProcessor(defaultListableBeanFactory, refreshableScope, scriptEngineCreator)
-                    .processEvent(refreshBeanEvent);
+            refreshEventPipeline.submit(refreshBeanEvent);
+        }
+
+        @Override
+        public void destroy() {
+            var listener = redisChangeStreamListener;
+            if (listener != null) listener.stop();
         }
     }
 }
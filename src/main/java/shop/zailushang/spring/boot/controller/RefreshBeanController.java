@@ -17,6 +17,7 @@ public record RefreshBeanController(RefreshBeanService refreshBeanService, Appli
         Assert.isTrue(refreshBeanModel.beanName(), Assert::strNotBlank, () -> new IllegalArgumentException("beanName can't be empty"));
         Assert.isTrue(refreshBeanModel.lambdaScript(), Assert::strNotBlank, () -> new IllegalArgumentException("lambdaScript can't be empty"));
         Assert.isTrue(refreshBeanModel.description(), Assert::strNotBlank, () -> new IllegalArgumentException("description can't be empty"));
+        Assert.isTrue(refreshBeanModel.scriptLanguage(), RefreshBeanController::isSupportedLanguage, () -> new IllegalArgumentException("language must be groovy or java"));
         return refreshBeanService.insert(refreshBeanModel);
     }
 
@@ -30,9 +31,10 @@ public record RefreshBeanController(RefreshBeanService refreshBeanService, Appli
         Assert.isTrue(refreshBeanModel.beanName(), Assert::strNotBlank, () -> new IllegalArgumentException("beanName can't be empty"));
         Assert.isTrue(
                 refreshBeanModel,
-                rbm -> Assert.strNotBlank(rbm.lambdaScript()) || Assert.strNotBlank(rbm.description()),
-                () -> new IllegalArgumentException("lambdaScript, description can't be empty together")
+                rbm -> Assert.strNotBlank(rbm.lambdaScript()) || Assert.strNotBlank(rbm.description()) || Assert.isNotNull(rbm.compileStatic()) || Assert.strNotBlank(rbm.language()),
+                () -> new IllegalArgumentException("lambdaScript, description, compileStatic, language can't be empty together")
         );
+        Assert.isTrue(refreshBeanModel.scriptLanguage(), RefreshBeanController::isSupportedLanguage, () -> new IllegalArgumentException("language must be groovy or java"));
         return refreshBeanService.update(refreshBeanModel);
     }
 
@@ -40,4 +42,8 @@ public record RefreshBeanController(RefreshBeanService refreshBeanService, Appli
     public Object listRefreshBean() {
         return refreshBeanService.selectAll();
     }
+
+    private static boolean isSupportedLanguage(String language) {
+        return RefreshBeanModel.GROOVY.equals(language) || RefreshBeanModel.JAVA.equals(language);
+    }
 }
@@ -4,6 +4,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
 import shop.zailushang.spring.boot.framework.SAM;
 
 @RestController
@@ -19,4 +20,10 @@ public record SamplesController(ApplicationContext applicationContext) {
     public Object setRefreshBean() {
         return applicationContext.getBeanNamesForType(SAM.class);
     }
+
+    // 脚本 ClassLoader 统计：retired 在 GC 后仍不为 0 的 Bean 存在泄漏嫌疑
+    @GetMapping("/classloaders")
+    public Object classLoaders() {
+        return applicationContext.getBean(RefreshableScope.class).classLoaderTracker().report();
+    }
 }
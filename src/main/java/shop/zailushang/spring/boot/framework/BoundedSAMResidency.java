@@ -0,0 +1,66 @@
+package shop.zailushang.spring.boot.framework;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.time.Duration;
+import java.util.Locale;
+
+// 有界驻留：限制同时持有编译产物的 SAM 数量及空闲时长（Caffeine，W-TinyLFU 淘汰）
+// 淘汰时仅释放委托对象的目标对象，编译出的类随其 ClassLoader 一同回收；下次调用时重新编译，启用字节码缓存时直接从缓存加载
+public class BoundedSAMResidency {
+
+    private final Cache<String, SAMDelegate<?, ?>> residents;
+
+    private final RefreshableScope refreshableScope;
+
+    public BoundedSAMResidency(long maximumSize, Duration expireAfterAccess, RefreshableScope refreshableScope) {
+        this.refreshableScope = refreshableScope;
+        var builder = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .<String, SAMDelegate<?, ?>>evictionListener(this::onEviction);
+        if (expireAfterAccess != null) builder.expireAfterAccess(expireAfterAccess);
+        this.residents = builder.build();
+    }
+
+    // 为委托对象登记驻留，由 RefreshableScope 在创建工厂 Bean 时调用
+    Resident resident(String name, SAMDelegate<?, ?> delegate) {
+        return new Resident(name, delegate, this);
+    }
+
+    // Bean 被删除时，移出驻留集合，不计为淘汰
+    void invalidate(String name) {
+        residents.invalidate(name);
+    }
+
+    // 当前驻留（持有编译产物）的 SAM 数量
+    public long size() {
+        return residents.estimatedSize();
+    }
+
+    // 立即执行挂起的淘汰，便于测试及基准观测
+    public void cleanUp() {
+        residents.cleanUp();
+    }
+
+    private void onEviction(String name, SAMDelegate<?, ?> delegate, RemovalCause cause) {
+        var evicted = delegate == null ? null : delegate.evict();
+        if (evicted == null) return;
+        refreshableScope.metrics().recordEviction(cause.name().toLowerCase(Locale.ROOT));
+        refreshableScope.classLoaderTracker().retire(name, evicted);
+    }
+
+    // 单个委托对象的驻留登记：调用时记录访问，目标对象就绪时加入驻留集合
+    record Resident(String name, SAMDelegate<?, ?> delegate, BoundedSAMResidency residency) {
+
+        void touch() {
+            residency.residents.getIfPresent(name);
+        }
+
+        void admit(boolean reloaded) {
+            residency.residents.put(name, delegate);
+            if (reloaded) residency.refreshableScope.metrics().recordReload();
+        }
+    }
+}
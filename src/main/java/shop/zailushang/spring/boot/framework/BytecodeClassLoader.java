@@ -0,0 +1,27 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.Map;
+
+// 直接从字节码定义类的 ClassLoader，每个动态类独占一个，随 SAM 实例一同回收
+public class BytecodeClassLoader extends ClassLoader {
+
+    // 类名 => 字节码
+    private final Map<String, byte[]> classes;
+
+    public BytecodeClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+        super(parent);
+        this.classes = Map.copyOf(classes);
+    }
+
+    // 字节码总长度，用于近似统计类占用
+    public long classBytes() {
+        return classes.values().stream().mapToLong(bytes -> bytes.length).sum();
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        var bytes = classes.get(name);
+        if (bytes == null) throw new ClassNotFoundException(name);
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,169 @@
+package shop.zailushang.spring.boot.framework;
+
+import groovy.lang.Closure;
+import org.codehaus.groovy.runtime.ConversionHandler;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 动态 Bean 的 ClassLoader 追踪：以弱引用登记每次编译创建的 ClassLoader，目标对象被替换、淘汰或删除后标记为应卸载
+// 应卸载的 ClassLoader 在 GC 后依然存活，即为泄漏嫌疑
+public class ClassLoaderTracker {
+
+    // 目标对象不可达后清理其脚本类的 Groovy ClassInfo
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final ReferenceQueue<ClassLoader> referenceQueue = new ReferenceQueue<>();
+
+    // 尚未被回收的登记，按 beanName 分组
+    private final Map<String, Set<LoaderReference>> liveReferences = new ConcurrentHashMap<>();
+
+    // 登记编译 target 时创建的 ClassLoader
+    public void track(String beanName, ClassLoader classLoader, SAM<?, ?> target) {
+        expunge();
+        var scriptClasses = scriptClasses(target);
+        var reference = new LoaderReference(classLoader, referenceQueue, beanName, classBytes(scriptClasses), scriptClasses, target);
+        liveReferences.computeIfAbsent(beanName, key -> ConcurrentHashMap.newKeySet()).add(reference);
+    }
+
+    // 未登记到任何 Bean 的目标对象（如仅用于校验的编译产物）：不计入统计，不可达后清理其脚本类的 ClassInfo，使 ClassLoader 得以回收
+    public static void releaseWhenUnreachable(SAM<?, ?> target) {
+        var scriptClasses = weakly(scriptClasses(target));
+        CLEANER.register(target, () -> removeClasses(scriptClasses));
+    }
+
+    // 目标对象被替换或淘汰：将加载其类的 ClassLoader 标记为应卸载
+    public void retire(String beanName, SAM<?, ?> target) {
+        var references = liveReferences.get(beanName);
+        if (target == null || references == null) return;
+        for (var loader = scriptClasses(target).getFirst().getClassLoader(); loader != null; loader = loader.getParent()) {
+            for (var reference : references) {
+                if (reference.get() == loader) reference.retire();
+            }
+        }
+    }
+
+    // Bean 被删除：其全部 ClassLoader 均应卸载
+    public void retireAll(String beanName) {
+        var references = liveReferences.get(beanName);
+        if (references != null) references.forEach(LoaderReference::retire);
+    }
+
+    // 当前存活的 ClassLoader 统计，按 beanName 排序
+    public Report report() {
+        expunge();
+        var beans = new TreeMap<String, BeanReport>();
+        liveReferences.forEach((beanName, references) -> {
+            var live = 0;
+            var retired = 0;
+            var classBytes = 0L;
+            for (var reference : references) {
+                live++;
+                if (reference.retired) retired++;
+                classBytes += reference.classBytes;
+            }
+            if (live > 0) beans.put(beanName, new BeanReport(live, retired, classBytes));
+        });
+        return new Report(
+                beans.values().stream().mapToInt(BeanReport::live).sum(),
+                beans.values().stream().mapToInt(BeanReport::retired).sum(),
+                beans.values().stream().mapToLong(BeanReport::classBytes).sum(),
+                beans
+        );
+    }
+
+    // 移除已被回收的登记
+    private void expunge() {
+        for (Reference<? extends ClassLoader> polled; (polled = referenceQueue.poll()) != null; ) {
+            var reference = (LoaderReference) polled;
+            liveReferences.computeIfPresent(reference.beanName, (key, references) -> {
+                references.remove(reference);
+                return references.isEmpty() ? null : references;
+            });
+        }
+    }
+
+    // 脚本中定义的类：`{ ... } as SAM` 得到的是 JDK 代理，其类由应用 ClassLoader 加载，需取出闭包类及其所属的脚本类
+    private static List<Class<?>> scriptClasses(SAM<?, ?> target) {
+        var scriptClasses = new ArrayList<Class<?>>();
+        if (Proxy.isProxyClass(target.getClass()) && Proxy.getInvocationHandler(target) instanceof ConversionHandler conversionHandler) {
+            var delegate = conversionHandler.getDelegate();
+            scriptClasses.add(delegate.getClass());
+            if (delegate instanceof Closure<?> closure && closure.getOwner() != null) scriptClasses.add(closure.getOwner().getClass());
+        } else {
+            scriptClasses.add(target.getClass());
+        }
+        return scriptClasses;
+    }
+
+    private static List<WeakReference<Class<?>>> weakly(List<Class<?>> scriptClasses) {
+        return scriptClasses.stream().map(WeakReference<Class<?>>::new).toList();
+    }
+
+    private static void removeClasses(List<WeakReference<Class<?>>> scriptClasses) {
+        scriptClasses.stream()
+                .map(WeakReference::get)
+                .filter(Objects::nonNull)
+                .forEach(InvokerHelper::removeClass);
+    }
+
+    // 近似的类字节数：由字节码定义类（native 引擎或启用字节码缓存）时为字节码总长度，jsr223 引擎下无从获取，记为 0
+    private static long classBytes(List<Class<?>> scriptClasses) {
+        return scriptClasses.getFirst().getClassLoader() instanceof BytecodeClassLoader bytecodeClassLoader
+                ? bytecodeClassLoader.classBytes()
+                : 0;
+    }
+
+    private static final class LoaderReference extends WeakReference<ClassLoader> {
+
+        private final String beanName;
+
+        private final long classBytes;
+
+        // 脚本类的弱引用，不妨碍回收
+        private final List<WeakReference<Class<?>>> scriptClasses;
+
+        // 编译产物的弱引用，不妨碍回收
+        private final WeakReference<SAM<?, ?>> target;
+
+        // 目标对象已被替换、淘汰或删除，ClassLoader 应被回收
+        private volatile boolean retired;
+
+        private LoaderReference(ClassLoader classLoader, ReferenceQueue<ClassLoader> referenceQueue, String beanName, long classBytes, List<Class<?>> scriptClasses, SAM<?, ?> target) {
+            super(classLoader, referenceQueue);
+            this.beanName = beanName;
+            this.classBytes = classBytes;
+            this.scriptClasses = weakly(scriptClasses);
+            this.target = new WeakReference<>(target);
+        }
+
+        // 标记为应卸载，并清理 Groovy 全局 ClassInfo 缓存中的脚本类，否则 ClassLoader 无法回收
+        // 仍在执行的调用持有旧目标对象，此时清理的 ClassInfo 会被这些调用重新创建并再次钉住 ClassLoader，故推迟到目标对象不可达之后
+        private synchronized void retire() {
+            if (retired) return;
+            retired = true;
+            var current = target.get();
+            var classes = scriptClasses;
+            if (current == null) removeClasses(classes);
+            else CLEANER.register(current, () -> removeClasses(classes));
+        }
+    }
+
+    // live：存活的 ClassLoader 数量；retired：应卸载却依然存活的数量，GC 后仍不为 0 即为泄漏嫌疑；classBytes：存活的类字节数
+    public record Report(int live, int retired, long classBytes, Map<String, BeanReport> beans) {
+    }
+
+    public record BeanReport(int live, int retired, long classBytes) {
+    }
+}
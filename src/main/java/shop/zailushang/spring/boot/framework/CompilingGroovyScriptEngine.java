@@ -0,0 +1,122 @@
+package shop.zailushang.spring.boot.framework;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.jsr223.GroovyScriptEngineFactory;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.tools.GroovyClass;
+import org.springframework.context.ApplicationContext;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// 绕过 JSR-223 的 Groovy 引擎：使用 CompilationUnit 直接将脚本编译为字节码，再由字节码定义脚本类并执行
+// 配置了 ScriptClassCache 时，命中缓存将跳过 Groovy 编译
+public class CompilingGroovyScriptEngine extends AbstractScriptEngine {
+
+    private static final String CLASS_NAME_PREFIX = "Script_";
+
+    private final ClassLoader classLoader;
+
+    private final CompilerConfiguration compilerConfiguration;
+
+    // 为 null 时，每次都会调用 Groovy 编译器
+    private final ScriptClassCache scriptClassCache;
+
+    // compilerConfiguration 是否启用了 @CompileStatic，静态编译与动态编译的字节码不同，缓存键需区分
+    private final boolean compileStatic;
+
+    public CompilingGroovyScriptEngine(ClassLoader classLoader, ScriptClassCache scriptClassCache) {
+        this(classLoader, new CompilerConfiguration(CompilerConfiguration.DEFAULT), scriptClassCache);
+    }
+
+    public CompilingGroovyScriptEngine(ClassLoader classLoader, CompilerConfiguration compilerConfiguration, ScriptClassCache scriptClassCache) {
+        this(classLoader, compilerConfiguration, scriptClassCache, false);
+    }
+
+    public CompilingGroovyScriptEngine(ClassLoader classLoader, CompilerConfiguration compilerConfiguration, ScriptClassCache scriptClassCache, boolean compileStatic) {
+        this.classLoader = classLoader;
+        this.compilerConfiguration = compilerConfiguration;
+        this.scriptClassCache = scriptClassCache;
+        this.compileStatic = compileStatic;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        var digest = ScriptClassCache.cacheKey(cacheKey(script));
+        // 类名与摘要绑定，保证缓存中的字节码可以被直接定义
+        var className = CLASS_NAME_PREFIX + digest;
+        try {
+            var classes = scriptClassCache == null
+                    ? compile(className, script)
+                    : scriptClassCache.computeIfAbsent(digest, () -> compile(className, script));
+            var scriptClass = new BytecodeClassLoader(classLoader, classes).loadClass(className);
+            // 与 JSR-223 保持一致，脚本中的变量从 ENGINE_SCOPE 中读取
+            var binding = new Binding(context.getBindings(ScriptContext.ENGINE_SCOPE));
+            var scriptObject = InvokerHelper.createScript(scriptClass, binding);
+            // 脚本基类为 SAMScript 时，act、itl 作为字段直接注入
+            if (scriptObject instanceof SAMScript samScript) {
+                samScript.bind(
+                        (ApplicationContext) context.getAttribute("act", ScriptContext.ENGINE_SCOPE),
+                        (InheritableThreadLocal<Object>) context.getAttribute("itl", ScriptContext.ENGINE_SCOPE)
+                );
+            }
+            return scriptObject.run();
+        } catch (CompilationFailedException | ClassNotFoundException e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        try (reader) {
+            var writer = new StringWriter();
+            reader.transferTo(writer);
+            return eval(writer.toString(), context);
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return new GroovyScriptEngineFactory();
+    }
+
+    // 脚本基类、编译方式不同，编译出的字节码亦不同，缓存键需区分
+    private String cacheKey(String script) {
+        var scriptBaseClass = compilerConfiguration.getScriptBaseClass();
+        var key = scriptBaseClass == null ? script : scriptBaseClass + "\n" + script;
+        return compileStatic ? "@CompileStatic\n" + key : key;
+    }
+
+    // 编译脚本，返回 类名 => 字节码（包含脚本类及其闭包类）
+    private Map<String, byte[]> compile(String className, String script) {
+        var groovyClassLoader = classLoader instanceof GroovyClassLoader gcl ? gcl : new GroovyClassLoader(classLoader, compilerConfiguration);
+        var compilationUnit = new CompilationUnit(compilerConfiguration, null, groovyClassLoader);
+        compilationUnit.addSource(className + ".groovy", script);
+        compilationUnit.compile(Phases.CLASS_GENERATION);
+        return compilationUnit.getClasses()
+                .stream()
+                .collect(Collectors.toMap(GroovyClass::getName, GroovyClass::getBytes));
+    }
+}
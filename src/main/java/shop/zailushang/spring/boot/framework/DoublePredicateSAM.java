@@ -0,0 +1,42 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.function.DoublePredicate;
+
+// double → boolean 的原始类型特化 SAM，视图见 SAMDelegate.view
+@FunctionalInterface
+public interface DoublePredicateSAM extends SAM<Double, Boolean>, DoublePredicate {
+
+    @Override
+    boolean test(double value);
+
+    @Override
+    default Boolean execute(Double param) {
+        return test(param.doubleValue());
+    }
+
+    // 以下消除与 SAM（Predicate）同名默认方法的冲突
+    @Override
+    default boolean test(Double param) {
+        return test(param.doubleValue());
+    }
+
+    @Override
+    default DoublePredicateSAM negate() {
+        return value -> !test(value);
+    }
+
+    static DoublePredicateSAM of(SAM<?, ?> sam) {
+        if (sam instanceof DoublePredicateSAM specialized) return specialized;
+        if (sam instanceof SAMDelegate<?, ?> delegate) {
+            var view = delegate.view(DoublePredicateSAM.class, DoublePredicateSAM::boxed, (specialized, bits) -> specialized.test(Double.longBitsToDouble(bits)) ? 1 : 0);
+            return value -> view.invoke(Double.doubleToRawLongBits(value)) != 0;
+        }
+        return boxed(sam);
+    }
+
+    private static DoublePredicateSAM boxed(SAM<?, ?> sam) {
+        @SuppressWarnings("unchecked")
+        var generic = (SAM<Object, Object>) sam;
+        return value -> SAMDelegate.toBoolean(generic.execute(value));
+    }
+}
@@ -0,0 +1,31 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.function.DoubleToLongFunction;
+
+// double → long 的原始类型特化 SAM，视图见 SAMDelegate.view
+@FunctionalInterface
+public interface DoubleToLongSAM extends SAM<Double, Long>, DoubleToLongFunction {
+
+    @Override
+    long applyAsLong(double value);
+
+    @Override
+    default Long execute(Double param) {
+        return applyAsLong(param.doubleValue());
+    }
+
+    static DoubleToLongSAM of(SAM<?, ?> sam) {
+        if (sam instanceof DoubleToLongSAM specialized) return specialized;
+        if (sam instanceof SAMDelegate<?, ?> delegate) {
+            var view = delegate.view(DoubleToLongSAM.class, DoubleToLongSAM::boxed, (specialized, bits) -> specialized.applyAsLong(Double.longBitsToDouble(bits)));
+            return value -> view.invoke(Double.doubleToRawLongBits(value));
+        }
+        return boxed(sam);
+    }
+
+    private static DoubleToLongSAM boxed(SAM<?, ?> sam) {
+        @SuppressWarnings("unchecked")
+        var generic = (SAM<Object, Object>) sam;
+        return value -> SAMDelegate.toLong(generic.execute(value));
+    }
+}
@@ -0,0 +1,31 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.function.DoubleUnaryOperator;
+
+// double → double 的原始类型特化 SAM，视图见 SAMDelegate.view
+@FunctionalInterface
+public interface DoubleUnarySAM extends SAM<Double, Double>, DoubleUnaryOperator {
+
+    @Override
+    double applyAsDouble(double value);
+
+    @Override
+    default Double execute(Double param) {
+        return applyAsDouble(param.doubleValue());
+    }
+
+    static DoubleUnarySAM of(SAM<?, ?> sam) {
+        if (sam instanceof DoubleUnarySAM specialized) return specialized;
+        if (sam instanceof SAMDelegate<?, ?> delegate) {
+            var view = delegate.view(DoubleUnarySAM.class, DoubleUnarySAM::boxed, (specialized, bits) -> Double.doubleToRawLongBits(specialized.applyAsDouble(Double.longBitsToDouble(bits))));
+            return value -> Double.longBitsToDouble(view.invoke(Double.doubleToRawLongBits(value)));
+        }
+        return boxed(sam);
+    }
+
+    private static DoubleUnarySAM boxed(SAM<?, ?> sam) {
+        @SuppressWarnings("unchecked")
+        var generic = (SAM<Object, Object>) sam;
+        return value -> SAMDelegate.toDouble(generic.execute(value));
+    }
+}
@@ -0,0 +1,72 @@
+package shop.zailushang.spring.boot.framework;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// 动态 Bean 专用线程池，与应用自身的 @Async 任务隔离：
+// refresh 处理刷新事件，限制并发编译数，超出的任务进入有界队列排队，队列已满时拒绝提交（RejectedExecutionException），提交方从不阻塞
+// listen 运行常驻的监听循环，不占用刷新并发数
+// 不以 Executor 类型注册为 Bean，避免 Spring Boot 默认的 applicationTaskExecutor 因此退让
+@Slf4j
+public class DynamicBeanExecutors implements DisposableBean {
+
+    private static final String REFRESH_THREAD_PREFIX = "dynamic-bean-refresh-";
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final SimpleAsyncTaskExecutor listenerExecutor;
+
+    public DynamicBeanExecutors(boolean virtualThreads, int refreshConcurrency, int queueCapacity) {
+        // 固定 refreshConcurrency 个线程，空闲 60s 后回收
+        this.refreshExecutor = new ThreadPoolExecutor(
+                refreshConcurrency,
+                refreshConcurrency,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                refreshThreadFactory(virtualThreads),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+        this.listenerExecutor = new SimpleAsyncTaskExecutor("dynamic-bean-listener-");
+        this.listenerExecutor.setVirtualThreads(virtualThreads);
+        // 追踪监听线程，关闭时中断并等待其退出
+        this.listenerExecutor.setTaskTerminationTimeout(5000);
+    }
+
+    private static ThreadFactory refreshThreadFactory(boolean virtualThreads) {
+        return virtualThreads
+                ? Thread.ofVirtual().name(REFRESH_THREAD_PREFIX, 1).factory()
+                : new CustomizableThreadFactory(REFRESH_THREAD_PREFIX);
+    }
+
+    // 提交刷新任务，队列已满或已关闭时抛出 RejectedExecutionException，由调用方决定丢弃或重试
+    public void refresh(Runnable task) {
+        refreshExecutor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                log.error("failed to process refresh task: ", e);
+            }
+        });
+    }
+
+    // 提交常驻的监听任务
+    public void listen(Runnable task) {
+        listenerExecutor.execute(task);
+    }
+
+    @Override
+    public void destroy() {
+        listenerExecutor.close();
+        // 不再接收新任务，已排队的任务继续执行完毕
+        refreshExecutor.shutdown();
+    }
+}
@@ -0,0 +1,54 @@
+package shop.zailushang.spring.boot.framework;
+
+// 动态 Bean 指标：默认为空实现，Micrometer 位于类路径时由 MicrometerDynamicBeanMetrics 实现
+public interface DynamicBeanMetrics {
+
+    DynamicBeanMetrics NOOP = new DynamicBeanMetrics() {
+    };
+
+    // 单个 Bean 的调用计时，返回 null 时不计时
+    default ExecutionRecorder executionRecorder(String beanName) {
+        return null;
+    }
+
+    // Bean 被删除时，释放其指标
+    default void removeBean(String beanName) {
+    }
+
+    // 脚本编译耗时
+    default void recordCompile(String beanName, long nanos) {
+    }
+
+    // 刷新事件：发布至开始处理的延迟，以及处理耗时
+    default void recordEvent(String eventType, long lagMillis, long nanos) {
+    }
+
+    // canal 批次：条目数，以及 binlog 执行至被拉取的延迟
+    default void recordCanalBatch(int size, long lagMillis) {
+    }
+
+    // canal 空批次或出错后选定的休眠时间
+    default void recordCanalPollInterval(long millis) {
+    }
+
+    // 有界驻留模式下，SAM 的编译产物被淘汰，cause 为 size 或 expired
+    default void recordEviction(String cause) {
+    }
+
+    // 有界驻留模式下，被淘汰的 SAM 再次调用时重新编译（或从字节码缓存加载）
+    default void recordReload() {
+    }
+
+    // 周期性对账：比对的 Bean 数、确认偏差的 Bean 数，以及耗时
+    default void recordReconcile(int checked, int drifted, long nanos) {
+    }
+
+    // 确认的偏差，kind 为 stale（脚本不一致）、missing（本节点缺失）或 orphan（数据源中已删除）
+    default void recordDrift(String kind) {
+    }
+
+    @FunctionalInterface
+    interface ExecutionRecorder {
+        void record(long nanos);
+    }
+}
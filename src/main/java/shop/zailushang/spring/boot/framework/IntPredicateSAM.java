@@ -0,0 +1,42 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.function.IntPredicate;
+
+// int → boolean 的原始类型特化 SAM，视图见 SAMDelegate.view
+@FunctionalInterface
+public interface IntPredicateSAM extends SAM<Integer, Boolean>, IntPredicate {
+
+    @Override
+    boolean test(int value);
+
+    @Override
+    default Boolean execute(Integer param) {
+        return test(param.intValue());
+    }
+
+    // 以下消除与 SAM（Predicate）同名默认方法的冲突
+    @Override
+    default boolean test(Integer param) {
+        return test(param.intValue());
+    }
+
+    @Override
+    default IntPredicateSAM negate() {
+        return value -> !test(value);
+    }
+
+    static IntPredicateSAM of(SAM<?, ?> sam) {
+        if (sam instanceof IntPredicateSAM specialized) return specialized;
+        if (sam instanceof SAMDelegate<?, ?> delegate) {
+            var view = delegate.view(IntPredicateSAM.class, IntPredicateSAM::boxed, (specialized, bits) -> specialized.test((int) bits) ? 1 : 0);
+            return value -> view.invoke(value) != 0;
+        }
+        return boxed(sam);
+    }
+
+    private static IntPredicateSAM boxed(SAM<?, ?> sam) {
+        @SuppressWarnings("unchecked")
+        var generic = (SAM<Object, Object>) sam;
+        return value -> SAMDelegate.toBoolean(generic.execute(value));
+    }
+}
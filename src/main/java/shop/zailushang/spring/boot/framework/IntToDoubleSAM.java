@@ -0,0 +1,31 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.function.IntToDoubleFunction;
+
+// int → double 的原始类型特化 SAM，视图见 SAMDelegate.view
+@FunctionalInterface
+public interface IntToDoubleSAM extends SAM<Integer, Double>, IntToDoubleFunction {
+
+    @Override
+    double applyAsDouble(int value);
+
+    @Override
+    default Double execute(Integer param) {
+        return applyAsDouble(param.intValue());
+    }
+
+    static IntToDoubleSAM of(SAM<?, ?> sam) {
+        if (sam instanceof IntToDoubleSAM specialized) return specialized;
+        if (sam instanceof SAMDelegate<?, ?> delegate) {
+            var view = delegate.view(IntToDoubleSAM.class, IntToDoubleSAM::boxed, (specialized, bits) -> Double.doubleToRawLongBits(specialized.applyAsDouble((int) bits)));
+            return value -> Double.longBitsToDouble(view.invoke(value));
+        }
+        return boxed(sam);
+    }
+
+    private static IntToDoubleSAM boxed(SAM<?, ?> sam) {
+        @SuppressWarnings("unchecked")
+        var generic = (SAM<Object, Object>) sam;
+        return value -> SAMDelegate.toDouble(generic.execute(value));
+    }
+}
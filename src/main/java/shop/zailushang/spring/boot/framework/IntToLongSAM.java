@@ -0,0 +1,31 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.function.IntToLongFunction;
+
+// int → long 的原始类型特化 SAM，视图见 SAMDelegate.view
+@FunctionalInterface
+public interface IntToLongSAM extends SAM<Integer, Long>, IntToLongFunction {
+
+    @Override
+    long applyAsLong(int value);
+
+    @Override
+    default Long execute(Integer param) {
+        return applyAsLong(param.intValue());
+    }
+
+    static IntToLongSAM of(SAM<?, ?> sam) {
+        if (sam instanceof IntToLongSAM specialized) return specialized;
+        if (sam instanceof SAMDelegate<?, ?> delegate) {
+            var view = delegate.view(IntToLongSAM.class, IntToLongSAM::boxed, (specialized, bits) -> specialized.applyAsLong((int) bits));
+            return value -> view.invoke(value);
+        }
+        return boxed(sam);
+    }
+
+    private static IntToLongSAM boxed(SAM<?, ?> sam) {
+        @SuppressWarnings("unchecked")
+        var generic = (SAM<Object, Object>) sam;
+        return value -> SAMDelegate.toLong(generic.execute(value));
+    }
+}
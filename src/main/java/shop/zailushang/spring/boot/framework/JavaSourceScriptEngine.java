@@ -0,0 +1,320 @@
+package shop.zailushang.spring.boot.framework;
+
+import org.springframework.context.ApplicationContext;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// java 语言的脚本引擎：使用 javax.tools.JavaCompiler 在内存中将 Java 源码编译为字节码，由独立的 BytecodeClassLoader 定义类并实例化
+// 源码为完整的编译单元，须包含一个实现 SAM（或继承 SAMSource）且拥有无参构造器的 public 顶层类
+// 配置了 ScriptClassCache 时，命中缓存将跳过 javac 编译
+public class JavaSourceScriptEngine extends AbstractScriptEngine {
+
+    // 关闭注解处理，避免扫描类路径上的处理器；保留调试信息，便于排查脚本异常
+    private static final List<String> COMPILER_OPTIONS = List.of("-proc:none", "-g", "-classpath", System.getProperty("java.class.path"));
+
+    private final ClassLoader classLoader;
+
+    // 为 null 时，每次都会调用 javac
+    private final ScriptClassCache scriptClassCache;
+
+    // 类路径中 jar 的包索引，由 JavaSourceScriptEngineCreator 在多次编译间共享
+    private final JarIndex jarIndex;
+
+    public JavaSourceScriptEngine(ClassLoader classLoader, ScriptClassCache scriptClassCache) {
+        this(classLoader, scriptClassCache, new JarIndex());
+    }
+
+    JavaSourceScriptEngine(ClassLoader classLoader, ScriptClassCache scriptClassCache, JarIndex jarIndex) {
+        this.classLoader = classLoader;
+        this.scriptClassCache = scriptClassCache;
+        this.jarIndex = jarIndex;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object eval(String source, ScriptContext context) throws ScriptException {
+        try {
+            // 与 Groovy 脚本的缓存键区分
+            var digest = ScriptClassCache.cacheKey("java\n" + source);
+            var classes = scriptClassCache == null
+                    ? compile(source)
+                    : scriptClassCache.computeIfAbsent(digest, () -> compile(source));
+            var bytecodeClassLoader = new BytecodeClassLoader(classLoader, classes);
+            var mainClass = mainClass(bytecodeClassLoader, classes.keySet());
+            var instance = mainClass.getDeclaredConstructor().newInstance();
+            if (instance instanceof SAMSource<?, ?> samSource) {
+                samSource.bind(
+                        (ApplicationContext) context.getAttribute("act", ScriptContext.ENGINE_SCOPE),
+                        (InheritableThreadLocal<Object>) context.getAttribute("itl", ScriptContext.ENGINE_SCOPE)
+                );
+            }
+            if (!(instance instanceof SAM<?, ?>))
+                throw new IllegalArgumentException(mainClass.getName() + " does not implement " + SAM.class.getName());
+            return instance;
+        } catch (IllegalArgumentException | ReflectiveOperationException e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        try (reader) {
+            var writer = new StringWriter();
+            reader.transferTo(writer);
+            return eval(writer.toString(), context);
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    // 不经由 ScriptEngineManager 创建，没有对应的 ScriptEngineFactory
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return null;
+    }
+
+    // 编译产物中的 public 顶层类：以 javac 实际输出的类为准，而非匹配源码文本（注释、字符串中的 class 声明不受影响）
+    // 命中缓存时同样适用，编译单元至多有一个 public 顶层类
+    private static Class<?> mainClass(ClassLoader bytecodeClassLoader, Set<String> classNames) throws ClassNotFoundException {
+        Class<?> mainClass = null;
+        for (var className : classNames) {
+            var clazz = bytecodeClassLoader.loadClass(className);
+            if (clazz.getEnclosingClass() == null && Modifier.isPublic(clazz.getModifiers())) mainClass = clazz;
+        }
+        if (mainClass == null) throw new IllegalArgumentException("no public top-level class found in java source");
+        return mainClass;
+    }
+
+    // 编译源码，返回 类名 => 字节码（包含内部类、匿名类）；编译失败时抛出 IllegalArgumentException，携带全部诊断信息
+    private Map<String, byte[]> compile(String source) {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) throw new IllegalStateException("no system java compiler, java language requires a JDK rather than a JRE");
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (var fileManager = new InMemoryJavaFileManager(compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8), classLoader, jarIndex)) {
+            var compilationUnit = new SourceFileObject(source);
+            var success = compiler.getTask(null, fileManager, diagnostics, COMPILER_OPTIONS, null, List.of(compilationUnit)).call();
+            if (!success) {
+                var message = diagnostics.getDiagnostics()
+                        .stream()
+                        .map(diagnostic -> "line " + diagnostic.getLineNumber() + ": " + diagnostic.getMessage(null))
+                        .collect(Collectors.joining("\n"));
+                throw new IllegalArgumentException("failed to compile java source:\n" + message);
+            }
+            return fileManager.classes;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 内存中的源码：编译前不知道类名，文件名与任意 public 类名兼容
+    private static final class SourceFileObject extends SimpleJavaFileObject {
+
+        private final String source;
+
+        private SourceFileObject(String source) {
+            super(URI.create("string:///Script" + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public boolean isNameCompatible(String simpleName, Kind kind) {
+            return kind == Kind.SOURCE;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    // 写入内存的编译产物
+    private static final class ClassFileObject extends SimpleJavaFileObject {
+
+        private final String className;
+
+        private final Map<String, byte[]> classes;
+
+        private ClassFileObject(String className, Map<String, byte[]> classes) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.className = className;
+            this.classes = classes;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    classes.put(className, toByteArray());
+                }
+            };
+        }
+    }
+
+    // 从 ClassLoader 中读取的类文件：Spring Boot 可执行 jar 内嵌套的依赖不在 java.class.path 中，javac 无法直接找到
+    private static final class ResourceFileObject extends SimpleJavaFileObject {
+
+        private final String binaryName;
+
+        private final URL url;
+
+        // jar 中资源的 URI 不透明（opaque），SimpleJavaFileObject 要求 URI 带有路径，故以类名构造
+        private ResourceFileObject(String binaryName, URL url) {
+            super(URI.create("classloader:///" + binaryName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.binaryName = binaryName;
+            this.url = url;
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            return url.openStream();
+        }
+    }
+
+    // 编译产物写入内存；类路径中找不到的类，回退到 ClassLoader 中查找
+    private static final class InMemoryJavaFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final ClassLoader classLoader;
+
+        private final JarIndex jarIndex;
+
+        // 类名 => 字节码
+        private final Map<String, byte[]> classes = Collections.synchronizedMap(new HashMap<>());
+
+        private InMemoryJavaFileManager(StandardJavaFileManager fileManager, ClassLoader classLoader, JarIndex jarIndex) {
+            super(fileManager);
+            this.classLoader = classLoader;
+            this.jarIndex = jarIndex;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            return new ClassFileObject(className, classes);
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(JavaFileManager.Location location, String packageName, Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+            var listed = super.list(location, packageName, kinds, recurse);
+            if (location != StandardLocation.CLASS_PATH || !kinds.contains(JavaFileObject.Kind.CLASS)) return listed;
+            // 合并 ClassLoader 中同一包下、类路径中缺失的类（同一个包可能分布于多个位置）
+            var merged = new ArrayList<JavaFileObject>();
+            var binaryNames = new HashSet<String>();
+            for (var fileObject : listed) {
+                merged.add(fileObject);
+                if (fileObject.getKind() == JavaFileObject.Kind.CLASS) binaryNames.add(inferBinaryName(location, fileObject));
+            }
+            for (var fileObject : listFromClassLoader(packageName)) {
+                if (binaryNames.add(fileObject.binaryName)) merged.add(fileObject);
+            }
+            return merged;
+        }
+
+        @Override
+        public String inferBinaryName(JavaFileManager.Location location, JavaFileObject file) {
+            return file instanceof ResourceFileObject resourceFileObject ? resourceFileObject.binaryName : super.inferBinaryName(location, file);
+        }
+
+        // 列出 ClassLoader 中指定包下的类文件（不含子包），支持目录及 jar（含嵌套 jar）
+        private List<ResourceFileObject> listFromClassLoader(String packageName) throws IOException {
+            var packagePath = packageName.replace('.', '/');
+            var fileObjects = new ArrayList<ResourceFileObject>();
+            var resources = classLoader.getResources(packagePath);
+            try {
+                while (resources.hasMoreElements()) {
+                    var url = resources.nextElement();
+                    if ("file".equals(url.getProtocol())) {
+                        try (var files = Files.list(Path.of(url.toURI()))) {
+                            for (var file : files.filter(path -> path.toString().endsWith(".class")).toList()) {
+                                var simpleName = file.getFileName().toString().replace(".class", "");
+                                fileObjects.add(new ResourceFileObject(packageName + "." + simpleName, file.toUri().toURL()));
+                            }
+                        }
+                    } else if ("jar".equals(url.getProtocol())) {
+                        var base = url.toString().endsWith("/") ? url.toString() : url + "/";
+                        for (var simpleName : jarIndex.list(url, base.substring(0, base.length() - packagePath.length() - 1), packagePath)) {
+                            var entryUrl = URI.create(base + simpleName + ".class").toURL();
+                            fileObjects.add(new ResourceFileObject(packageName + "." + simpleName, entryUrl));
+                        }
+                    }
+                }
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+            return fileObjects;
+        }
+    }
+
+    // jar 的包索引：每个 jar 只遍历一次全部条目，按包分组记录类的简单名；jar 内容在运行期不变，无需失效
+    static final class JarIndex {
+
+        // jar 根路径（jar:...!/） => 包路径 => 类的简单名（不含子包）
+        private final Map<String, Map<String, List<String>>> jars = new ConcurrentHashMap<>();
+
+        private List<String> list(URL url, String root, String packagePath) throws IOException {
+            var packages = jars.get(root);
+            if (packages == null) {
+                packages = index(url);
+                jars.putIfAbsent(root, packages);
+            }
+            return packages.getOrDefault(packagePath, List.of());
+        }
+
+        private static Map<String, List<String>> index(URL url) throws IOException {
+            if (!(url.openConnection() instanceof JarURLConnection jarURLConnection)) return Map.of();
+            jarURLConnection.setUseCaches(false);
+            var packages = new HashMap<String, List<String>>();
+            try (var jarFile = jarURLConnection.getJarFile()) {
+                for (var entry : Collections.list(jarFile.entries())) {
+                    var name = entry.getName();
+                    if (!name.endsWith(".class")) continue;
+                    var slash = name.lastIndexOf('/');
+                    var packagePath = slash == -1 ? "" : name.substring(0, slash);
+                    packages.computeIfAbsent(packagePath, key -> new ArrayList<>()).add(name.substring(slash + 1, name.length() - ".class".length()));
+                }
+            }
+            return packages;
+        }
+    }
+}
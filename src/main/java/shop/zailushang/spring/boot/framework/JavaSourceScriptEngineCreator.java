@@ -0,0 +1,36 @@
+package shop.zailushang.spring.boot.framework;
+
+import org.springframework.context.ApplicationContext;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+
+// java 语言的脚本引擎：源码经 javac 编译，SAMSource 的子类以字段注入 act、itl
+public class JavaSourceScriptEngineCreator implements ScriptEngineCreator {
+
+    private final ApplicationContext applicationContext;
+
+    private final InheritableThreadLocal<Object> inheritableThreadLocal;
+
+    // 可为 null，未启用字节码缓存
+    private final ScriptClassCache scriptClassCache;
+
+    // 多次编译共享的 jar 包索引，避免每次编译、每次包查找都遍历 jar 的全部条目
+    private final JavaSourceScriptEngine.JarIndex jarIndex = new JavaSourceScriptEngine.JarIndex();
+
+    public JavaSourceScriptEngineCreator(ApplicationContext applicationContext, InheritableThreadLocal<Object> inheritableThreadLocal, ScriptClassCache scriptClassCache) {
+        this.applicationContext = applicationContext;
+        this.inheritableThreadLocal = inheritableThreadLocal;
+        this.scriptClassCache = scriptClassCache;
+    }
+
+    @Override
+    public ScriptEngine createScriptEngine(ClassLoader classLoader) {
+        var java = new JavaSourceScriptEngine(classLoader, scriptClassCache, jarIndex);
+        var context = java.getContext();
+        // 绑定上下文对象，实例创建后注入为 SAMSource 的字段
+        context.setAttribute("act", applicationContext, ScriptContext.ENGINE_SCOPE);
+        context.setAttribute("itl", inheritableThreadLocal, ScriptContext.ENGINE_SCOPE);
+        return java;
+    }
+}
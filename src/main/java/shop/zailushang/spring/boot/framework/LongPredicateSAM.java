@@ -0,0 +1,42 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.function.LongPredicate;
+
+// long → boolean 的原始类型特化 SAM，视图见 SAMDelegate.view
+@FunctionalInterface
+public interface LongPredicateSAM extends SAM<Long, Boolean>, LongPredicate {
+
+    @Override
+    boolean test(long value);
+
+    @Override
+    default Boolean execute(Long param) {
+        return test(param.longValue());
+    }
+
+    // 以下消除与 SAM（Predicate）同名默认方法的冲突
+    @Override
+    default boolean test(Long param) {
+        return test(param.longValue());
+    }
+
+    @Override
+    default LongPredicateSAM negate() {
+        return value -> !test(value);
+    }
+
+    static LongPredicateSAM of(SAM<?, ?> sam) {
+        if (sam instanceof LongPredicateSAM specialized) return specialized;
+        if (sam instanceof SAMDelegate<?, ?> delegate) {
+            var view = delegate.view(LongPredicateSAM.class, LongPredicateSAM::boxed, (specialized, bits) -> specialized.test(bits) ? 1 : 0);
+            return value -> view.invoke(value) != 0;
+        }
+        return boxed(sam);
+    }
+
+    private static LongPredicateSAM boxed(SAM<?, ?> sam) {
+        @SuppressWarnings("unchecked")
+        var generic = (SAM<Object, Object>) sam;
+        return value -> SAMDelegate.toBoolean(generic.execute(value));
+    }
+}
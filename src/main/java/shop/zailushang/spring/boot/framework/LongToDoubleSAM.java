@@ -0,0 +1,31 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.function.LongToDoubleFunction;
+
+// long → double 的原始类型特化 SAM，视图见 SAMDelegate.view
+@FunctionalInterface
+public interface LongToDoubleSAM extends SAM<Long, Double>, LongToDoubleFunction {
+
+    @Override
+    double applyAsDouble(long value);
+
+    @Override
+    default Double execute(Long param) {
+        return applyAsDouble(param.longValue());
+    }
+
+    static LongToDoubleSAM of(SAM<?, ?> sam) {
+        if (sam instanceof LongToDoubleSAM specialized) return specialized;
+        if (sam instanceof SAMDelegate<?, ?> delegate) {
+            var view = delegate.view(LongToDoubleSAM.class, LongToDoubleSAM::boxed, (specialized, bits) -> Double.doubleToRawLongBits(specialized.applyAsDouble(bits)));
+            return value -> Double.longBitsToDouble(view.invoke(value));
+        }
+        return boxed(sam);
+    }
+
+    private static LongToDoubleSAM boxed(SAM<?, ?> sam) {
+        @SuppressWarnings("unchecked")
+        var generic = (SAM<Object, Object>) sam;
+        return value -> SAMDelegate.toDouble(generic.execute(value));
+    }
+}
@@ -0,0 +1,31 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.util.function.LongUnaryOperator;
+
+// long → long 的原始类型特化 SAM，视图见 SAMDelegate.view
+@FunctionalInterface
+public interface LongUnarySAM extends SAM<Long, Long>, LongUnaryOperator {
+
+    @Override
+    long applyAsLong(long value);
+
+    @Override
+    default Long execute(Long param) {
+        return applyAsLong(param.longValue());
+    }
+
+    static LongUnarySAM of(SAM<?, ?> sam) {
+        if (sam instanceof LongUnarySAM specialized) return specialized;
+        if (sam instanceof SAMDelegate<?, ?> delegate) {
+            var view = delegate.view(LongUnarySAM.class, LongUnarySAM::boxed, (specialized, bits) -> specialized.applyAsLong(bits));
+            return value -> view.invoke(value);
+        }
+        return boxed(sam);
+    }
+
+    private static LongUnarySAM boxed(SAM<?, ?> sam) {
+        @SuppressWarnings("unchecked")
+        var generic = (SAM<Object, Object>) sam;
+        return value -> SAMDelegate.toLong(generic.execute(value));
+    }
+}
@@ -0,0 +1,197 @@
+package shop.zailushang.spring.boot.framework;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 基于 Micrometer 的指标实现，仅在 Micrometer 位于类路径时加载
+public class MicrometerDynamicBeanMetrics implements DynamicBeanMetrics {
+
+    private static final long REPORT_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MeterRegistry meterRegistry;
+
+    // 按 Bean 的编译耗时是否发布百分位直方图
+    private final boolean compileHistogram;
+
+    private final DistributionSummary canalBatchSize;
+
+    private final Timer canalLag;
+
+    private final AtomicLong canalPollInterval = new AtomicLong();
+
+    private final Counter reload;
+
+    private final Timer reconcile;
+
+    private final AtomicLong reconcileChecked = new AtomicLong();
+
+    private final AtomicLong reconcileDrifted = new AtomicLong();
+
+    // 三个 ClassLoader 指标共用的统计：同一次采集内只生成一次（遍历全部登记并排序），超过 REPORT_TTL_NANOS 后重新生成
+    private volatile ClassLoaderTracker.Report classLoaderReport;
+
+    private volatile long classLoaderReportAt;
+
+    public MicrometerDynamicBeanMetrics(MeterRegistry meterRegistry, RefreshableScope refreshableScope) {
+        this(meterRegistry, refreshableScope, false);
+    }
+
+    public MicrometerDynamicBeanMetrics(MeterRegistry meterRegistry, RefreshableScope refreshableScope, boolean compileHistogram) {
+        this.meterRegistry = meterRegistry;
+        this.compileHistogram = compileHistogram;
+        this.canalBatchSize = DistributionSummary.builder("dynamic.bean.canal.batch.size")
+                .description("Entries per non-empty canal batch")
+                .register(meterRegistry);
+        this.canalLag = Timer.builder("dynamic.bean.canal.lag")
+                .description("Delay between binlog execution and canal poll")
+                .register(meterRegistry);
+        Gauge.builder("dynamic.bean.canal.poll.interval", canalPollInterval, AtomicLong::get)
+                .description("Current canal idle or error backoff in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("dynamic.bean.scope.size", refreshableScope, RefreshableScope::size)
+                .description("Factory beans cached in RefreshableScope")
+                .register(meterRegistry);
+        Gauge.builder("dynamic.bean.scope.resident", refreshableScope, RefreshableScope::residentSize)
+                .description("SAMs holding their compiled class in RefreshableScope")
+                .register(meterRegistry);
+        var classLoaderTracker = refreshableScope.classLoaderTracker();
+        Gauge.builder("dynamic.bean.classloader.live", classLoaderTracker, tracker -> classLoaderReport(tracker).live())
+                .description("Script class loaders not yet garbage collected")
+                .register(meterRegistry);
+        Gauge.builder("dynamic.bean.classloader.retired", classLoaderTracker, tracker -> classLoaderReport(tracker).retired())
+                .description("Class loaders of replaced, evicted or removed scripts that are still alive")
+                .register(meterRegistry);
+        Gauge.builder("dynamic.bean.classloader.class.bytes", classLoaderTracker, tracker -> classLoaderReport(tracker).classBytes())
+                .description("Approximate bytecode size of live script classes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.reload = Counter.builder("dynamic.bean.scope.reload")
+                .description("Evicted SAMs recompiled on next invocation")
+                .register(meterRegistry);
+        this.reconcile = Timer.builder("dynamic.bean.reconcile")
+                .description("Reconciliation round duration")
+                .register(meterRegistry);
+        Gauge.builder("dynamic.bean.reconcile.checked", reconcileChecked, AtomicLong::get)
+                .description("Beans compared in the last reconciliation round")
+                .register(meterRegistry);
+        Gauge.builder("dynamic.bean.reconcile.drifted", reconcileDrifted, AtomicLong::get)
+                .description("Beans with confirmed drift in the last reconciliation round")
+                .register(meterRegistry);
+    }
+
+    // 字节码缓存的命中、未命中次数，仅在启用了 ScriptClassCache 时绑定
+    public static void bindScriptClassCache(MeterRegistry meterRegistry, ScriptClassCache scriptClassCache) {
+        FunctionCounter.builder("dynamic.bean.script.cache", scriptClassCache, ScriptClassCache::hitCount)
+                .description("Script compilations served from the bytecode cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("dynamic.bean.script.cache", scriptClassCache, ScriptClassCache::missCount)
+                .description("Script compilations that missed the bytecode cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ExecutionRecorder executionRecorder(String beanName) {
+        var timer = executionTimer(beanName);
+        return nanos -> timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 移除该 Bean 的全部指标：调用计时及编译计时
+    @Override
+    public void removeBean(String beanName) {
+        meterRegistry.find("dynamic.bean.execution").tag("bean", beanName).meters().forEach(meterRegistry::remove);
+        meterRegistry.find("dynamic.bean.compile").tag("bean", beanName).meters().forEach(meterRegistry::remove);
+    }
+
+    @Override
+    public void recordCompile(String beanName, long nanos) {
+        Timer.builder("dynamic.bean.compile")
+                .description("Script compilation duration")
+                .tag("bean", beanName)
+                .publishPercentileHistogram(compileHistogram)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordEvent(String eventType, long lagMillis, long nanos) {
+        Timer.builder("dynamic.bean.event.lag")
+                .description("Delay between publishing and processing a refresh event")
+                .tag("type", eventType)
+                .register(meterRegistry)
+                .record(lagMillis, TimeUnit.MILLISECONDS);
+        Timer.builder("dynamic.bean.event")
+                .description("Refresh event processing duration")
+                .tag("type", eventType)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordCanalBatch(int size, long lagMillis) {
+        canalBatchSize.record(size);
+        canalLag.record(lagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordCanalPollInterval(long millis) {
+        canalPollInterval.set(millis);
+    }
+
+    @Override
+    public void recordEviction(String cause) {
+        Counter.builder("dynamic.bean.scope.eviction")
+                .description("SAMs whose compiled class was evicted from RefreshableScope")
+                .tag("cause", cause)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void recordReload() {
+        reload.increment();
+    }
+
+    @Override
+    public void recordReconcile(int checked, int drifted, long nanos) {
+        reconcileChecked.set(checked);
+        reconcileDrifted.set(drifted);
+        reconcile.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordDrift(String kind) {
+        Counter.builder("dynamic.bean.reconcile.drift")
+                .description("Beans found out of sync with the source of truth")
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer executionTimer(String beanName) {
+        return Timer.builder("dynamic.bean.execution")
+                .description("SAM.execute duration")
+                .tag("bean", beanName)
+                .register(meterRegistry);
+    }
+
+    private ClassLoaderTracker.Report classLoaderReport(ClassLoaderTracker classLoaderTracker) {
+        var now = System.nanoTime();
+        var report = classLoaderReport;
+        if (report == null || now - classLoaderReportAt > REPORT_TTL_NANOS) {
+            report = classLoaderTracker.report();
+            classLoaderReportAt = now;
+            classLoaderReport = report;
+        }
+        return report;
+    }
+}
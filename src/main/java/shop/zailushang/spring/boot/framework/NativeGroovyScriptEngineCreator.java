@@ -0,0 +1,57 @@
+package shop.zailushang.spring.boot.framework;
+
+import groovy.transform.CompileStatic;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.springframework.context.ApplicationContext;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+
+// 原生 Groovy 脚本引擎：不经过 ScriptEngineManager 的服务发现，脚本直接编译为 SAMScript 的子类，act、itl 作为字段注入
+public class NativeGroovyScriptEngineCreator implements ScriptEngineCreator {
+
+    private final ApplicationContext applicationContext;
+
+    private final InheritableThreadLocal<Object> inheritableThreadLocal;
+
+    // 可为 null，未启用字节码缓存
+    private final ScriptClassCache scriptClassCache;
+
+    // 编译配置只读，所有脚本共享
+    private final CompilerConfiguration compilerConfiguration;
+
+    // 静态编译配置：整个脚本类（含闭包）按 @CompileStatic 编译，act、itl 为 SAMScript 的字段，可通过类型检查
+    private final CompilerConfiguration staticCompilerConfiguration;
+
+    public NativeGroovyScriptEngineCreator(ApplicationContext applicationContext, InheritableThreadLocal<Object> inheritableThreadLocal, ScriptClassCache scriptClassCache) {
+        this.applicationContext = applicationContext;
+        this.inheritableThreadLocal = inheritableThreadLocal;
+        this.scriptClassCache = scriptClassCache;
+        this.compilerConfiguration = new CompilerConfiguration(CompilerConfiguration.DEFAULT);
+        this.compilerConfiguration.setScriptBaseClass(SAMScript.class.getName());
+        this.staticCompilerConfiguration = new CompilerConfiguration(compilerConfiguration);
+        this.staticCompilerConfiguration.addCompilationCustomizers(new ASTTransformationCustomizer(CompileStatic.class));
+    }
+
+    @Override
+    public ScriptEngine createScriptEngine(ClassLoader classLoader) {
+        return bind(new CompilingGroovyScriptEngine(classLoader, compilerConfiguration, scriptClassCache, false));
+    }
+
+    @Override
+    public ScriptEngine createScriptEngine(ClassLoader classLoader, RefreshBeanModel refreshBeanModel) {
+        return refreshBeanModel.requiresStaticCompilation()
+                ? bind(new CompilingGroovyScriptEngine(classLoader, staticCompilerConfiguration, scriptClassCache, true))
+                : createScriptEngine(classLoader);
+    }
+
+    private ScriptEngine bind(CompilingGroovyScriptEngine groovy) {
+        var context = groovy.getContext();
+        // 绑定上下文对象，脚本对象创建后注入为 SAMScript 的字段
+        context.setAttribute("act", applicationContext, ScriptContext.ENGINE_SCOPE);
+        context.setAttribute("itl", inheritableThreadLocal, ScriptContext.ENGINE_SCOPE);
+        return groovy;
+    }
+}
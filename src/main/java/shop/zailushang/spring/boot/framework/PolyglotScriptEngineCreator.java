@@ -0,0 +1,24 @@
+package shop.zailushang.spring.boot.framework;
+
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import javax.script.ScriptEngine;
+
+// 按 Bean 的 language 选择脚本引擎：java 交由 javac 编译，其余（groovy）交由 Groovy 引擎
+public record PolyglotScriptEngineCreator(ScriptEngineCreator groovyCreator, ScriptEngineCreator javaCreator) implements ScriptEngineCreator {
+
+    // 未指定 Bean 时，按 groovy 处理
+    @Override
+    public ScriptEngine createScriptEngine(ClassLoader classLoader) {
+        return groovyCreator.createScriptEngine(classLoader);
+    }
+
+    @Override
+    public ScriptEngine createScriptEngine(ClassLoader classLoader, RefreshBeanModel refreshBeanModel) {
+        return switch (refreshBeanModel.scriptLanguage()) {
+            case RefreshBeanModel.GROOVY -> groovyCreator.createScriptEngine(classLoader, refreshBeanModel);
+            case RefreshBeanModel.JAVA -> javaCreator.createScriptEngine(classLoader, refreshBeanModel);
+            default -> throw new IllegalArgumentException("unsupported language: " + refreshBeanModel.language());
+        };
+    }
+}
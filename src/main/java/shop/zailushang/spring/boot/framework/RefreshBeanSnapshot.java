@@ -0,0 +1,121 @@
+package shop.zailushang.spring.boot.framework;
+
+import lombok.extern.slf4j.Slf4j;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 启动快照：将上次启动时加载的 bean_name、版本、脚本摘要及脚本落盘，重启时仅拉取版本发生变化的行，数据源过慢时以快照兜底
+// 编译后的字节码不重复存储，由 ScriptClassCache 提供；此处的脚本摘要仅用于校验快照的完整性
+@Slf4j
+public class RefreshBeanSnapshot {
+
+    // 格式变更时递增，旧格式的快照视为损坏，加载完成后覆盖
+    private static final int MAGIC = 0x44425333; // DBS3
+
+    private final Path file;
+
+    public RefreshBeanSnapshot(Path file) {
+        this.file = file;
+    }
+
+    // version 为数据源中的版本（如 updated_at 毫秒数），无版本的数据源为 0
+    public record Entry(RefreshBeanModel refreshBeanModel, long version, String digest) {
+        public static Entry of(RefreshBeanModel refreshBeanModel, long version) {
+            return new Entry(refreshBeanModel, version, ScriptClassCache.digest(refreshBeanModel.lambdaScript()));
+        }
+    }
+
+    // beanName => Entry，文件不存在、已损坏或任一条目的摘要与脚本不一致时返回空 Map
+    public Map<String, Entry> load() {
+        var entries = new LinkedHashMap<String, Entry>();
+        if (!Files.isRegularFile(file)) return entries;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            var fileSize = Files.size(file);
+            if (in.readInt() != MAGIC) throw new IOException("unknown snapshot format");
+            var size = in.readInt();
+            for (var i = 0; i < size; i++) {
+                var id = in.readLong();
+                var beanName = readString(in, fileSize);
+                var version = in.readLong();
+                var digest = readString(in, fileSize);
+                var lambdaScript = readString(in, fileSize);
+                var description = readString(in, fileSize);
+                var compileStatic = in.readBoolean();
+                var language = readString(in, fileSize);
+                // 摘要与脚本不一致时，快照已被篡改或损坏
+                if (!ScriptClassCache.digest(lambdaScript).equals(digest)) throw new IOException("digest mismatch of " + beanName);
+                var refreshBeanModel = new RefreshBeanModel(id == -1 ? null : id, beanName, lambdaScript, description, compileStatic, language);
+                entries.put(beanName, new Entry(refreshBeanModel, version, digest));
+            }
+            return entries;
+        } catch (IOException e) {
+            // 快照损坏时当作不存在处理，加载完成后覆盖
+            log.warn("failed to load snapshot: {}", file, e);
+            return new LinkedHashMap<>();
+        }
+    }
+
+    // 先写入临时文件，再原子性地重命名，避免读到半截的快照
+    public void store(Collection<Entry> entries) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(entries.size());
+                for (var entry : entries) {
+                    var refreshBeanModel = entry.refreshBeanModel();
+                    out.writeLong(refreshBeanModel.id() == null ? -1 : refreshBeanModel.id());
+                    writeString(out, refreshBeanModel.beanName());
+                    out.writeLong(entry.version());
+                    writeString(out, entry.digest());
+                    writeString(out, refreshBeanModel.lambdaScript());
+                    writeString(out, refreshBeanModel.description());
+                    out.writeBoolean(refreshBeanModel.requiresStaticCompilation());
+                    writeString(out, refreshBeanModel.language());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("stored snapshot of {} beans: {}", entries.size(), file);
+        } catch (IOException e) {
+            log.warn("failed to store snapshot: {}", file, e);
+        } finally {
+            try {
+                if (tmp != null) Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                log.warn("failed to delete: {}", tmp, e);
+            }
+        }
+    }
+
+    // 长度前缀的 UTF-8 字符串，-1 表示 null；脚本可能超过 writeUTF 的 64KB 上限
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, long fileSize) throws IOException {
+        var length = in.readInt();
+        if (length == -1) return null;
+        if (length < 0 || length > fileSize) throw new IOException("corrupted snapshot");
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
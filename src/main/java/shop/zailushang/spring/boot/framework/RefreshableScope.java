@@ -1,15 +1,21 @@
 package shop.zailushang.spring.boot.framework;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.Scope;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.lang.NonNull;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
 
 // 自定义域对象，存储 RefreshAble Bean
 @RequiredArgsConstructor
@@ -20,10 +26,41 @@ public class RefreshableScope implements Scope {
     private final Map<String, FactoryBean<SAM<?, ?>>> factoryBeanCache = new ConcurrentHashMap<>();
     private final Map<String, Runnable> destructionCallbackCache = new ConcurrentHashMap<>();
 
+    private volatile DynamicBeanMetrics metrics = DynamicBeanMetrics.NOOP;
+
+    // 每次编译创建的 ClassLoader 的追踪，用于发现无法卸载的 ClassLoader
+    private final ClassLoaderTracker classLoaderTracker = new ClassLoaderTracker();
+
+    // 有界驻留，未启用时为 null，所有 SAM 的编译产物常驻
+    private BoundedSAMResidency boundedSAMResidency;
+
+    // beanName => 当前生效脚本的内容摘要（RefreshBeanModel#contentHash），供周期性对账比对
+    private final Map<String, Long> contentHashes = new ConcurrentHashMap<>();
+
+    // 数据源超时或失败、以启动快照启动时为 true，应用就绪后须执行一次追赶对账
+    private volatile boolean startedFromSnapshot;
+
+    // 指标绑定前（如启动期编译）的编译耗时，绑定时回放；设置上限，未启用指标时不会无限增长
+    private final BlockingQueue<Map.Entry<String, Long>> pendingCompileNanos = new LinkedBlockingQueue<>(10_000);
+
     public String name() {
         return "REFRESHABLE_SCOPE";
     }
 
+    // 启用有界驻留：超出数量上限或空闲超时的 SAM 释放其编译产物，下次调用时重新编译；须在创建任何工厂 Bean 之前调用
+    public void bound(long maximumSize, Duration expireAfterAccess) {
+        this.boundedSAMResidency = new BoundedSAMResidency(maximumSize, expireAfterAccess, this);
+    }
+
+    public boolean isBounded() {
+        return boundedSAMResidency != null;
+    }
+
+    // 有界驻留，未启用时为 null
+    public BoundedSAMResidency boundedSAMResidency() {
+        return boundedSAMResidency;
+    }
+
     @NonNull
     @Override
     @SuppressWarnings("unchecked")
@@ -32,7 +69,11 @@ public class RefreshableScope implements Scope {
             // 创建工厂Bean时，同步生成销毁回调
             registerDestructionCallback(name, () -> defaultListableBeanFactory.removeBeanDefinition(name));
             // 创建并缓存工厂Bean
-            return (FactoryBean<SAM<?, ?>>) objectFactory.getObject();
+            var factoryBean = (FactoryBean<SAM<?, ?>>) objectFactory.getObject();
+            bindExecutionRecorder(name, factoryBean);
+            if (isBounded() && factoryBean instanceof SAMProxyFactoryBean<?, ?> samProxyFactoryBean)
+                samProxyFactoryBean.bindResidency(name, boundedSAMResidency);
+            return factoryBean;
         });
         return factoryBeanCache.get(name);
     }
@@ -47,10 +88,86 @@ public class RefreshableScope implements Scope {
                     // 从未调用过 getBean 方法
                     () -> defaultListableBeanFactory.removeBeanDefinition(k)
             );
+            metrics.removeBean(k);
+            contentHashes.remove(k);
+            classLoaderTracker.retireAll(k);
+            if (isBounded()) boundedSAMResidency.invalidate(k);
             return null;
         });
     }
 
+    // 原子替换目标对象，BeanDefinition 与缓存中的工厂 Bean 保持不变，替换期间 getBean 始终可用
+    public SAM<?, ?> refresh(String name, SAM<?, ?> target) {
+        return refresh(name, target, null);
+    }
+
+    // 同上，有界驻留模式下同时替换淘汰后重新编译所用的解析器
+    @SuppressWarnings("unchecked")
+    public SAM<?, ?> refresh(String name, SAM<?, ?> target, Supplier<? extends SAM<?, ?>> targetResolver) {
+        // 尚未创建工厂 Bean 时（从未调用过 getBean 或延迟模式），此处先行创建，不会触发旧脚本的编译
+        var factoryBean = (SAMProxyFactoryBean<Object, Object>) defaultListableBeanFactory.getBean(BeanFactory.FACTORY_BEAN_PREFIX + name);
+        var oldTarget = factoryBean.swap((SAM<Object, Object>) target, (Supplier<SAM<Object, Object>>) targetResolver);
+        classLoaderTracker.retire(name, oldTarget);
+        return oldTarget;
+    }
+
+    // 绑定指标：回放绑定前的编译耗时，并为已创建的工厂 Bean 绑定调用计时
+    public synchronized void bindMetrics(DynamicBeanMetrics metrics) {
+        this.metrics = metrics;
+        for (Map.Entry<String, Long> pending; (pending = pendingCompileNanos.poll()) != null; )
+            metrics.recordCompile(pending.getKey(), pending.getValue());
+        factoryBeanCache.forEach(this::bindExecutionRecorder);
+    }
+
+    public DynamicBeanMetrics metrics() {
+        return metrics;
+    }
+
+    public ClassLoaderTracker classLoaderTracker() {
+        return classLoaderTracker;
+    }
+
+    // 记录编译耗时，指标绑定前暂存
+    public void recordCompile(String name, long nanos) {
+        var current = metrics;
+        if (current == DynamicBeanMetrics.NOOP) pendingCompileNanos.offer(Map.entry(name, nanos));
+        else current.recordCompile(name, nanos);
+    }
+
+    // 注册或替换成功后，记录当前生效脚本的内容摘要
+    public void recordContentHash(String name, long contentHash) {
+        contentHashes.put(name, contentHash);
+    }
+
+    // beanName => 内容摘要，只读视图
+    public Map<String, Long> contentHashes() {
+        return Collections.unmodifiableMap(contentHashes);
+    }
+
+    // 以启动快照启动，Bean 可能落后于数据源
+    public void markStartedFromSnapshot() {
+        startedFromSnapshot = true;
+    }
+
+    public boolean startedFromSnapshot() {
+        return startedFromSnapshot;
+    }
+
+    // 已缓存的工厂 Bean 数量
+    public int size() {
+        return factoryBeanCache.size();
+    }
+
+    // 持有编译产物的 SAM 数量，未启用有界驻留时与 size 一致
+    public long residentSize() {
+        return isBounded() ? boundedSAMResidency.size() : size();
+    }
+
+    private void bindExecutionRecorder(String name, FactoryBean<SAM<?, ?>> factoryBean) {
+        if (factoryBean instanceof SAMProxyFactoryBean<?, ?> samProxyFactoryBean)
+            samProxyFactoryBean.bindExecutionRecorder(metrics.executionRecorder(name));
+    }
+
     public void registerDestructionCallback(@NonNull String name, @NonNull Runnable callback) {
         destructionCallbackCache.putIfAbsent(name, callback);
     }
@@ -0,0 +1,182 @@
+package shop.zailushang.spring.boot.framework;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// 长期有效的 SAM 委托对象：目标对象保存于 volatile 字段，刷新时原地替换
+// 调用方可注入一次、长期持有，刷新依旧生效，每次调用仅多一次 volatile 读
+public final class SAMDelegate<T, R> implements SAM<T, R> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<SAMDelegate, SAM> TARGET = AtomicReferenceFieldUpdater.newUpdater(SAMDelegate.class, SAM.class, "target");
+
+    // 目标对象因淘汰而被释放的标记，与释放本身在同一次 CAS 中完成，重新编译时据此记录重载次数；从不被调用
+    @SuppressWarnings("rawtypes")
+    private static final SAM EVICTED = param -> {
+        throw new IllegalStateException("evicted");
+    };
+
+    // 目标对象解析器：延迟模式及有界驻留模式下用于（重新）编译，为 null 时目标对象不可淘汰
+    private volatile Supplier<SAM<T, R>> targetResolver;
+
+    // 目标对象，尚未编译时为 null，被淘汰时为 EVICTED
+    private volatile SAM<T, R> target;
+
+    // 调用计时，未启用指标时为 null
+    private volatile DynamicBeanMetrics.ExecutionRecorder executionRecorder;
+
+    // 有界驻留登记，未启用有界驻留时为 null
+    private volatile BoundedSAMResidency.Resident resident;
+
+    SAMDelegate(Supplier<SAM<T, R>> targetResolver, SAM<T, R> target) {
+        this.targetResolver = targetResolver;
+        this.target = target;
+    }
+
+    @Override
+    public R execute(T param) {
+        var currentResident = resident;
+        if (currentResident != null) currentResident.touch();
+        var recorder = executionRecorder;
+        if (recorder == null) return target().execute(param);
+        var start = System.nanoTime();
+        try {
+            return target().execute(param);
+        } finally {
+            recorder.record(System.nanoTime() - start);
+        }
+    }
+
+    // 当前的目标对象
+    public SAM<T, R> target() {
+        var current = target;
+        if (current != null && current != EVICTED) return current;
+        // single-flight：并发的首次调用（或淘汰后的首次调用）只会触发一次编译，编译失败时不缓存，下次调用重试
+        synchronized (this) {
+            current = target;
+            if (current == null || current == EVICTED) {
+                var reloaded = current == EVICTED;
+                current = targetResolver.get();
+                target = current;
+                var currentResident = resident;
+                if (currentResident != null) currentResident.admit(reloaded);
+            }
+            return current;
+        }
+    }
+
+    // 原子替换目标对象并返回旧对象，替换后的调用立即使用新对象
+    // 旧对象不做任何销毁处理：正在执行的调用仍持有其引用，执行完毕后旧对象即不可达，随其 ClassLoader 一同回收
+    SAM<T, R> swap(SAM<T, R> newTarget) {
+        return swap(newTarget, null);
+    }
+
+    // 同上，并替换目标对象解析器，使淘汰后重新编译的是新脚本；解析器为 null 时，新目标对象常驻不可淘汰
+    synchronized SAM<T, R> swap(SAM<T, R> newTarget, Supplier<SAM<T, R>> newTargetResolver) {
+        // 先替换解析器，再替换目标对象：淘汰后重新编译时读取到的必然是新脚本的解析器
+        targetResolver = newTargetResolver;
+        var oldTarget = target;
+        target = newTarget;
+        var currentResident = resident;
+        if (currentResident != null) currentResident.admit(false);
+        return oldTarget == EVICTED ? null : oldTarget;
+    }
+
+    // 淘汰：释放并返回目标对象，下次调用时由解析器重新编译；不加锁，避免阻塞于进行中的编译，期间目标对象被替换时放弃淘汰并返回 null
+    SAM<T, R> evict() {
+        var current = target;
+        if (current == null || current == EVICTED || targetResolver == null || !TARGET.compareAndSet(this, current, EVICTED)) return null;
+        return current;
+    }
+
+    // 原始类型视图：S 为原始类型特化的 SAM 接口（IntPredicateSAM 等），由其 of 方法创建，获取一次并长期持有，随刷新生效
+    // 每次调用与 execute 一样登记访问、计时；当前目标对象本身即为 S 时直接调用，全程不装箱，否则经 adapter 适配为 execute 装箱调用
+    // 参数与返回值以 long 的位表示经 call 传递（int、long 原样，double 经 doubleToRawLongBits，boolean 为 0 或 1），各特化接口共用同一个调用路径
+    <S> View<S> view(Class<S> type, Function<SAM<?, ?>, S> adapter, PrimitiveCall<S> call) {
+        return new View<>(this, type, adapter, call);
+    }
+
+    // 装箱调用的返回值转换：类型不符（含 null）时明确报错，不按 Groovy 的真值规则隐式转换
+    static boolean toBoolean(Object result) {
+        if (result instanceof Boolean value) return value;
+        throw new IllegalStateException("expected a boolean result, got " + describe(result));
+    }
+
+    // 仅接受整数类型，避免浮点数被静默截断
+    static long toLong(Object result) {
+        if (result instanceof Long || result instanceof Integer || result instanceof Short || result instanceof Byte)
+            return ((Number) result).longValue();
+        if (result instanceof BigInteger value) return value.longValueExact();
+        throw new IllegalStateException("expected an integral result, got " + describe(result));
+    }
+
+    static double toDouble(Object result) {
+        if (result instanceof Number value) return value.doubleValue();
+        throw new IllegalStateException("expected a numeric result, got " + describe(result));
+    }
+
+    private static String describe(Object result) {
+        return result == null ? "null" : result.getClass().getName();
+    }
+
+    void bind(DynamicBeanMetrics.ExecutionRecorder executionRecorder) {
+        this.executionRecorder = executionRecorder;
+    }
+
+    // 绑定有界驻留，已持有目标对象时立即加入驻留集合
+    void bind(BoundedSAMResidency.Resident resident) {
+        this.resident = resident;
+        var current = target;
+        if (current != null && current != EVICTED) resident.admit(false);
+    }
+
+    @Override
+    public String toString() {
+        var current = target;
+        return "SAMDelegate[" + (current == EVICTED ? null : current) + "]";
+    }
+
+    // 以 long 的位表示调用特化 SAM，见 view
+    @FunctionalInterface
+    interface PrimitiveCall<S> {
+        long invoke(S specialized, long bits);
+    }
+
+    static final class View<S> {
+
+        private final SAMDelegate<?, ?> delegate;
+
+        private final Class<S> type;
+
+        private final Function<SAM<?, ?>, S> adapter;
+
+        private final PrimitiveCall<S> call;
+
+        private View(SAMDelegate<?, ?> delegate, Class<S> type, Function<SAM<?, ?>, S> adapter, PrimitiveCall<S> call) {
+            this.delegate = delegate;
+            this.type = type;
+            this.adapter = adapter;
+            this.call = call;
+        }
+
+        long invoke(long bits) {
+            var currentResident = delegate.resident;
+            if (currentResident != null) currentResident.touch();
+            var recorder = delegate.executionRecorder;
+            if (recorder == null) return call.invoke(specialized(), bits);
+            var start = System.nanoTime();
+            try {
+                return call.invoke(specialized(), bits);
+            } finally {
+                recorder.record(System.nanoTime() - start);
+            }
+        }
+
+        private S specialized() {
+            var current = delegate.target();
+            return type.isInstance(current) ? type.cast(current) : adapter.apply(current);
+        }
+    }
+}
@@ -1,17 +1,56 @@
 package shop.zailushang.spring.boot.framework;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.lang.NonNull;
 
-@RequiredArgsConstructor
+import java.util.function.Supplier;
+
 public class SAMProxyFactoryBean<T, R> implements FactoryBean<SAM<T, R>> {
-    private final SAM<T, R> target;
+    // 对外始终返回同一个委托对象，刷新时仅替换其目标对象
+    private final SAMDelegate<T, R> delegate;
+
+    public SAMProxyFactoryBean(SAM<T, R> target) {
+        this.delegate = new SAMDelegate<>(null, target);
+    }
+
+    private SAMProxyFactoryBean(Supplier<SAM<T, R>> targetResolver, SAM<T, R> target) {
+        this.delegate = new SAMDelegate<>(targetResolver, target);
+    }
+
+    // 延迟编译：首次调用委托对象时才解析目标对象
+    public static <T, R> SAMProxyFactoryBean<T, R> lazy(Supplier<SAM<T, R>> targetResolver) {
+        return new SAMProxyFactoryBean<>(targetResolver, null);
+    }
+
+    // 可淘汰：持有已编译的目标对象，淘汰后由解析器重新编译
+    public static <T, R> SAMProxyFactoryBean<T, R> evictable(SAM<T, R> target, Supplier<SAM<T, R>> targetResolver) {
+        return new SAMProxyFactoryBean<>(targetResolver, target);
+    }
 
     @NonNull
     @Override
     public SAM<T, R> getObject() {
-        return target;
+        return delegate;
+    }
+
+    // 原子替换目标对象并返回旧对象，已持有委托对象的调用方随即生效
+    public SAM<T, R> swap(SAM<T, R> newTarget) {
+        return delegate.swap(newTarget);
+    }
+
+    // 同上，并替换淘汰后重新编译所用的解析器
+    public SAM<T, R> swap(SAM<T, R> newTarget, Supplier<SAM<T, R>> newTargetResolver) {
+        return delegate.swap(newTarget, newTargetResolver);
+    }
+
+    // 绑定调用计时，由 RefreshableScope 在创建工厂 Bean 及绑定指标时调用
+    public void bindExecutionRecorder(DynamicBeanMetrics.ExecutionRecorder executionRecorder) {
+        delegate.bind(executionRecorder);
+    }
+
+    // 绑定有界驻留，由 RefreshableScope 在创建工厂 Bean 时调用
+    public void bindResidency(String name, BoundedSAMResidency boundedSAMResidency) {
+        delegate.bind(boundedSAMResidency.resident(name, delegate));
     }
 
     @NonNull
@@ -19,4 +58,4 @@ public class SAMProxyFactoryBean<T, R> implements FactoryBean<SAM<T, R>> {
     public Class<?> getObjectType() {
         return SAM.class;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package shop.zailushang.spring.boot.framework;
+
+import groovy.lang.Script;
+import org.springframework.context.ApplicationContext;
+
+// native 引擎下脚本的基类：act、itl 作为字段注入，脚本及其闭包访问时无需经由 ScriptContext 查找绑定变量
+public abstract class SAMScript extends Script {
+
+    protected ApplicationContext act;
+
+    protected InheritableThreadLocal<Object> itl;
+
+    public void bind(ApplicationContext act, InheritableThreadLocal<Object> itl) {
+        this.act = act;
+        this.itl = itl;
+    }
+
+    // 闭包中的 act、itl 会委托至脚本对象查找属性，此处直接返回字段，不再查找 Binding
+    @Override
+    public Object getProperty(String property) {
+        return switch (property) {
+            case "act" -> act;
+            case "itl" -> itl;
+            default -> super.getProperty(property);
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package shop.zailushang.spring.boot.framework;
+
+import org.springframework.context.ApplicationContext;
+
+// java 语言下 SAM 实现类的可选基类：act、itl 作为字段注入，与 Groovy 脚本中的内置对象一致
+public abstract class SAMSource<T, R> implements SAM<T, R> {
+
+    protected ApplicationContext act;
+
+    protected InheritableThreadLocal<Object> itl;
+
+    public void bind(ApplicationContext act, InheritableThreadLocal<Object> itl) {
+        this.act = act;
+        this.itl = itl;
+    }
+}
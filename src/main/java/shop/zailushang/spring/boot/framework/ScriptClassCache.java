@@ -0,0 +1,247 @@
+package shop.zailushang.spring.boot.framework;
+
+import groovy.lang.GroovySystem;
+import lombok.extern.slf4j.Slf4j;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// 脚本编译产物缓存：以 lambdaScript 及 Groovy、Java 版本的摘要为键（见 cacheKey），将编译后的字节码落盘，命中时跳过 Groovy 编译
+// 缓存中的类文件会被直接定义并执行，目录须仅由本进程的用户可写：不属于该用户或组、其他用户可写的目录拒绝使用
+// 其他节点提供的字节码（见 offer）仅暂存于内存，编译内容摘要一致的记录时才以本节点计算的摘要为键采用并落盘
+@Slf4j
+public class ScriptClassCache {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    // Groovy、Java 版本不同时，字节码不一定兼容，版本计入缓存键，升级后不会误用旧版本编译的字节码
+    public static final String COMPATIBILITY = "groovy-" + GroovySystem.getVersion() + "/java-" + Runtime.version().feature();
+
+    private static final Set<PosixFilePermission> GROUP_OR_OTHERS_WRITE = Set.of(PosixFilePermission.GROUP_WRITE, PosixFilePermission.OTHERS_WRITE);
+
+    // 至多暂存的 Bean 数，按提供顺序淘汰
+    private static final int OFFER_CAPACITY = 256;
+
+    // 当前线程正在编译的记录，见 compiling
+    private static final ThreadLocal<RefreshBeanModel> COMPILING = new ThreadLocal<>();
+
+    private final Path directory;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // 当前线程正在记录的编译产物：摘要 => 类名 => 字节码，见 capture
+    private final ThreadLocal<Map<String, Map<String, byte[]>>> captured = new ThreadLocal<>();
+
+    // beanName => 其他节点提供的编译产物，每个 Bean 仅保留最近一次
+    private final Map<String, Offer> offers = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Offer> eldest) {
+            return size() > OFFER_CAPACITY;
+        }
+    });
+
+    public ScriptClassCache(Path directory) {
+        this.directory = directory;
+        try {
+            createPrivateDirectories(directory);
+            checkPrivate(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 缓存键：源码连同 Groovy、Java 版本的摘要
+    public static String cacheKey(String source) {
+        return digest(COMPATIBILITY + "\n" + source);
+    }
+
+    // 计算脚本摘要
+    public static String digest(String lambdaScript) {
+        try {
+            var bytes = MessageDigest.getInstance("SHA-256").digest(lambdaScript.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 命中时直接返回 类名 => 字节码，未命中时使用 compiler 编译并落盘
+    public Map<String, byte[]> computeIfAbsent(String digest, Supplier<Map<String, byte[]>> compiler) {
+        var cached = load(digest);
+        if (cached.isPresent()) {
+            hits.increment();
+            log.debug("script class cache hit: {}", digest);
+            return record(digest, cached.get());
+        }
+        var offered = offered(digest);
+        if (offered.isPresent()) {
+            hits.increment();
+            log.debug("script class cache offered: {}", digest);
+            store(digest, offered.get());
+            return record(digest, offered.get());
+        }
+        misses.increment();
+        var classes = compiler.get();
+        store(digest, classes);
+        return record(digest, classes);
+    }
+
+    // 标记当前线程正在编译 refreshBeanModel，关闭时恢复；其间未命中的摘要可采用内容摘要一致的 offer
+    public static Compiling compiling(RefreshBeanModel refreshBeanModel) {
+        var previous = COMPILING.get();
+        COMPILING.set(refreshBeanModel);
+        return () -> {
+            if (previous == null) COMPILING.remove();
+            else COMPILING.set(previous);
+        };
+    }
+
+    // 在当前线程中执行 compilation，返回其间经由本缓存得到的全部编译产物（摘要 => 类名 => 字节码），无论是否命中
+    public Map<String, Map<String, byte[]>> capture(Runnable compilation) {
+        var recorder = new LinkedHashMap<String, Map<String, byte[]>>();
+        var previous = captured.get();
+        captured.set(recorder);
+        try {
+            compilation.run();
+            return recorder;
+        } finally {
+            if (previous == null) captured.remove();
+            else captured.set(previous);
+        }
+    }
+
+    // 暂存由其他节点编译的字节码（摘要 => 类名 => 字节码），不落盘：摘要由提供方声明，须待编译内容摘要为 contentHash 的记录时，
+    // 与本节点按脚本计算的摘要一致才会采用
+    public void offer(String beanName, long contentHash, Map<String, Map<String, byte[]>> classes) {
+        offers.put(beanName, new Offer(contentHash, classes));
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private Map<String, byte[]> record(String digest, Map<String, byte[]> classes) {
+        var recorder = captured.get();
+        if (recorder != null) recorder.put(digest, classes);
+        return classes;
+    }
+
+    // 新建的目录仅本进程的用户可访问（POSIX 文件系统）
+    private static void createPrivateDirectories(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) return;
+        if (Files.getFileAttributeView(directory.toAbsolutePath().getRoot(), PosixFileAttributeView.class) == null) {
+            Files.createDirectories(directory);
+            return;
+        }
+        Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+    }
+
+    // 目录须属于本进程的用户（以在其中新建的文件的所有者为准），且组、其他用户不可写，否则他人可以植入被直接执行的类文件
+    private static void checkPrivate(Path directory) throws IOException {
+        var view = Files.getFileAttributeView(directory, PosixFileAttributeView.class);
+        if (view == null) return;
+        var attributes = view.readAttributes();
+        var probe = Files.createTempFile(directory, ".owner", null);
+        try {
+            if (!attributes.owner().equals(Files.getOwner(probe)))
+                throw new IllegalStateException("script cache directory " + directory + " is owned by " + attributes.owner() + ", not the current user");
+        } finally {
+            Files.deleteIfExists(probe);
+        }
+        if (attributes.permissions().stream().anyMatch(GROUP_OR_OTHERS_WRITE::contains))
+            throw new IllegalStateException("script cache directory " + directory + " is writable by group or others: " + PosixFilePermissions.toString(attributes.permissions()));
+    }
+
+    private Optional<Map<String, byte[]>> offered(String digest) {
+        var refreshBeanModel = COMPILING.get();
+        if (refreshBeanModel == null) return Optional.empty();
+        var offer = offers.get(refreshBeanModel.beanName());
+        if (offer == null || offer.contentHash() != refreshBeanModel.contentHash()) return Optional.empty();
+        return Optional.ofNullable(offer.classes().get(digest));
+    }
+
+    private Optional<Map<String, byte[]>> load(String digest) {
+        var entry = directory.resolve(digest);
+        if (!Files.isDirectory(entry)) return Optional.empty();
+        try (var files = Files.list(entry)) {
+            var classes = new HashMap<String, byte[]>();
+            for (var file : files.toList()) {
+                var fileName = file.getFileName().toString();
+                if (!fileName.endsWith(CLASS_SUFFIX)) continue;
+                classes.put(fileName.substring(0, fileName.length() - CLASS_SUFFIX.length()), Files.readAllBytes(file));
+            }
+            return classes.isEmpty() ? Optional.empty() : Optional.of(classes);
+        } catch (IOException e) {
+            // 缓存损坏时当作未命中处理，重新编译，不覆盖已有条目
+            log.warn("failed to load script class cache: {}", digest, e);
+            return Optional.empty();
+        }
+    }
+
+    // 先写入临时目录，再原子性地重命名，避免多个进程同时写入时读到半截的字节码
+    // 条目已存在时视为已完成，仅删除临时目录：已发布的条目从不删除或替换，并发的 load 只会看到完整的类集合或未命中
+    private void store(String digest, Map<String, byte[]> classes) {
+        var entry = directory.resolve(digest);
+        if (Files.isDirectory(entry)) return;
+        Path tmp = null;
+        try {
+            tmp = Files.createTempDirectory(directory, digest + ".");
+            for (var clazz : classes.entrySet()) {
+                Files.write(tmp.resolve(clazz.getKey() + CLASS_SUFFIX), clazz.getValue());
+            }
+            Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+            // 其他节点或线程已经写入了相同的内容
+            log.debug("script class cache already stored: {}", digest);
+        } catch (IOException e) {
+            log.warn("failed to store script class cache: {}", digest, e);
+        } finally {
+            if (tmp != null) deleteRecursively(tmp);
+        }
+    }
+
+    private void deleteRecursively(Path path) {
+        if (!Files.exists(path)) return;
+        try (var paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            log.warn("failed to delete: {}", path, e);
+        }
+    }
+
+    // 编译标记的作用域，关闭时不抛出受检异常
+    public interface Compiling extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private record Offer(long contentHash, Map<String, Map<String, byte[]>> classes) {
+    }
+}
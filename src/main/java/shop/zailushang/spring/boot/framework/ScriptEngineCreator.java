@@ -1,5 +1,7 @@
 package shop.zailushang.spring.boot.framework;
 
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
 import javax.script.ScriptEngine;
 import java.util.function.Function;
 
@@ -11,4 +13,9 @@ public interface ScriptEngineCreator extends Function<ClassLoader, ScriptEngine>
     }
 
     ScriptEngine createScriptEngine(ClassLoader classLoader);
+
+    // 按 Bean 的编译选项（如静态编译）创建脚本引擎，默认忽略编译选项
+    default ScriptEngine createScriptEngine(ClassLoader classLoader, RefreshBeanModel refreshBeanModel) {
+        return createScriptEngine(classLoader);
+    }
 }
@@ -3,6 +3,7 @@ package shop.zailushang.spring.boot.mapper;
 import org.apache.ibatis.annotations.*;
 import shop.zailushang.spring.boot.model.RefreshBeanModel;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +12,9 @@ public interface RefreshBeanMapper {
             @Arg(column = "id", javaType = Long.class),
             @Arg(column = "bean_name", javaType = String.class),
             @Arg(column = "lambda_script", javaType = String.class),
-            @Arg(column = "description", javaType = String.class)
+            @Arg(column = "description", javaType = String.class),
+            @Arg(column = "compile_static", javaType = Boolean.class),
+            @Arg(column = "language", javaType = String.class)
     })
     @Select("select * from refresh_bean")
     List<RefreshBeanModel> selectAll();
@@ -20,21 +23,61 @@ public interface RefreshBeanMapper {
             @Arg(column = "id", javaType = Long.class),
             @Arg(column = "bean_name", javaType = String.class),
             @Arg(column = "lambda_script", javaType = String.class),
-            @Arg(column = "description", javaType = String.class)
+            @Arg(column = "description", javaType = String.class),
+            @Arg(column = "compile_static", javaType = Boolean.class),
+            @Arg(column = "language", javaType = String.class)
     })
     @Select("select * from refresh_bean where bean_name = #{beanName}")
     Optional<RefreshBeanModel> selectOne(@Param("beanName") String beanName);
 
 
+    @ConstructorArgs({
+            @Arg(column = "id", javaType = Long.class),
+            @Arg(column = "bean_name", javaType = String.class),
+            @Arg(column = "lambda_script", javaType = String.class),
+            @Arg(column = "description", javaType = String.class),
+            @Arg(column = "compile_static", javaType = Boolean.class),
+            @Arg(column = "language", javaType = String.class)
+    })
+    @Select("""
+            <script>
+                select * from refresh_bean where bean_name in
+                <foreach collection="beanNames" item="beanName" open="(" separator="," close=")">
+                    #{beanName}
+                </foreach>
+            </script>
+            """)
+    List<RefreshBeanModel> selectByBeanNames(@Param("beanNames") Collection<String> beanNames);
+
+    // 仅查询 bean_name 及内容摘要，不传输脚本：与 RefreshBeanModel#contentHash 一致，即 SHA-256(语言 + 是否静态编译 + 脚本) 的前 8 字节
+    @ConstructorArgs({
+            @Arg(column = "bean_name", javaType = String.class),
+            @Arg(column = "content_hash", javaType = String.class)
+    })
+    @Select("""
+            select bean_name,
+                   left(sha2(concat(lower(if(trim(coalesce(language, '')) = '', 'groovy', language)), char(if(compile_static, 1, 0) using binary), lambda_script), 256), 16) as content_hash
+            from refresh_bean
+            """)
+    List<Digest> selectDigests();
+
+    // contentHash 为 16 位十六进制
+    record Digest(String beanName, String contentHash) {
+    }
+
     @Insert("""
             insert into refresh_bean(
                 bean_name,
                 lambda_script,
-                description
+                description,
+                compile_static,
+                language
             ) values (
                 #{refreshBeanModel.beanName},
                 #{refreshBeanModel.lambdaScript},
-                #{refreshBeanModel.description}
+                #{refreshBeanModel.description},
+                ifnull(#{refreshBeanModel.compileStatic}, 0),
+                ifnull(#{refreshBeanModel.language}, 'groovy')
             )
             """)
     int insert(@Param("refreshBeanModel") RefreshBeanModel refreshBeanModel);
@@ -49,6 +92,12 @@ public interface RefreshBeanMapper {
                     <if test="refreshBeanModel.description != null and refreshBeanModel.description != ''">
                         description = #{refreshBeanModel.description},
                     </if>
+                    <if test="refreshBeanModel.compileStatic != null">
+                        compile_static = #{refreshBeanModel.compileStatic},
+                    </if>
+                    <if test="refreshBeanModel.language != null and refreshBeanModel.language != ''">
+                        language = #{refreshBeanModel.language},
+                    </if>
                 </set>
                 where bean_name = #{refreshBeanModel.beanName}
             </script>
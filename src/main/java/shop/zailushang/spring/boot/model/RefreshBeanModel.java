@@ -1,33 +1,66 @@
 package shop.zailushang.spring.boot.model;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import shop.zailushang.spring.boot.util.Assert;
+import shop.zailushang.spring.boot.util.RefreshBeanModelJson;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+// compileStatic：是否以 @CompileStatic 静态编译脚本，为 null 时视为 false（动态编译）
+// language：lambdaScript 的语言，groovy 或 java，为 null 时视为 groovy
+public record RefreshBeanModel(Long id, String beanName, String lambdaScript, String description, Boolean compileStatic, String language) {
+    public static final String GROOVY = "groovy";
+
+    public static final String JAVA = "java";
+
+    public RefreshBeanModel(Long id, String beanName, String lambdaScript, String description) {
+        this(id, beanName, lambdaScript, description, null, null);
+    }
 
-public record RefreshBeanModel(Long id, String beanName, String lambdaScript, String description) {
     public static RefreshBeanModel withBeanName(String beanName) {
         return new RefreshBeanModel(null, beanName, null, null);
     }
 
-    // 只有当修改了 lambdaScript 时，返回 true
+    // 是否静态编译
+    public boolean requiresStaticCompilation() {
+        return Boolean.TRUE.equals(compileStatic);
+    }
+
+    // 脚本语言，未指定时为 groovy
+    public String scriptLanguage() {
+        return Assert.strNotBlank(language) ? language.toLowerCase(Locale.ROOT) : GROOVY;
+    }
+
+    // 只有当修改了 lambdaScript、编译方式或语言时，返回 true
     public boolean diff(RefreshBeanModel another) {
         Assert.isTrue(another, Assert::isNotNull, () -> new NullPointerException("another is null"));
-        return Assert.isNotEq(lambdaScript, another.lambdaScript);
+        return Assert.isNotEq(lambdaScript, another.lambdaScript)
+                || requiresStaticCompilation() != another.requiresStaticCompilation()
+                || Assert.isNotEq(scriptLanguage(), another.scriptLanguage());
     }
 
-    public String toJson() {
+    // 内容摘要：SHA-256(语言 + 是否静态编译 + 脚本) 的前 8 字节，仅覆盖影响编译结果的字段（与 diff 一致），修改描述不会改变摘要
+    // 各数据源的对账、compact 布局的 sidecar 及变更通知、RefreshableScope 记录的已应用摘要均以此为准
+    public long contentHash() {
         try {
-            return new ObjectMapper().writeValueAsString(this);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+            var messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(scriptLanguage().getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) (requiresStaticCompilation() ? 1 : 0));
+            messageDigest.update(lambdaScript.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(messageDigest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
+    public String toJson() {
+        return RefreshBeanModelJson.toJson(this);
+    }
+
     public static RefreshBeanModel parse(String jsonStr) {
-        try {
-            return new ObjectMapper().readValue(jsonStr, RefreshBeanModel.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+        return RefreshBeanModelJson.parse(jsonStr);
     }
 }
\ No newline at end of file
@@ -6,13 +6,15 @@ import com.alibaba.otter.canal.protocol.Message;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
+import shop.zailushang.spring.boot.framework.DynamicBeanMetrics;
 import shop.zailushang.spring.boot.model.RefreshBeanModel;
-import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanBatchEvent;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -20,92 +22,181 @@ public class CanalClientListener {
 
     private final CanalConnector canalConnector;
 
-    private final ApplicationEventPublisher applicationEventPublisher;
+    // 批次事件的处理方（刷新流水线），返回的 future 完成后才确认批次；被拒绝（队列已满）时回滚，由 canal 重新投递
+    private final Function<RefreshBeanBatchEvent, CompletableFuture<Void>> sink;
+
+    private final CanalConfigurationProperties canalConfigurationProperties;
+
+    private final DynamicBeanMetrics dynamicBeanMetrics;
 
     private static final Map<String, Integer> constructorMap = Map.of(
             "id", 0,
             "bean_name", 1,
             "lambda_script", 2,
-            "description", 3
+            "description", 3,
+            "compile_static", 4,
+            "language", 5
     );
-    @SuppressWarnings("InfiniteLoopStatement")
+    // 线程被中断时退出
     public void startListener() {
-        while (true) {
+        var idleMillis = 0L;
+        var errorMillis = 0L;
+        while (!Thread.currentThread().isInterrupted()) {
+            var batchId = -1L;
             try {
-                var message = canalConnector.getWithoutAck(1000);
-                var batchId = message.getId();
+                var message = fetch();
+                errorMillis = 0L;
+                batchId = message.getId();
                 var size = message.getEntries().size();
                 if (batchId == -1 || size == 0) {
-                    TimeUnit.SECONDS.sleep(1);
+                    idleMillis = idleBackoff(idleMillis);
                     continue;
                 }
-                processMessage(message);
+                // 有数据时立即进行下一次拉取
+                idleMillis = 0L;
+                dynamicBeanMetrics.recordCanalPollInterval(idleMillis);
+                recordBatch(message);
+                processMessage(message).get();
                 canalConnector.ack(batchId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             } catch (Exception e) {
                 log.error("canal client error: ", e);
-                canalConnector.rollback();
+                rollback(batchId);
+                // 出错后总是休眠，且与空闲休眠相互独立：阻塞拉取时空闲休眠为 0，canal server 不可用时不能据此空转
+                idleMillis = 0L;
+                try {
+                    errorMillis = errorBackoff(errorMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
             }
         }
+        log.info("canal client listener stopped.");
+    }
+
+    // 配置了 fetchTimeout 时阻塞拉取，否则非阻塞拉取
+    private Message fetch() {
+        var batchSize = canalConfigurationProperties.getBatchSize();
+        var fetchTimeout = canalConfigurationProperties.getFetchTimeout();
+        return fetchTimeout == null
+                ? canalConnector.getWithoutAck(batchSize)
+                : canalConnector.getWithoutAck(batchSize, fetchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // 回滚未确认的批次（尚未拉取到批次时回滚全部），canal server 不可用时 rollback 同样会失败，不能因此退出监听循环
+    private void rollback(long batchId) {
+        try {
+            if (batchId == -1) canalConnector.rollback();
+            else canalConnector.rollback(batchId);
+        } catch (Exception e) {
+            log.warn("canal rollback failed: {}", e.getMessage());
+        }
+    }
+
+    // 空批次后计算下一次的休眠时间并休眠：首次为最小值，之后按倍数递增至最大值；阻塞拉取时无需休眠
+    private long idleBackoff(long idleMillis) throws InterruptedException {
+        var nextIdleMillis = 0L;
+        if (canalConfigurationProperties.getFetchTimeout() == null)
+            nextIdleMillis = nextInterval(idleMillis, canalConfigurationProperties.getMinIdleInterval().toMillis(), canalConfigurationProperties.getMaxIdleInterval().toMillis());
+        dynamicBeanMetrics.recordCanalPollInterval(nextIdleMillis);
+        if (nextIdleMillis > 0) TimeUnit.MILLISECONDS.sleep(nextIdleMillis);
+        return nextIdleMillis;
+    }
+
+    // 出错后计算下一次的休眠时间并休眠，始终大于 0
+    private long errorBackoff(long errorMillis) throws InterruptedException {
+        var minErrorMillis = Math.max(1L, canalConfigurationProperties.getMinErrorInterval().toMillis());
+        var nextErrorMillis = nextInterval(errorMillis, minErrorMillis, Math.max(minErrorMillis, canalConfigurationProperties.getMaxErrorInterval().toMillis()));
+        dynamicBeanMetrics.recordCanalPollInterval(nextErrorMillis);
+        TimeUnit.MILLISECONDS.sleep(nextErrorMillis);
+        return nextErrorMillis;
+    }
+
+    // 首次为最小值，之后按倍数递增至最大值
+    private long nextInterval(long currentMillis, long minMillis, long maxMillis) {
+        return currentMillis == 0L
+                ? minMillis
+                : Math.min(maxMillis, Math.max(minMillis, (long) (currentMillis * canalConfigurationProperties.getBackoffMultiplier())));
+    }
+
+    // 批次条目数，以及批次中最早一条 binlog 的执行时间至今的延迟
+    private void recordBatch(Message message) {
+        var entries = message.getEntries();
+        var lagMillis = System.currentTimeMillis() - entries.getFirst().getHeader().getExecuteTime();
+        dynamicBeanMetrics.recordCanalBatch(entries.size(), lagMillis);
     }
 
-    private void processMessage(Message message) {
+    // 同一批次内的行变更按 bean_name 合并为净变更后，以一个批量事件提交，避免同一脚本被重复编译
+    // 返回的 future 在净变更全部处理完毕时完成，无净变更时立即完成
+    private CompletableFuture<Void> processMessage(Message message) {
+        var batchBuilder = RefreshBeanBatchEvent.builder();
         message.getEntries()
                 .stream()
                 .filter(entry -> entry.getEntryType() == CanalEntry.EntryType.ROWDATA)
-                .forEach(this::processEntry);
+                .forEach(entry -> processEntry(entry, batchBuilder));
+        // 事件时间取 binlog 的执行时间，事件处理时的延迟即为端到端延迟
+        var refreshBeanBatchEvent = batchBuilder.build(message.getEntries().getFirst().getHeader().getExecuteTime());
+        if (refreshBeanBatchEvent.isEmpty()) return CompletableFuture.completedFuture(null);
+        log.info("Batch:{} net changes", refreshBeanBatchEvent.getSource().size());
+        return sink.apply(refreshBeanBatchEvent);
     }
 
-    private void processEntry(CanalEntry.Entry entry) {
+    // 以 binlog 的执行时间作为变更的版本号：主从切换后仍可比较，不同于 binlog 文件名及偏移量
+    private void processEntry(CanalEntry.Entry entry, RefreshBeanBatchEvent.Builder batchBuilder) {
+        batchBuilder.version(entry.getHeader().getExecuteTime());
         try {
             var rowChange = CanalEntry.RowChange.parseFrom(entry.getStoreValue());
             var eventType = rowChange.getEventType();
             rowChange.getRowDatasList()
-                    .forEach(rowData -> processRowData(eventType, rowData));
+                    .forEach(rowData -> processRowData(eventType, rowData, batchBuilder));
         } catch (InvalidProtocolBufferException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private void processRowData(CanalEntry.EventType eventType, CanalEntry.RowData rowData) {
+    private void processRowData(CanalEntry.EventType eventType, CanalEntry.RowData rowData, RefreshBeanBatchEvent.Builder batchBuilder) {
         switch (eventType) {
-            case INSERT -> handleInsert(rowData.getAfterColumnsList());
-            case UPDATE -> handleUpdate(rowData.getBeforeColumnsList(), rowData.getAfterColumnsList());
-            case DELETE -> handleDelete(rowData.getBeforeColumnsList());
+            case INSERT -> handleInsert(rowData.getAfterColumnsList(), batchBuilder);
+            case UPDATE -> handleUpdate(rowData.getBeforeColumnsList(), rowData.getAfterColumnsList(), batchBuilder);
+            case DELETE -> handleDelete(rowData.getBeforeColumnsList(), batchBuilder);
             default -> {// 忽略其他事件
             }
         }
     }
 
     private RefreshBeanModel mapToModel(List<CanalEntry.Column> columns) {
-        var array = new String[4];
+        var array = new String[6];
         columns.forEach(column -> {
             var name = column.getName();
             var value = column.getValue();
             var index = constructorMap.get(name);
-            array[index] = value;
+            // 忽略与模型无关的列（如 updated_at）
+            if (index != null) array[index] = value;
         });
-        return new RefreshBeanModel(Long.valueOf(array[0]), array[1], array[2], array[3]);
+        // tinyint(1) 列的值为 "1" / "0"
+        return new RefreshBeanModel(Long.valueOf(array[0]), array[1], array[2], array[3], "1".equals(array[4]), array[5]);
     }
 
     // 处理新增数据
-    private void handleInsert(List<CanalEntry.Column> columns) {
+    private void handleInsert(List<CanalEntry.Column> columns, RefreshBeanBatchEvent.Builder batchBuilder) {
         var refreshBeanModel = mapToModel(columns);
         log.info("Insert:{}", refreshBeanModel);
-        applicationEventPublisher.publishEvent(RefreshBeanEvent.addWith(refreshBeanModel));
+        batchBuilder.insert(refreshBeanModel);
     }
 
     // 处理更新数据
-    private void handleUpdate(List<CanalEntry.Column> before, List<CanalEntry.Column> after) {
+    private void handleUpdate(List<CanalEntry.Column> before, List<CanalEntry.Column> after, RefreshBeanBatchEvent.Builder batchBuilder) {
         var beforeModel = mapToModel(before);
         var afterModel = mapToModel(after);
         log.info("Update - before:{} after:{}", beforeModel, afterModel);
-        applicationEventPublisher.publishEvent(RefreshBeanEvent.updateWith(beforeModel, afterModel));
+        batchBuilder.update(beforeModel, afterModel);
     }
 
     // 处理删除数据
-    private void handleDelete(List<CanalEntry.Column> columns) {
+    private void handleDelete(List<CanalEntry.Column> columns, RefreshBeanBatchEvent.Builder batchBuilder) {
         var refreshBeanModel = mapToModel(columns);
         log.info("Delete:{}", refreshBeanModel);
-        applicationEventPublisher.publishEvent(RefreshBeanEvent.deleteWith(refreshBeanModel));
+        batchBuilder.delete(refreshBeanModel);
     }
 }
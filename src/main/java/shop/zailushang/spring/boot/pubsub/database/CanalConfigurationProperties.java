@@ -3,6 +3,8 @@ package shop.zailushang.spring.boot.pubsub.database;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @Data
 @ConfigurationProperties(prefix = "canal")
 public class CanalConfigurationProperties {
@@ -12,4 +14,15 @@ public class CanalConfigurationProperties {
     private String username;
     private String password;
     private String subscribeFilter;
-}
\ No newline at end of file
+    // 单次拉取的最大条目数
+    private int batchSize = 1000;
+    // 阻塞拉取的超时时间：配置后由 canal server 挂起请求直至有数据或超时，空批次后不再休眠；未配置时为非阻塞拉取
+    private Duration fetchTimeout;
+    // 非阻塞拉取时，空批次后的休眠时间：有数据后回落至最小值，持续空闲时按倍数递增至最大值
+    private Duration minIdleInterval = Duration.ofMillis(10);
+    private Duration maxIdleInterval = Duration.ofSeconds(1);
+    private double backoffMultiplier = 2;
+    // 拉取或处理出错（如 canal server 不可用）后的休眠时间：与空闲休眠相互独立，无论是否配置 fetchTimeout 均休眠，连续出错时按 backoffMultiplier 递增至最大值，成功拉取后回落
+    private Duration minErrorInterval = Duration.ofSeconds(1);
+    private Duration maxErrorInterval = Duration.ofSeconds(30);
+}
@@ -21,7 +21,39 @@ public class DefaultEventProcessor implements EventProcessor {
 
     @Override
     public void processEvent(RefreshBeanEvent refreshBeanEvent) {
-        // 更新时已使用 LinkedHashMap，保证先消费 DEL，后消费 ADD
+        var start = System.nanoTime();
+        var lagMillis = System.currentTimeMillis() - refreshBeanEvent.getTimestamp();
+        try {
+            doProcessEvent(refreshBeanEvent);
+        } finally {
+            refreshableScope.metrics().recordEvent(refreshBeanEvent.typeName(), lagMillis, System.nanoTime() - start);
+        }
+    }
+
+    // 批量事件：一次性应用每个 beanName 的净变更，单个 Bean 失败时仅记录日志，不影响批次中的其他 Bean
+    @Override
+    public void processBatch(RefreshBeanBatchEvent refreshBeanBatchEvent) {
+        var start = System.nanoTime();
+        var lagMillis = System.currentTimeMillis() - refreshBeanBatchEvent.getTimestamp();
+        try {
+            refreshBeanBatchEvent.getSource().forEach(refreshBeanEvent -> {
+                try {
+                    doProcessEvent(refreshBeanEvent);
+                } catch (RuntimeException e) {
+                    log.error("failed to process {} event in batch: {}", refreshBeanEvent.typeName(), refreshBeanEvent.getSource().values(), e);
+                }
+            });
+        } finally {
+            refreshableScope.metrics().recordEvent("batch", lagMillis, System.nanoTime() - start);
+        }
+    }
+
+    private void doProcessEvent(RefreshBeanEvent refreshBeanEvent) {
+        // 更新时，先编译后替换，不再拆分为 DEL + ADD，避免两者之间 Bean 缺失的窗口期
+        if (refreshBeanEvent.isUpdate()) {
+            update(refreshBeanEvent.getSource().get(RefreshBeanEvent.EventType.ADD));
+            return;
+        }
         refreshBeanEvent.getSource()
                 .forEach((eventType, refreshBeanModel) -> {
                     switch (eventType) {
@@ -50,6 +82,21 @@ public class DefaultEventProcessor implements EventProcessor {
         }
     }
 
+    // 更新时，先编译新脚本，再原子替换目标对象；编译失败时抛出异常，旧对象继续生效
+    private void update(RefreshBeanModel refreshBeanModel) {
+        var beanName = refreshBeanModel.beanName();
+        // BeanDefinition 不存在时（如启动时编译失败被跳过），按新增处理
+        if (!defaultListableBeanFactory.containsBeanDefinition(beanName)) {
+            add(refreshBeanModel);
+            return;
+        }
+        var target = RefreshableBeanDefinitionResolver.resolveTarget(refreshBeanModel, scriptEngineCreator, refreshableScope);
+        var targetResolver = RefreshableBeanDefinitionResolver.resolveTargetResolver(refreshBeanModel, scriptEngineCreator, refreshableScope);
+        refreshableScope.refresh(beanName, target, targetResolver);
+        refreshableScope.recordContentHash(beanName, refreshBeanModel.contentHash());
+        log.info("update beanDefinition: {}", beanName);
+    }
+
     // 删除时，删除 Bean实例, 并删除 BeanDefinition。
     private void del(RefreshBeanModel refreshBeanModel) {
         var beanName = refreshBeanModel.beanName();
@@ -2,4 +2,9 @@ package shop.zailushang.spring.boot.pubsub.event;
 
 public interface EventProcessor {
     void processEvent(RefreshBeanEvent refreshBeanEvent);
+
+    // 批量事件：默认逐个处理
+    default void processBatch(RefreshBeanBatchEvent refreshBeanBatchEvent) {
+        refreshBeanBatchEvent.getSource().forEach(this::processEvent);
+    }
 }
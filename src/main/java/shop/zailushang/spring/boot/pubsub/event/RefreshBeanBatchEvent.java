@@ -0,0 +1,116 @@
+package shop.zailushang.spring.boot.pubsub.event;
+
+import org.springframework.context.ApplicationEvent;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// 批量刷新事件：同一批次内的变更已按 beanName 合并为净变更，每个 beanName 至多一个 RefreshBeanEvent
+public class RefreshBeanBatchEvent extends ApplicationEvent {
+
+    private RefreshBeanBatchEvent(List<RefreshBeanEvent> refreshBeanEvents, Clock clock) {
+        super(refreshBeanEvents, clock);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<RefreshBeanEvent> getSource() {
+        return (List<RefreshBeanEvent>) super.getSource();
+    }
+
+    public boolean isEmpty() {
+        return getSource().isEmpty();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // 按行依次喂入变更，build 时合并为每个 beanName 的净变更：
+    // INSERT + UPDATE => ADD（最终状态），UPDATE + DELETE => DEL，INSERT + DELETE => 无变更
+    public static class Builder {
+        // beanName => 批次开始前的状态（null 表示不存在）与当前状态（null 表示已删除），保持首次出现的顺序
+        private final Map<String, RefreshBeanModel[]> changes = new LinkedHashMap<>();
+
+        // beanName => 最后一次变更的来源版本号
+        private final Map<String, Long> versions = new HashMap<>();
+
+        // 之后喂入的变更所携带的来源版本号
+        private long version = RefreshBeanEvent.UNVERSIONED;
+
+        // 设置之后喂入的变更的来源版本号，如 binlog 的执行时间、stream 条目 ID
+        public Builder version(long version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder insert(RefreshBeanModel afterModel) {
+            return change(afterModel.beanName(), null, afterModel);
+        }
+
+        public Builder update(RefreshBeanModel beforeModel, RefreshBeanModel afterModel) {
+            // 修改了 beanName 时，等同于删除旧 Bean、新增新 Bean
+            if (!Objects.equals(beforeModel.beanName(), afterModel.beanName()))
+                return delete(beforeModel).insert(afterModel);
+            return change(afterModel.beanName(), beforeModel, afterModel);
+        }
+
+        public Builder delete(RefreshBeanModel beforeModel) {
+            return change(beforeModel.beanName(), beforeModel, null);
+        }
+
+        // 喂入一个已有的事件，沿用其版本号
+        public Builder event(RefreshBeanEvent refreshBeanEvent) {
+            var beforeModel = refreshBeanEvent.getSource().get(RefreshBeanEvent.EventType.DEL);
+            var afterModel = refreshBeanEvent.getSource().get(RefreshBeanEvent.EventType.ADD);
+            version(refreshBeanEvent.getVersion());
+            if (beforeModel == null) return insert(afterModel);
+            if (afterModel == null) return delete(beforeModel);
+            return update(beforeModel, afterModel);
+        }
+
+        private Builder change(String beanName, RefreshBeanModel beforeModel, RefreshBeanModel afterModel) {
+            // 首次出现时记录批次开始前的状态，之后只更新当前状态
+            changes.computeIfAbsent(beanName, key -> new RefreshBeanModel[]{beforeModel, null})[1] = afterModel;
+            versions.merge(beanName, version, Math::max);
+            return this;
+        }
+
+        public RefreshBeanBatchEvent build() {
+            return build(Clock.systemUTC());
+        }
+
+        // 以变更的发生时间作为事件时间，处理时统计的延迟即为端到端延迟
+        public RefreshBeanBatchEvent build(long originTimestamp) {
+            return build(Clock.fixed(Instant.ofEpochMilli(originTimestamp), ZoneOffset.UTC));
+        }
+
+        private RefreshBeanBatchEvent build(Clock clock) {
+            var refreshBeanEvents = changes.entrySet()
+                    .stream()
+                    .map(change -> {
+                        var refreshBeanEvent = netChange(change.getValue()[0], change.getValue()[1]);
+                        // 批次内的事件沿用批次的事件时间，版本号取该 Bean 最后一次变更的版本号
+                        return refreshBeanEvent == null ? null : refreshBeanEvent.copyWith(clock, versions.get(change.getKey()));
+                    })
+                    .filter(Objects::nonNull)
+                    .toList();
+            return new RefreshBeanBatchEvent(refreshBeanEvents, clock);
+        }
+
+        // 批次前后状态 => 净变更，无变更时返回 null
+        private static RefreshBeanEvent netChange(RefreshBeanModel beforeModel, RefreshBeanModel afterModel) {
+            if (beforeModel == null) return afterModel == null ? null : RefreshBeanEvent.addWith(afterModel);
+            if (afterModel == null) return RefreshBeanEvent.deleteWith(beforeModel);
+            // 只有修改了 lambdaScript 时，才需要重新编译
+            return beforeModel.diff(afterModel) ? RefreshBeanEvent.updateWith(beforeModel, afterModel) : null;
+        }
+    }
+}
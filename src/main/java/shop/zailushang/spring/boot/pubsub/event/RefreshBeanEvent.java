@@ -3,8 +3,12 @@ package shop.zailushang.spring.boot.pubsub.event;
 import org.springframework.context.ApplicationEvent;
 import shop.zailushang.spring.boot.model.RefreshBeanModel;
 
+import java.time.Clock;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 public class RefreshBeanEvent extends ApplicationEvent {
 
@@ -13,8 +17,30 @@ public class RefreshBeanEvent extends ApplicationEvent {
         DEL
     }
 
+    // 未知版本：来源无法提供单调递增的版本号，此类事件总是按到达顺序处理
+    public static final long UNVERSIONED = 0L;
+
+    // 变更在来源处的版本号，同一 Bean 的版本号越大变更越新，用于丢弃乱序到达的过期事件：
+    // canal 为 binlog 的执行时间，redis stream 为条目 ID；redis 通知模式下为 UNVERSIONED
+    private final long version;
+
     private RefreshBeanEvent(Map<EventType, RefreshBeanModel> refreshBeanModel) {
         super(refreshBeanModel);
+        this.version = UNVERSIONED;
+    }
+
+    private RefreshBeanEvent(Map<EventType, RefreshBeanModel> refreshBeanModel, Clock clock, long version) {
+        super(refreshBeanModel, clock);
+        this.version = version;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // 以指定时钟及版本号复制事件
+    RefreshBeanEvent copyWith(Clock clock, long version) {
+        return new RefreshBeanEvent(getSource(), clock, version);
     }
 
     @Override
@@ -23,6 +49,28 @@ public class RefreshBeanEvent extends ApplicationEvent {
         return (Map<EventType, RefreshBeanModel>) super.getSource();
     }
 
+    // 同时包含 DEL 与 ADD，且 beanName 未变更时，为原地更新事件；beanName 变更时仍按 DEL + ADD 处理
+    public boolean isUpdate() {
+        var before = getSource().get(EventType.DEL);
+        var after = getSource().get(EventType.ADD);
+        return before != null && after != null && Objects.equals(before.beanName(), after.beanName());
+    }
+
+    // 事件所属的 beanName，更新事件的前后 beanName 一致
+    public String beanName() {
+        var refreshBeanModel = getSource().containsKey(EventType.ADD) ? getSource().get(EventType.ADD) : getSource().get(EventType.DEL);
+        return refreshBeanModel.beanName();
+    }
+
+    // 事件类型名称，用作指标标签：update、add、del
+    public String typeName() {
+        if (isUpdate()) return "update";
+        return getSource().keySet()
+                .stream()
+                .map(eventType -> eventType.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining("+"));
+    }
+
     public static RefreshBeanEvent addWith(RefreshBeanModel refreshBeanModel) {
         return new RefreshBeanEvent(Map.of(EventType.ADD, refreshBeanModel));
     }
@@ -0,0 +1,205 @@
+package shop.zailushang.spring.boot.pubsub.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// 周期性对账：比对 RefreshableScope 中各 Bean 的内容摘要与数据源中的摘要（仅查询 beanName + 摘要，不传输脚本），仅拉取并重新编译存在偏差的 Bean
+// 兜底丢失的 canal 消息、redis 通知及处理失败的刷新事件；偏差须在连续两轮中一致才修复，避免与正在传播的正常变更重复编译
+// 同一偏差只修复一次：修复事件处理完毕后仍不一致（如脚本编译失败）时不再重试，直至数据源再次变更；事件被拒绝（如队列已满）时留待下一轮重新修复
+@Slf4j
+@RequiredArgsConstructor
+public class RefreshBeanReconciler {
+
+    // 单次拉取（in 查询、HMGET）的最大 beanName 数
+    private static final int FETCH_CHUNK = 500;
+
+    private final RefreshableScope refreshableScope;
+
+    private final DigestSource digestSource;
+
+    // 修复事件的去向，通常为 RefreshEventPipeline::submitAll，返回的 future 正常完成后才记为已修复
+    private final Function<RefreshBeanBatchEvent, CompletableFuture<Void>> sink;
+
+    private final Duration interval;
+
+    private final Duration jitter;
+
+    // 上一轮发现、待确认的偏差
+    private Map<String, Drift> suspects = Map.of();
+
+    // 已提交、尚未处理完毕的修复，不重复提交
+    private final Map<String, Drift> repairing = new HashMap<>();
+
+    // 修复事件已处理完毕的偏差
+    private final Map<String, Drift> repaired = new HashMap<>();
+
+    // 数据源的摘要视图
+    public interface DigestSource {
+        // beanName => 内容摘要
+        Map<String, Long> digests();
+
+        // 拉取最新记录，不存在的 beanName 不在结果中
+        Map<String, RefreshBeanModel> fetch(Collection<String> beanNames);
+    }
+
+    // 偏差：contentHash 为数据源中的摘要，orphan 时为 null
+    public record Drift(Kind kind, Long contentHash) {
+    }
+
+    public enum Kind {
+        // 两侧均存在，摘要不一致
+        STALE,
+        // 数据源中存在，本节点缺失（如启动时编译失败被跳过）
+        MISSING,
+        // 数据源中已删除，本节点仍存在
+        ORPHAN;
+
+        public String tagName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // 线程被中断时退出
+    public void startReconciler() {
+        log.info("refresh bean reconciler started, interval {} ± {}.", interval, jitter);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(nextDelayMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                log.error("failed to reconcile refresh beans: ", e);
+            }
+        }
+        log.info("refresh bean reconciler stopped.");
+    }
+
+    // 以启动快照启动后的追赶：立即执行一轮对账并修复全部偏差，无需连续两轮确认；数据源仍不可用时每隔 interval 重试，直至成功或线程被中断
+    public void catchUp() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                var confirmed = reconcile(true);
+                log.info("caught up {} drifted beans after starting from snapshot.", confirmed.size());
+                return;
+            } catch (RuntimeException e) {
+                log.warn("failed to catch up after starting from snapshot, retry in {}: {}", interval, e.getMessage());
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(Math.max(1000, interval.toMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // 执行一轮对账，返回本轮确认并提交修复的偏差
+    public Map<String, Drift> reconcile() {
+        return reconcile(false);
+    }
+
+    // immediate 为 true 时，本轮发现的偏差直接视为已确认
+    private synchronized Map<String, Drift> reconcile(boolean immediate) {
+        var start = System.nanoTime();
+        // 先取本节点摘要再查询数据源：两者之间到达的变更只会表现为偏差，由下一轮确认排除
+        var local = Map.copyOf(refreshableScope.contentHashes());
+        var source = digestSource.digests();
+        var drifts = new LinkedHashMap<String, Drift>();
+        source.forEach((beanName, contentHash) -> {
+            var localHash = local.get(beanName);
+            if (localHash == null) drifts.put(beanName, new Drift(Kind.MISSING, contentHash));
+            else if (!localHash.equals(contentHash)) drifts.put(beanName, new Drift(Kind.STALE, contentHash));
+        });
+        local.keySet().forEach(beanName -> {
+            if (!source.containsKey(beanName)) drifts.put(beanName, new Drift(Kind.ORPHAN, null));
+        });
+        // 已收敛的 Bean 不再记录修复历史
+        repaired.keySet().retainAll(drifts.keySet());
+        var confirmed = new LinkedHashMap<String, Drift>();
+        drifts.forEach((beanName, drift) -> {
+            if ((immediate || drift.equals(suspects.get(beanName))) && !drift.equals(repaired.get(beanName)) && !drift.equals(repairing.get(beanName)))
+                confirmed.put(beanName, drift);
+        });
+        suspects = drifts;
+        if (!confirmed.isEmpty()) repair(confirmed);
+        var metrics = refreshableScope.metrics();
+        confirmed.values().forEach(drift -> metrics.recordDrift(drift.kind().tagName()));
+        metrics.recordReconcile(source.size(), confirmed.size(), System.nanoTime() - start);
+        if (!confirmed.isEmpty()) log.warn("reconciled {} drifted beans: {}", confirmed.size(), confirmed);
+        else log.debug("reconciled {} beans, {} suspected drifts.", source.size(), drifts.size());
+        return confirmed;
+    }
+
+    // 按偏差类型生成净变更，作为一个批量事件提交；拉取时已被删除的 Bean 留待下一轮处理
+    // 事件处理完毕后记为已修复；被拒绝时仅记录日志，偏差仍在 suspects 中，下一轮直接重新修复
+    private void repair(Map<String, Drift> confirmed) {
+        var beanNames = new ArrayList<String>();
+        confirmed.forEach((beanName, drift) -> {
+            if (drift.kind() != Kind.ORPHAN) beanNames.add(beanName);
+        });
+        var refreshBeanModels = new HashMap<String, RefreshBeanModel>();
+        for (var i = 0; i < beanNames.size(); i += FETCH_CHUNK)
+            refreshBeanModels.putAll(digestSource.fetch(List.copyOf(beanNames.subList(i, Math.min(i + FETCH_CHUNK, beanNames.size())))));
+        var batchBuilder = RefreshBeanBatchEvent.builder();
+        var submitted = new LinkedHashMap<String, Drift>();
+        confirmed.forEach((beanName, drift) -> {
+            var refreshBeanModel = refreshBeanModels.get(beanName);
+            switch (drift.kind()) {
+                case ORPHAN -> batchBuilder.delete(RefreshBeanModel.withBeanName(beanName));
+                case MISSING -> {
+                    if (refreshBeanModel == null) return;
+                    batchBuilder.insert(refreshBeanModel);
+                }
+                case STALE -> {
+                    if (refreshBeanModel == null) return;
+                    batchBuilder.update(RefreshBeanModel.withBeanName(beanName), refreshBeanModel);
+                }
+            }
+            submitted.put(beanName, drift);
+        });
+        if (submitted.isEmpty()) return;
+        repairing.putAll(submitted);
+        CompletableFuture<Void> future;
+        try {
+            future = sink.apply(batchBuilder.build());
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((ignored, e) -> repaired(submitted, e));
+    }
+
+    // 修复事件处理完毕或被拒绝：可能在流水线线程中回调
+    private synchronized void repaired(Map<String, Drift> submitted, Throwable e) {
+        submitted.forEach(repairing::remove);
+        if (e != null) {
+            log.warn("repair of {} drifted beans was rejected, retry in next round: {}", submitted.size(), e.getMessage());
+            return;
+        }
+        repaired.putAll(submitted);
+    }
+
+    // interval ± jitter，不小于 1 秒
+    private long nextDelayMillis() {
+        var jitterMillis = jitter.toMillis();
+        var offset = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1) : 0;
+        return Math.max(1000, interval.toMillis() + offset);
+    }
+}
@@ -0,0 +1,214 @@
+package shop.zailushang.spring.boot.pubsub.event;
+
+import lombok.extern.slf4j.Slf4j;
+import shop.zailushang.spring.boot.framework.DynamicBeanExecutors;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+// 刷新事件流水线：按 beanName 分区，同一 Bean 的事件严格按序处理，不同 Bean 之间并行处理
+// 提交从不阻塞：同一 Bean 尚未开始处理的事件合并为一个净变更；排队事件数达到上限且无法合并时拒绝提交，由调用方决定重试或等待对账修复
+// 版本号小于该 Bean 已处理版本号的事件视为乱序到达的过期事件，直接丢弃；未携带版本号的事件总是处理
+@Slf4j
+public class RefreshEventPipeline {
+
+    private final EventProcessor eventProcessor;
+
+    private final DynamicBeanExecutors dynamicBeanExecutors;
+
+    private final int queueCapacity;
+
+    // beanName => 待处理事件，队列存在即表示该 Bean 已有处理任务在运行，队首为正在处理的事件
+    private final Map<String, Deque<PendingEvent>> pendingEvents = new HashMap<>();
+
+    // 全部 Bean 的待处理事件数，由 pendingEvents 的锁保护
+    private int pendingCount;
+
+    // beanName => 已处理的最大版本号，仅由该 Bean 的处理任务写入；Bean 被删除时移出
+    private final Map<String, Long> processedVersions = new ConcurrentHashMap<>();
+
+    // beanName => 删除事件的版本号，用于丢弃删除之后乱序到达的旧事件；按插入顺序淘汰，至多保留 queueCapacity 个
+    private final Map<String, Long> deletedVersions;
+
+    public RefreshEventPipeline(EventProcessor eventProcessor, DynamicBeanExecutors dynamicBeanExecutors, int queueCapacity) {
+        this.eventProcessor = eventProcessor;
+        this.dynamicBeanExecutors = dynamicBeanExecutors;
+        this.queueCapacity = queueCapacity;
+        this.deletedVersions = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > queueCapacity;
+            }
+        });
+    }
+
+    // 返回的 future 在事件处理完毕（包括处理失败、作为过期事件丢弃、合并后无净变更）时完成，被拒绝时以 RejectedExecutionException 异常完成
+    public CompletableFuture<Void> submit(RefreshBeanEvent refreshBeanEvent) {
+        var source = refreshBeanEvent.getSource();
+        // 修改了 beanName 时，拆分为新旧两个 Bean 各自的事件
+        if (source.size() > 1 && !refreshBeanEvent.isUpdate()) {
+            var builder = RefreshBeanBatchEvent.builder().version(refreshBeanEvent.getVersion());
+            return submitAll(builder.delete(source.get(RefreshBeanEvent.EventType.DEL))
+                    .insert(source.get(RefreshBeanEvent.EventType.ADD))
+                    .build(refreshBeanEvent.getTimestamp()));
+        }
+        var beanName = refreshBeanEvent.beanName();
+        PendingEvent pendingEvent;
+        synchronized (pendingEvents) {
+            var queue = pendingEvents.get(beanName);
+            // 队尾事件尚未开始处理时，与之合并，不占用额外容量
+            if (queue != null && queue.size() > 1) return merge(queue, refreshBeanEvent);
+            if (pendingCount >= queueCapacity) {
+                log.warn("refresh event queue is full ({}), reject {} event of {}", queueCapacity, refreshBeanEvent.typeName(), beanName);
+                return CompletableFuture.failedFuture(new RejectedExecutionException("refresh event queue is full"));
+            }
+            pendingEvent = new PendingEvent(refreshBeanEvent);
+            pendingCount++;
+            if (queue != null) {
+                queue.add(pendingEvent);
+                return pendingEvent.completion;
+            }
+            queue = new ArrayDeque<>();
+            queue.add(pendingEvent);
+            pendingEvents.put(beanName, queue);
+        }
+        // 该 Bean 没有正在运行的处理任务时，才提交新的任务，否则由正在运行的任务依次处理
+        try {
+            dynamicBeanExecutors.refresh(() -> drain(beanName));
+        } catch (RejectedExecutionException e) {
+            log.error("failed to submit refresh task of {}, discard its pending events", beanName, e);
+            discard(beanName, e);
+        }
+        return pendingEvent.completion;
+    }
+
+    // 批量事件中每个 beanName 至多一个事件，按 Bean 分别提交，全部处理完毕时完成
+    public CompletableFuture<Void> submitAll(RefreshBeanBatchEvent refreshBeanBatchEvent) {
+        return CompletableFuture.allOf(refreshBeanBatchEvent.getSource()
+                .stream()
+                .map(this::submit)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    // 与队尾尚未开始处理的事件合并为净变更，二者共用同一个 future；无净变更时移除队尾事件
+    private CompletableFuture<Void> merge(Deque<PendingEvent> queue, RefreshBeanEvent refreshBeanEvent) {
+        var tail = queue.getLast();
+        if (isStale(refreshBeanEvent.getVersion(), tail.refreshBeanEvent.getVersion())) {
+            log.warn("drop stale {} event of {}: version {} < {}", refreshBeanEvent.typeName(), refreshBeanEvent.beanName(), refreshBeanEvent.getVersion(), tail.refreshBeanEvent.getVersion());
+            return CompletableFuture.completedFuture(null);
+        }
+        var merged = RefreshBeanBatchEvent.builder()
+                .event(tail.refreshBeanEvent)
+                .event(refreshBeanEvent)
+                .build(refreshBeanEvent.getTimestamp())
+                .getSource();
+        if (merged.isEmpty()) {
+            queue.removeLast();
+            pendingCount--;
+            tail.completion.complete(null);
+        } else {
+            tail.refreshBeanEvent = merged.getFirst();
+        }
+        return tail.completion;
+    }
+
+    // 依次处理某个 Bean 的全部待处理事件，队列清空后退出
+    // 无论处理结果如何，已处理的事件总是出队并归还容量，否则该 Bean 的队列永远不会被清空，之后的事件只会排队而不再被处理
+    private void drain(String beanName) {
+        var drained = false;
+        while (!drained) {
+            PendingEvent pendingEvent;
+            synchronized (pendingEvents) {
+                pendingEvent = pendingEvents.get(beanName).peek();
+            }
+            try {
+                process(beanName, pendingEvent.refreshBeanEvent);
+            } finally {
+                pendingEvent.completion.complete(null);
+                drained = dequeue(beanName);
+            }
+        }
+    }
+
+    // 移除队首已处理的事件，队列为空时移除该 Bean 的队列并返回 true
+    private boolean dequeue(String beanName) {
+        synchronized (pendingEvents) {
+            var queue = pendingEvents.get(beanName);
+            queue.poll();
+            pendingCount--;
+            if (!queue.isEmpty()) return false;
+            pendingEvents.remove(beanName);
+            return true;
+        }
+    }
+
+    private void process(String beanName, RefreshBeanEvent refreshBeanEvent) {
+        var version = refreshBeanEvent.getVersion();
+        var processedVersion = processedVersion(beanName);
+        if (isStale(version, processedVersion)) {
+            log.warn("drop stale {} event of {}: version {} < {}", refreshBeanEvent.typeName(), beanName, version, processedVersion);
+            return;
+        }
+        try {
+            eventProcessor.processEvent(refreshBeanEvent);
+        } catch (RuntimeException | Error e) {
+            // 脚本中的 assert 失败（PowerAssertionError）、栈溢出、非法的类文件等 Error 同样只影响该事件
+            log.error("failed to process {} event of {}", refreshBeanEvent.typeName(), beanName, e);
+        } finally {
+            recordVersion(beanName, refreshBeanEvent);
+        }
+    }
+
+    // 双方均携带版本号，且版本号更小
+    private static boolean isStale(long version, long processedVersion) {
+        return version != RefreshBeanEvent.UNVERSIONED && processedVersion != RefreshBeanEvent.UNVERSIONED && version < processedVersion;
+    }
+
+    private long processedVersion(String beanName) {
+        var processedVersion = processedVersions.get(beanName);
+        if (processedVersion != null) return processedVersion;
+        return deletedVersions.getOrDefault(beanName, RefreshBeanEvent.UNVERSIONED);
+    }
+
+    // Bean 被删除后不再保留其已处理版本号，仅在有界的 deletedVersions 中暂存删除事件的版本号
+    private void recordVersion(String beanName, RefreshBeanEvent refreshBeanEvent) {
+        var version = refreshBeanEvent.getVersion();
+        if (!refreshBeanEvent.getSource().containsKey(RefreshBeanEvent.EventType.ADD)) {
+            processedVersions.remove(beanName);
+            if (version != RefreshBeanEvent.UNVERSIONED) deletedVersions.put(beanName, version);
+            return;
+        }
+        deletedVersions.remove(beanName);
+        if (version != RefreshBeanEvent.UNVERSIONED) processedVersions.put(beanName, version);
+    }
+
+    // 任务提交失败时，丢弃该 Bean 的待处理事件并归还容量
+    private void discard(String beanName, RejectedExecutionException e) {
+        Deque<PendingEvent> queue;
+        synchronized (pendingEvents) {
+            queue = pendingEvents.remove(beanName);
+            if (queue == null) return;
+            pendingCount -= queue.size();
+        }
+        queue.forEach(pendingEvent -> pendingEvent.completion.completeExceptionally(e));
+    }
+
+    // 待处理事件，尚未开始处理时可被合并替换
+    private static final class PendingEvent {
+
+        private RefreshBeanEvent refreshBeanEvent;
+
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        private PendingEvent(RefreshBeanEvent refreshBeanEvent) {
+            this.refreshBeanEvent = refreshBeanEvent;
+        }
+    }
+}
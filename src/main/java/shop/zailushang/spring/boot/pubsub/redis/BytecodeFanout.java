@@ -0,0 +1,172 @@
+package shop.zailushang.spring.boot.pubsub.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.ByteArrayCodec;
+import shop.zailushang.spring.boot.framework.ScriptClassCache;
+import shop.zailushang.spring.boot.framework.ScriptEngineCreator;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// 集群内单点编译：写入节点在写入记录之前编译脚本（编译失败时拒绝写入），将编译产物连同记录的内容摘要、校验摘要经 channel 发布，
+// 其他节点校验后暂存于 ScriptClassCache 的内存中（订阅线程不做磁盘 IO），随后处理刷新事件时，记录的内容摘要与消息一致、
+// 且本节点按脚本计算的缓存键与消息中的一致时才采用并落盘，直接由字节码定义类，不再编译
+// 字节码未先于刷新事件到达、被校验拒绝或各节点的引擎配置不同（缓存键不一致）时，按原流程在本地编译
+@Slf4j
+public class BytecodeFanout implements MessageListener<byte[]> {
+
+    // 格式变更时递增，不同版本的节点不接受彼此的消息
+    private static final int FORMAT_VERSION = 2;
+
+    // Groovy、Java 版本不同的节点，字节码不一定兼容
+    private static final String COMPATIBILITY = ScriptClassCache.COMPATIBILITY;
+
+    private static final int CHECKSUM_LENGTH = 32;
+
+    private static final int CLASS_MAGIC = 0xCAFEBABE;
+
+    // 缓存键为 SHA-256 十六进制，类名作为文件名落盘，均须校验
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final Pattern CLASS_NAME_PATTERN = Pattern.compile("[\\w$]+(\\.[\\w$]+)*");
+
+    // 本节点标识，忽略自身发布的消息
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ScriptClassCache scriptClassCache;
+
+    private final ScriptEngineCreator scriptEngineCreator;
+
+    public BytecodeFanout(ScriptClassCache scriptClassCache, ScriptEngineCreator scriptEngineCreator) {
+        this.scriptClassCache = scriptClassCache;
+        this.scriptEngineCreator = scriptEngineCreator;
+    }
+
+    public static RTopic channel(RedissonClient redissonClient) {
+        return redissonClient.getTopic(RedisConst.REFRESH_BEAN_BYTECODE_CHANNEL, ByteArrayCodec.INSTANCE);
+    }
+
+    // 写入节点：编译脚本并返回待发布的消息，编译失败时抛出异常；编译产物已落入本节点的缓存，处理自身的刷新事件时同样命中
+    public byte[] compile(RefreshBeanModel refreshBeanModel) {
+        var beanName = refreshBeanModel.beanName();
+        // 仅用于校验及产出字节码，不会生效：不计入该 Bean 的编译指标及 ClassLoader 登记，目标对象不可达后即清理
+        var classes = scriptClassCache.capture(() -> RefreshableBeanDefinitionResolver.resolveTarget(refreshBeanModel, scriptEngineCreator));
+        if (classes.isEmpty()) throw new IllegalStateException("no bytecode captured for " + beanName + ", the script engine does not compile through ScriptClassCache");
+        var message = encode(nodeId, beanName, refreshBeanModel.contentHash(), classes);
+        log.info("compiled {} for fan-out: {} bytes.", beanName, message.length);
+        return message;
+    }
+
+    // 在写入记录的同一个 MULTI/EXEC 中、先于记录发布，订阅方通常在刷新事件之前收到字节码
+    public static void publish(RBatch batch, byte[] message) {
+        batch.getTopic(RedisConst.REFRESH_BEAN_BYTECODE_CHANNEL, ByteArrayCodec.INSTANCE).publishAsync(message);
+    }
+
+    @Override
+    public void onMessage(CharSequence channel, byte[] message) {
+        try {
+            var bytecode = decode(message);
+            if (nodeId.equals(bytecode.nodeId())) return;
+            scriptClassCache.offer(bytecode.beanName(), bytecode.contentHash(), bytecode.classes());
+            log.info("received bytecode of {} from {}: {} entries.", bytecode.beanName(), bytecode.nodeId(), bytecode.classes().size());
+        } catch (IOException e) {
+            // 拒绝的消息不影响刷新，按原流程在本地编译
+            log.warn("rejected bytecode message: {}", e.getMessage());
+        }
+    }
+
+    // 解码后的消息：contentHash 为编译时记录的内容摘要，classes 为 摘要 => 类名 => 字节码
+    public record Bytecode(String nodeId, String beanName, long contentHash, Map<String, Map<String, byte[]>> classes) {
+    }
+
+    // 格式：版本、兼容性标识、节点标识、beanName、内容摘要、条目（摘要、类名 => 字节码）、末尾为此前全部内容的 SHA-256
+    public static byte[] encode(String nodeId, String beanName, long contentHash, Map<String, Map<String, byte[]>> classes) {
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(COMPATIBILITY);
+            out.writeUTF(nodeId);
+            out.writeUTF(beanName);
+            out.writeLong(contentHash);
+            out.writeInt(classes.size());
+            for (var entry : classes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (var clazz : entry.getValue().entrySet()) {
+                    out.writeUTF(clazz.getKey());
+                    out.writeInt(clazz.getValue().length);
+                    out.write(clazz.getValue());
+                }
+            }
+            out.flush();
+            out.write(sha256(bytes.toByteArray(), bytes.size()));
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 校验摘要、兼容性标识、缓存键、类名及类文件头，任一不符时抛出 IOException
+    public static Bytecode decode(byte[] message) throws IOException {
+        if (message.length < CHECKSUM_LENGTH) throw new IOException("truncated bytecode message");
+        var bodyLength = message.length - CHECKSUM_LENGTH;
+        if (!Arrays.equals(sha256(message, bodyLength), 0, CHECKSUM_LENGTH, message, bodyLength, message.length))
+            throw new IOException("bytecode message checksum mismatch");
+        var in = new DataInputStream(new ByteArrayInputStream(message, 0, bodyLength));
+        var version = in.readByte();
+        if (version != FORMAT_VERSION) throw new IOException("unsupported bytecode message version: " + version);
+        var compatibility = in.readUTF();
+        if (!COMPATIBILITY.equals(compatibility)) throw new IOException("incompatible bytecode: " + compatibility + ", local: " + COMPATIBILITY);
+        var nodeId = in.readUTF();
+        var beanName = in.readUTF();
+        var contentHash = in.readLong();
+        var classes = new LinkedHashMap<String, Map<String, byte[]>>();
+        var entries = in.readInt();
+        for (var i = 0; i < entries; i++) {
+            var digest = in.readUTF();
+            if (!DIGEST_PATTERN.matcher(digest).matches()) throw new IOException("illegal cache key: " + digest);
+            var entry = new LinkedHashMap<String, byte[]>();
+            var size = in.readInt();
+            for (var j = 0; j < size; j++) {
+                var className = in.readUTF();
+                if (!CLASS_NAME_PATTERN.matcher(className).matches()) throw new IOException("illegal class name: " + className);
+                var length = in.readInt();
+                if (length < 4 || length > bodyLength) throw new IOException("illegal class length: " + className);
+                var bytes = in.readNBytes(length);
+                if (bytes.length != length) throw new IOException("truncated class: " + className);
+                if (new DataInputStream(new ByteArrayInputStream(bytes)).readInt() != CLASS_MAGIC) throw new IOException("not a class file: " + className);
+                entry.put(className, bytes);
+            }
+            classes.put(digest, entry);
+        }
+        return new Bytecode(nodeId, beanName, contentHash, classes);
+    }
+
+    private static byte[] sha256(byte[] bytes, int length) {
+        try {
+            var messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(bytes, 0, length);
+            return messageDigest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package shop.zailushang.spring.boot.pubsub.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+// 将 map-cache 布局（RMapCache 中的 JSON）迁移为 compact 布局，可重复执行，已存在的记录直接覆盖
+// 迁移期间不发布变更通知，完成后将 dynamic-bean.redis.layout 切换为 compact 并重启各节点
+// 用法：以应用的类路径运行 main，参数 <redisson.yaml> [--delete-source] [--chunk-size=500]，redisson.yaml 与 spring.redis.redisson.config 的格式一致
+@Slf4j
+public final class CompactLayoutMigration {
+
+    private CompactLayoutMigration() {
+    }
+
+    // 按 chunkSize 分批 HSCAN 源数据，每批在一个 MULTI/EXEC 中写入；deleteSource 为 true 时，全部写入后删除源数据
+    public static int migrate(RedissonClient redissonClient, int chunkSize, boolean deleteSource) {
+        var source = redissonClient.<String, RefreshBeanModel>getMapCache(RedisConst.REFRESH_BEAN_KEY, RefreshBeanModelCodec.INSTANCE);
+        var chunk = new ArrayList<RefreshBeanModel>(chunkSize);
+        var migrated = 0;
+        for (var refreshBeanModel : source.values(chunkSize)) {
+            chunk.add(refreshBeanModel);
+            if (chunk.size() == chunkSize) {
+                migrated += flush(redissonClient, chunk);
+            }
+        }
+        migrated += flush(redissonClient, chunk);
+        var metadataSize = CompactRefreshBeanStore.metadata(redissonClient).size();
+        log.info("migrated {} beans to compact layout, {} beans in compact layout.", migrated, metadataSize);
+        if (deleteSource) {
+            source.delete();
+            log.info("source {} deleted.", RedisConst.REFRESH_BEAN_KEY);
+        }
+        return migrated;
+    }
+
+    private static int flush(RedissonClient redissonClient, ArrayList<RefreshBeanModel> chunk) {
+        if (chunk.isEmpty()) return 0;
+        CompactRefreshBeanStore.putAll(redissonClient, chunk, false, 0);
+        var size = chunk.size();
+        chunk.clear();
+        return size;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) throw new IllegalArgumentException("usage: CompactLayoutMigration <redisson.yaml> [--delete-source] [--chunk-size=500]");
+        var deleteSource = false;
+        var chunkSize = 500;
+        for (var i = 1; i < args.length; i++) {
+            if ("--delete-source".equals(args[i])) deleteSource = true;
+            else if (args[i].startsWith("--chunk-size=")) chunkSize = Integer.parseInt(args[i].substring("--chunk-size=".length()));
+            else throw new IllegalArgumentException("unknown option: " + args[i]);
+        }
+        var redissonClient = Redisson.create(Config.fromYAML(new File(args[0])));
+        try {
+            migrate(redissonClient, chunkSize, deleteSource);
+        } finally {
+            redissonClient.shutdown();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package shop.zailushang.spring.boot.pubsub.redis;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.springframework.context.ApplicationEventPublisher;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+
+// compact 布局下的变更监听：通知中仅包含 beanName 及内容摘要，摘要与本节点已应用的一致时不拉取脚本
+// 已应用的摘要取自 RefreshableScope：启动时加载的 Bean 即已记录，刷新成功后才更新，刷新失败时后续相同摘要的通知仍会重新拉取
+@Slf4j
+@RequiredArgsConstructor
+public class CompactRedisChangeListener implements MessageListener<String> {
+
+    private final RedissonClient redissonClient;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final RefreshableScope refreshableScope;
+
+    @Override
+    public void onMessage(CharSequence channel, String message) {
+        var change = CompactRefreshBeanStore.Change.parse(message);
+        var beanName = change.beanName();
+        if (change.removed()) {
+            applicationEventPublisher.publishEvent(RefreshBeanEvent.deleteWith(RefreshBeanModel.withBeanName(beanName)));
+            log.info("redis compact delete callback ==> {}", beanName);
+            return;
+        }
+        if (change.contentHash().equals(refreshableScope.contentHashes().get(beanName))) {
+            log.debug("redis compact change skipped, content unchanged ==> {}", beanName);
+            return;
+        }
+        var refreshBeanModel = CompactRefreshBeanStore.records(redissonClient).get(beanName);
+        // 通知与拉取之间已被删除，后续的删除通知负责移除
+        if (refreshBeanModel == null) return;
+        // 不存在时由事件处理器按新增处理
+        applicationEventPublisher.publishEvent(RefreshBeanEvent.updateWith(RefreshBeanModel.withBeanName(beanName), refreshBeanModel));
+        log.info("redis compact update callback ==> {}", beanName);
+    }
+}
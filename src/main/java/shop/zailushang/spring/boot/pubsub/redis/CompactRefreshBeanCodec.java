@@ -0,0 +1,162 @@
+package shop.zailushang.spring.boot.pubsub.redis;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// compact 布局下单条记录的二进制编码，键仍为 UTF-8 字符串
+// 格式：版本(1) 标志位(1) 内容摘要(8) id(8) beanName language description 脚本原始长度(4) 脚本(变长)，字符串均为 长度(4) + UTF-8，长度 -1 表示 null
+// 脚本超过阈值且压缩后更短时以 deflate 存储；读取时校验内容摘要，截断或损坏的记录直接报错
+public class CompactRefreshBeanCodec extends BaseCodec {
+
+    public static final CompactRefreshBeanCodec INSTANCE = new CompactRefreshBeanCodec();
+
+    // 格式变更时递增，旧版本的记录需重新迁移
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int FLAG_COMPILE_STATIC = 1;
+
+    private static final int FLAG_DEFLATED = 1 << 1;
+
+    // 过短的脚本压缩收益不足以抵消 deflate 的头部开销
+    private static final int COMPRESS_THRESHOLD = 256;
+
+    private final Encoder encoder = in -> {
+        var out = ByteBufAllocator.DEFAULT.buffer();
+        try (var dataOutput = new DataOutputStream(new ByteBufOutputStream(out))) {
+            write(dataOutput, (RefreshBeanModel) in);
+            return out;
+        } catch (IOException e) {
+            out.release();
+            throw e;
+        }
+    };
+
+    private final Decoder<Object> decoder = (buf, state) -> read(new DataInputStream(new ByteBufInputStream(buf)));
+
+    private static void write(DataOutputStream out, RefreshBeanModel refreshBeanModel) throws IOException {
+        var script = refreshBeanModel.lambdaScript().getBytes(StandardCharsets.UTF_8);
+        var body = script.length < COMPRESS_THRESHOLD ? script : deflate(script);
+        var flags = 0;
+        if (refreshBeanModel.requiresStaticCompilation()) flags |= FLAG_COMPILE_STATIC;
+        if (body != script) flags |= FLAG_DEFLATED;
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(flags);
+        out.writeLong(refreshBeanModel.contentHash());
+        out.writeLong(refreshBeanModel.id() == null ? -1 : refreshBeanModel.id());
+        writeString(out, refreshBeanModel.beanName());
+        writeString(out, refreshBeanModel.scriptLanguage());
+        writeString(out, refreshBeanModel.description());
+        out.writeInt(script.length);
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    private static RefreshBeanModel read(DataInputStream in) throws IOException {
+        var version = in.readByte();
+        if (version != FORMAT_VERSION) throw new IOException("unsupported compact record version: " + version);
+        var flags = in.readByte();
+        var contentHash = in.readLong();
+        var id = in.readLong();
+        var beanName = readString(in);
+        var language = readString(in);
+        var description = readString(in);
+        var scriptLength = in.readInt();
+        var body = in.readNBytes(in.readInt());
+        var script = (flags & FLAG_DEFLATED) != 0 ? inflate(body, scriptLength) : body;
+        if (script.length != scriptLength) throw new IOException("truncated compact record: " + beanName);
+        var refreshBeanModel = new RefreshBeanModel(id == -1 ? null : id, beanName, new String(script, StandardCharsets.UTF_8), description, (flags & FLAG_COMPILE_STATIC) != 0, language);
+        if (refreshBeanModel.contentHash() != contentHash) throw new IOException("corrupted compact record: " + beanName);
+        return refreshBeanModel;
+    }
+
+    // 压缩后不短于原文时，原样存储
+    private static byte[] deflate(byte[] script) {
+        var deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(script);
+            deflater.finish();
+            var out = new ByteArrayOutputStream(script.length / 2);
+            var buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+                if (out.size() >= script.length) return script;
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] body, int scriptLength) throws IOException {
+        var inflater = new Inflater(true);
+        try {
+            inflater.setInput(body);
+            var script = new byte[scriptLength];
+            var length = 0;
+            while (length < scriptLength && !inflater.finished()) {
+                var inflated = inflater.inflate(script, length, scriptLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                length += inflated;
+            }
+            if (length != scriptLength) throw new IOException("truncated compact record body");
+            return script;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        var length = in.readInt();
+        if (length == -1) return null;
+        var bytes = in.readNBytes(length);
+        if (bytes.length != length) throw new IOException("truncated compact record");
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return StringCodec.INSTANCE.getMapKeyDecoder();
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return StringCodec.INSTANCE.getMapKeyEncoder();
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+}
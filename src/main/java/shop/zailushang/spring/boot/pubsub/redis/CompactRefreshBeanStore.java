@@ -0,0 +1,102 @@
+package shop.zailushang.spring.boot.pubsub.redis;
+
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RMap;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.function.Consumer;
+
+// compact 布局：普通 hash 存储 beanName => 二进制记录（CompactRefreshBeanCodec），sidecar hash 存储 beanName => 内容摘要
+// 普通 hash 不支持字段级监听，写入时同一事务内向 channel 发布变更通知；节点比对通知中的摘要，未变更时无需拉取脚本
+public final class CompactRefreshBeanStore {
+
+    private static final Codec METADATA_CODEC = new CompositeCodec(StringCodec.INSTANCE, LongCodec.INSTANCE);
+
+    private CompactRefreshBeanStore() {
+    }
+
+    public static RMap<String, RefreshBeanModel> records(RedissonClient redissonClient) {
+        return redissonClient.getMap(RedisConst.REFRESH_BEAN_COMPACT_KEY, CompactRefreshBeanCodec.INSTANCE);
+    }
+
+    public static RMap<String, Long> metadata(RedissonClient redissonClient) {
+        return redissonClient.getMap(RedisConst.REFRESH_BEAN_METADATA_KEY, METADATA_CODEC);
+    }
+
+    public static RTopic channel(RedissonClient redissonClient) {
+        return redissonClient.getTopic(RedisConst.REFRESH_BEAN_CHANNEL, StringCodec.INSTANCE);
+    }
+
+    // 记录、摘要、变更通知及变更日志在同一个 MULTI/EXEC 中写入，publish 为 false 时不发布通知、不追加变更日志（如迁移）
+    public static void putAll(RedissonClient redissonClient, Collection<RefreshBeanModel> refreshBeanModels, boolean publish, int streamMaxLength) {
+        putAll(redissonClient, refreshBeanModels, publish, streamMaxLength, batch -> {
+        });
+    }
+
+    // 同上，before 为同一个 MULTI/EXEC 中先于记录执行的命令（如发布字节码）
+    public static void putAll(RedissonClient redissonClient, Collection<RefreshBeanModel> refreshBeanModels, boolean publish, int streamMaxLength, Consumer<RBatch> before) {
+        var batch = redissonClient.createBatch(BatchOptions.defaults().executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+        before.accept(batch);
+        var records = batch.<String, RefreshBeanModel>getMap(RedisConst.REFRESH_BEAN_COMPACT_KEY, CompactRefreshBeanCodec.INSTANCE);
+        var metadata = batch.<String, Long>getMap(RedisConst.REFRESH_BEAN_METADATA_KEY, METADATA_CODEC);
+        var channel = batch.getTopic(RedisConst.REFRESH_BEAN_CHANNEL, StringCodec.INSTANCE);
+        refreshBeanModels.forEach(refreshBeanModel -> {
+            var contentHash = refreshBeanModel.contentHash();
+            records.fastPutAsync(refreshBeanModel.beanName(), refreshBeanModel);
+            metadata.fastPutAsync(refreshBeanModel.beanName(), contentHash);
+            if (publish) {
+                channel.publishAsync(Change.upsert(refreshBeanModel.beanName(), contentHash).encode());
+                RedisChangeStream.append(batch, refreshBeanModel.beanName(), contentHash, streamMaxLength);
+            }
+        });
+        batch.execute();
+    }
+
+    public static void remove(RedissonClient redissonClient, String beanName, int streamMaxLength) {
+        var batch = redissonClient.createBatch(BatchOptions.defaults().executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+        batch.getMap(RedisConst.REFRESH_BEAN_COMPACT_KEY, CompactRefreshBeanCodec.INSTANCE).fastRemoveAsync(beanName);
+        batch.getMap(RedisConst.REFRESH_BEAN_METADATA_KEY, METADATA_CODEC).fastRemoveAsync(beanName);
+        batch.getTopic(RedisConst.REFRESH_BEAN_CHANNEL, StringCodec.INSTANCE).publishAsync(Change.remove(beanName).encode());
+        RedisChangeStream.append(batch, beanName, null, streamMaxLength);
+        batch.execute();
+    }
+
+    // 变更通知：<内容摘要>:<beanName>，摘要为 16 位十六进制，删除时为 -；beanName 中可包含 ':'
+    public record Change(String beanName, Long contentHash) {
+
+        private static final String REMOVED = "-";
+
+        public static Change upsert(String beanName, long contentHash) {
+            return new Change(beanName, contentHash);
+        }
+
+        public static Change remove(String beanName) {
+            return new Change(beanName, null);
+        }
+
+        public boolean removed() {
+            return contentHash == null;
+        }
+
+        public String encode() {
+            return (removed() ? REMOVED : HexFormat.of().toHexDigits(contentHash)) + ":" + beanName;
+        }
+
+        public static Change parse(String message) {
+            var index = message.indexOf(':');
+            if (index < 0) throw new IllegalArgumentException("malformed change message: " + message);
+            var hash = message.substring(0, index);
+            var beanName = message.substring(index + 1);
+            return REMOVED.equals(hash) ? remove(beanName) : upsert(beanName, HexFormat.fromHexDigitsToLong(hash));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package shop.zailushang.spring.boot.pubsub.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.api.stream.StreamCreateGroupArgs;
+import org.redisson.api.StreamMessageId;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.core.env.Environment;
+import shop.zailushang.spring.boot.util.Assert;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HexFormat;
+import java.util.Map;
+
+// 变更日志：写入记录时在同一个 MULTI/EXEC 中追加一条 beanName + 内容摘要（不含脚本），节点以各自的消费组消费，消费位置保存在 redis 中
+@Slf4j
+public final class RedisChangeStream {
+
+    static final String FIELD_BEAN_NAME = "bean";
+
+    // 内容摘要，删除时为 -
+    static final String FIELD_HASH = "hash";
+
+    private static final String REMOVED = "-";
+
+    private RedisChangeStream() {
+    }
+
+    public static RStream<String, String> stream(RedissonClient redissonClient) {
+        return redissonClient.getStream(RedisConst.REFRESH_BEAN_STREAM, StringCodec.INSTANCE);
+    }
+
+    // 追加变更，contentHash 为 null 表示删除；按 maxLength 近似裁剪
+    public static void append(RBatch batch, String beanName, Long contentHash, int maxLength) {
+        var fields = Map.of(FIELD_BEAN_NAME, beanName, FIELD_HASH, contentHash == null ? REMOVED : HexFormat.of().toHexDigits(contentHash));
+        batch.<String, String>getStream(RedisConst.REFRESH_BEAN_STREAM, StringCodec.INSTANCE)
+                .addAsync(StreamAddArgs.entries(fields).trimNonStrict().maxLen(maxLength).noLimit());
+    }
+
+    // 删除时返回 null
+    static Long contentHash(Map<String, String> fields) {
+        var hash = fields.get(FIELD_HASH);
+        return Assert.isNull(hash) || REMOVED.equals(hash) ? null : HexFormat.fromHexDigitsToLong(hash);
+    }
+
+    // 条目 ID => 变更的版本号：高位为写入时间（毫秒），低 16 位为同一毫秒内的序号（超出时取上限，同一毫秒内的变更不视为过期）
+    static long version(StreamMessageId id) {
+        return id.getId0() << 16 | Math.min(id.getId1(), 0xFFFFL);
+    }
+
+    // 未配置时取 ${spring.application.name}@主机名
+    public static String consumerGroup(String configured, Environment environment) {
+        if (Assert.strNotBlank(configured)) return configured;
+        try {
+            return environment.getProperty("spring.application.name", "dynamic-bean") + "@" + InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // 在启动加载之前确保消费组存在：新建的消费组从当前末尾开始，加载期间发生的变更不会遗漏
+    // 已存在的消费组保留其消费位置，其后的条目可能已被裁剪时仅记录告警：本次启动的全量加载已包含最新状态
+    public static void ensureGroup(RedissonClient redissonClient, String group) {
+        var stream = stream(redissonClient);
+        var existing = stream.isExists()
+                ? stream.listGroups().stream().filter(streamGroup -> group.equals(streamGroup.getName())).findFirst().orElse(null)
+                : null;
+        if (Assert.isNull(existing)) {
+            stream.createGroup(StreamCreateGroupArgs.name(group).id(StreamMessageId.NEWEST).makeStream());
+            log.info("created change stream consumer group: {}", group);
+            return;
+        }
+        var firstEntry = stream.getInfo().getFirstEntry();
+        if (Assert.isNotNull(firstEntry) && compare(existing.getLastDeliveredId(), firstEntry.getId()) < 0)
+            log.warn("change stream consumer group {} last delivered {} precedes the first retained entry {}, changes in between may have been trimmed.", group, existing.getLastDeliveredId(), firstEntry.getId());
+    }
+
+    private static int compare(StreamMessageId left, StreamMessageId right) {
+        var result = Long.compareUnsigned(left.getId0(), right.getId0());
+        return result != 0 ? result : Long.compareUnsigned(left.getId1(), right.getId1());
+    }
+}
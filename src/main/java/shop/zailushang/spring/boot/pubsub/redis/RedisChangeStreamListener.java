@@ -0,0 +1,165 @@
+package shop.zailushang.spring.boot.pubsub.redis;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamReadGroupArgs;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanBatchEvent;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// 变更日志的消费循环：先重放本节点消费组中已投递未确认的条目，再阻塞读取新条目；批次经刷新流水线处理完毕后确认，至少一次投递
+// 同一批次内的条目按 beanName 合并，仅以一次 HMGET 拉取最新的记录；记录的内容摘要与本节点已应用的一致时不再刷新
+// 同一条目处理失败达到 maxAttempts 次后记录日志并确认跳过，不再阻塞其后的条目，由对账修复
+@Slf4j
+@RequiredArgsConstructor
+public class RedisChangeStreamListener {
+
+    // 每个节点独占消费组，组内只有一个消费者
+    private static final String CONSUMER = "dynamic-bean";
+
+    private final RedissonClient redissonClient;
+
+    // 批次事件的处理方（刷新流水线），返回的 future 完成后才确认批次
+    private final Function<RefreshBeanBatchEvent, CompletableFuture<Void>> sink;
+
+    // beanName => 本节点已应用的内容摘要（RefreshableScope 的只读视图，启动加载及刷新成功后记录）
+    private final Map<String, Long> appliedHashes;
+
+    private final String group;
+
+    // beanNames => 最新的记录，不存在的 beanName 不在结果中
+    private final BiFunction<RedissonClient, Set<String>, Map<String, RefreshBeanModel>> fetcher;
+
+    private final int batchSize;
+
+    private final Duration pollTimeout;
+
+    private final int maxAttempts;
+
+    // 消费组为按主机生成的默认值时，停止时删除，避免主机名变化后遗留的消费组持续占用变更日志
+    private final boolean removeGroupOnStop;
+
+    // 条目 ID => 已失败的处理次数，仅由监听线程访问
+    private final Map<StreamMessageId, Integer> failedAttempts = new HashMap<>();
+
+    private volatile Thread listenerThread;
+
+    // 线程被中断时退出
+    public void startListener() {
+        listenerThread = Thread.currentThread();
+        var stream = RedisChangeStream.stream(redissonClient);
+        // 通常已在启动加载前创建，此处兜底（如消费组被手动删除）
+        RedisChangeStream.ensureGroup(redissonClient, group);
+        // 启动或出错后，先从头读取本消费者未确认的条目
+        var replaying = true;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                var args = replaying
+                        ? StreamReadGroupArgs.greaterThan(new StreamMessageId(0, 0)).count(batchSize)
+                        : StreamReadGroupArgs.neverDelivered().count(batchSize).timeout(pollTimeout);
+                var entries = stream.readGroup(group, CONSUMER, args);
+                if (entries.isEmpty()) {
+                    replaying = false;
+                    continue;
+                }
+                if (replaying) log.info("replaying {} unacknowledged changes of group {}.", entries.size(), group);
+                processBatch(stream, entries);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                if (Thread.currentThread().isInterrupted()) break;
+                log.error("redis change stream error: ", e);
+                replaying = true;
+                try {
+                    TimeUnit.MILLISECONDS.sleep(pollTimeout.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        log.info("redis change stream listener stopped.");
+    }
+
+    // 中断监听循环；消费组为默认值时一并删除，下次启动时重新创建（启动时的全量加载已包含最新状态）
+    public void stop() {
+        var thread = listenerThread;
+        if (thread != null) thread.interrupt();
+        if (!removeGroupOnStop) return;
+        try {
+            RedisChangeStream.stream(redissonClient).removeGroup(group);
+            log.info("removed change stream consumer group: {}", group);
+        } catch (RuntimeException e) {
+            log.warn("failed to remove change stream consumer group: {}", group, e);
+        }
+    }
+
+    // 失败次数已达上限的条目确认跳过，其余条目处理完毕后确认；处理失败时累计失败次数，由重放重新投递
+    private void processBatch(RStream<String, String> stream, Map<StreamMessageId, Map<String, String>> entries) throws Exception {
+        var pending = new LinkedHashMap<>(entries);
+        var exhausted = pending.keySet()
+                .stream()
+                .filter(id -> failedAttempts.getOrDefault(id, 0) >= maxAttempts)
+                .toArray(StreamMessageId[]::new);
+        if (exhausted.length > 0) {
+            for (var id : exhausted) {
+                log.error("skip change {} of {} after {} failed attempts, left to reconcile.", id, pending.remove(id).get(RedisChangeStream.FIELD_BEAN_NAME), maxAttempts);
+                failedAttempts.remove(id);
+            }
+            stream.ack(group, exhausted);
+        }
+        if (pending.isEmpty()) return;
+        try {
+            processEntries(pending).get();
+        } catch (Exception e) {
+            if (!(e instanceof InterruptedException)) pending.keySet().forEach(id -> failedAttempts.merge(id, 1, Integer::sum));
+            throw e;
+        }
+        stream.ack(group, pending.keySet().toArray(StreamMessageId[]::new));
+        pending.keySet().forEach(failedAttempts::remove);
+    }
+
+    // 按 beanName 合并为最终状态：删除 => DEL；其余以拉取到的最新记录为准，记录已不存在时同样视为删除
+    // 返回的 future 在净变更全部处理完毕时完成，无净变更时立即完成
+    public CompletableFuture<Void> processEntries(Map<StreamMessageId, Map<String, String>> entries) {
+        var removed = new LinkedHashMap<String, Boolean>();
+        // beanName => 最后一个条目的 ID，作为变更的版本号
+        var versions = new HashMap<String, Long>();
+        entries.forEach((id, fields) -> {
+            var beanName = fields.get(RedisChangeStream.FIELD_BEAN_NAME);
+            removed.remove(beanName);
+            removed.put(beanName, RedisChangeStream.contentHash(fields) == null);
+            versions.put(beanName, RedisChangeStream.version(id));
+        });
+        var upserted = removed.entrySet().stream().filter(entry -> !entry.getValue()).map(Map.Entry::getKey).toList();
+        var refreshBeanModels = upserted.isEmpty() ? Map.<String, RefreshBeanModel>of() : fetcher.apply(redissonClient, Set.copyOf(upserted));
+        var batchBuilder = RefreshBeanBatchEvent.builder();
+        removed.forEach((beanName, isRemoved) -> {
+            var refreshBeanModel = refreshBeanModels.get(beanName);
+            batchBuilder.version(versions.get(beanName));
+            if (isRemoved || refreshBeanModel == null) {
+                batchBuilder.delete(RefreshBeanModel.withBeanName(beanName));
+                return;
+            }
+            if (Long.valueOf(refreshBeanModel.contentHash()).equals(appliedHashes.get(beanName))) return;
+            // 不存在时由事件处理器按新增处理
+            batchBuilder.update(RefreshBeanModel.withBeanName(beanName), refreshBeanModel);
+        });
+        // 事件时间取批次中最早一条变更的写入时间
+        var refreshBeanBatchEvent = batchBuilder.build(entries.keySet().iterator().next().getId0());
+        if (refreshBeanBatchEvent.isEmpty()) return CompletableFuture.completedFuture(null);
+        log.info("redis change stream: {} changes => {} net changes", entries.size(), refreshBeanBatchEvent.getSource().size());
+        return sink.apply(refreshBeanBatchEvent);
+    }
+}
@@ -2,4 +2,12 @@ package shop.zailushang.spring.boot.pubsub.redis;
 
 public interface RedisConst {
     String REFRESH_BEAN_KEY = "$_____refresh_bean_____$";
+    // compact 布局：二进制记录、内容摘要（sidecar）及变更通知
+    String REFRESH_BEAN_COMPACT_KEY = "$_____refresh_bean_compact_____$";
+    String REFRESH_BEAN_METADATA_KEY = "$_____refresh_bean_metadata_____$";
+    String REFRESH_BEAN_CHANNEL = "$_____refresh_bean_channel_____$";
+    // 变更日志，两种布局共用
+    String REFRESH_BEAN_STREAM = "$_____refresh_bean_stream_____$";
+    // 单点编译：写入节点发布的字节码
+    String REFRESH_BEAN_BYTECODE_CHANNEL = "$_____refresh_bean_bytecode_____$";
 }
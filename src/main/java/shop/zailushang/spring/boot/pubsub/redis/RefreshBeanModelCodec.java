@@ -0,0 +1,69 @@
+package shop.zailushang.spring.boot.pubsub.redis;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import shop.zailushang.spring.boot.util.RefreshBeanModelJson;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// RefreshBeanModel 的 Redisson Codec：值直接在 ByteBuf 上读写 UTF-8 JSON（共用 RefreshBeanModelJson 的 ObjectReader、ObjectWriter），不经过 String 中转；键仍为 UTF-8 字符串
+// 写入的字节与 StringCodec 写入的 JSON 字符串完全一致，可直接读取已有数据
+public class RefreshBeanModelCodec extends BaseCodec {
+
+    public static final RefreshBeanModelCodec INSTANCE = new RefreshBeanModelCodec();
+
+    private static final ObjectReader READER = RefreshBeanModelJson.reader();
+
+    private static final ObjectWriter WRITER = RefreshBeanModelJson.writer();
+
+    private final Encoder encoder = in -> {
+        var out = ByteBufAllocator.DEFAULT.buffer();
+        try (var outputStream = new ByteBufOutputStream(out)) {
+            WRITER.writeValue((OutputStream) outputStream, in);
+            return out;
+        } catch (IOException e) {
+            out.release();
+            throw e;
+        }
+    };
+
+    private final Decoder<Object> decoder = (buf, state) -> {
+        try {
+            // 堆内存直接解析底层数组，直接内存以流的方式读取
+            return buf.hasArray()
+                    ? READER.readValue(buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes())
+                    : READER.readValue((InputStream) new ByteBufInputStream(buf));
+        } finally {
+            buf.readerIndex(buf.writerIndex());
+        }
+    };
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return StringCodec.INSTANCE.getMapKeyDecoder();
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return StringCodec.INSTANCE.getMapKeyEncoder();
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+}
@@ -0,0 +1,61 @@
+package shop.zailushang.spring.boot.service.impl;
+
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import shop.zailushang.spring.boot.autoconfigure.ConditionalOnRedisLayout;
+import shop.zailushang.spring.boot.autoconfigure.DynamicBeanProperties;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.redis.BytecodeFanout;
+import shop.zailushang.spring.boot.pubsub.redis.CompactRefreshBeanStore;
+import shop.zailushang.spring.boot.service.RefreshBeanService;
+import shop.zailushang.spring.boot.util.Assert;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// compact 布局：写入记录的同时更新 sidecar 中的内容摘要、发布变更通知并追加变更日志
+@Service
+@ConditionalOnRedisLayout(DynamicBeanProperties.Layout.COMPACT)
+public record RefreshBeanServiceCompactRedisImpl(RedissonClient redissonClient, DynamicBeanProperties dynamicBeanProperties, ObjectProvider<BytecodeFanout> bytecodeFanoutProvider) implements RefreshBeanService {
+    @Override
+    public List<RefreshBeanModel> selectAll() {
+        return List.copyOf(CompactRefreshBeanStore.records(redissonClient).values());
+    }
+
+    @Override
+    public int insert(RefreshBeanModel refreshBeanModel) {
+        var beanName = refreshBeanModel.beanName();
+        Assert.isFalse(beanName, CompactRefreshBeanStore.metadata(redissonClient)::containsKey, () -> new IllegalArgumentException("model already exists"));
+        put(refreshBeanModel);
+        return 1;
+    }
+
+    @Override
+    public int update(RefreshBeanModel refreshBeanModel) {
+        var beanName = refreshBeanModel.beanName();
+        Assert.isTrue(beanName, CompactRefreshBeanStore.metadata(redissonClient)::containsKey, () -> new NoSuchElementException("model not exists"));
+        put(refreshBeanModel);
+        return 1;
+    }
+
+    @Override
+    public int delete(String beanName) {
+        Assert.isTrue(beanName, CompactRefreshBeanStore.metadata(redissonClient)::containsKey, () -> new NoSuchElementException("model not exists"));
+        CompactRefreshBeanStore.remove(redissonClient, beanName, streamMaxLength());
+        return 1;
+    }
+
+    // 启用单点编译时先行编译，编译失败时拒绝写入，字节码在同一个 MULTI/EXEC 中先于记录发布
+    private void put(RefreshBeanModel refreshBeanModel) {
+        var bytecodeFanout = bytecodeFanoutProvider.getIfAvailable();
+        var bytecode = Assert.isNull(bytecodeFanout) ? null : bytecodeFanout.compile(refreshBeanModel);
+        CompactRefreshBeanStore.putAll(redissonClient, List.of(refreshBeanModel), true, streamMaxLength(), batch -> {
+            if (Assert.isNotNull(bytecode)) BytecodeFanout.publish(batch, bytecode);
+        });
+    }
+
+    private int streamMaxLength() {
+        return dynamicBeanProperties.getRedis().getChangeStream().getMaxLength();
+    }
+}
@@ -1,54 +1,74 @@
 package shop.zailushang.spring.boot.service.impl;
 
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RMapCache;
 import org.redisson.api.RedissonClient;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import shop.zailushang.spring.boot.autoconfigure.ConditionalOnRedisLayout;
+import shop.zailushang.spring.boot.autoconfigure.DynamicBeanProperties;
 import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.redis.BytecodeFanout;
+import shop.zailushang.spring.boot.pubsub.redis.RedisChangeStream;
+import shop.zailushang.spring.boot.pubsub.redis.RefreshBeanModelCodec;
 import shop.zailushang.spring.boot.service.RefreshBeanService;
 import shop.zailushang.spring.boot.pubsub.redis.RedisConst;
 import shop.zailushang.spring.boot.util.Assert;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 
 @Service
-@ConditionalOnProperty(name = "dynamic-bean.mode", havingValue = "redis")
-public record RefreshBeanServiceRedisImpl(RedissonClient redissonClient) implements RefreshBeanService {
+@ConditionalOnRedisLayout(DynamicBeanProperties.Layout.MAP_CACHE)
+public record RefreshBeanServiceRedisImpl(RedissonClient redissonClient, DynamicBeanProperties dynamicBeanProperties, ObjectProvider<BytecodeFanout> bytecodeFanoutProvider) implements RefreshBeanService {
     @Override
     public List<RefreshBeanModel> selectAll() {
-        var jsonStrList = redissonClient.<String, String>getMapCache(RedisConst.REFRESH_BEAN_KEY)
-                .values();
-        return parseList(jsonStrList);
+        return List.copyOf(rMapCache().values());
     }
 
     @Override
     public int insert(RefreshBeanModel refreshBeanModel) {
         var beanName = refreshBeanModel.beanName();
-        var rMapCache = redissonClient.<String, String>getMapCache(RedisConst.REFRESH_BEAN_KEY);
-        Assert.isFalse(beanName, rMapCache::containsKey, () -> new IllegalArgumentException("model already exists"));
-        rMapCache.fastPut(beanName, refreshBeanModel.toJson());
+        Assert.isFalse(beanName, rMapCache()::containsKey, () -> new IllegalArgumentException("model already exists"));
+        put(refreshBeanModel);
         return 1;
     }
 
     @Override
     public int update(RefreshBeanModel refreshBeanModel) {
         var beanName = refreshBeanModel.beanName();
-        var rMapCache = redissonClient.<String, String>getMapCache(RedisConst.REFRESH_BEAN_KEY);
-        Assert.isTrue(beanName, rMapCache::containsKey, () -> new NoSuchElementException("model not exists"));
-        rMapCache.fastPut(beanName, refreshBeanModel.toJson());
+        Assert.isTrue(beanName, rMapCache()::containsKey, () -> new NoSuchElementException("model not exists"));
+        put(refreshBeanModel);
         return 1;
     }
 
     @Override
     public int delete(String beanName) {
-        var rMapCache = redissonClient.<String, String>getMapCache(RedisConst.REFRESH_BEAN_KEY);
-        Assert.isTrue(beanName, rMapCache::containsKey, () -> new NoSuchElementException("model not exists"));
-        rMapCache.fastRemove(beanName);
+        Assert.isTrue(beanName, rMapCache()::containsKey, () -> new NoSuchElementException("model not exists"));
+        var batch = redissonClient.createBatch(BatchOptions.defaults().executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+        batch.getMapCache(RedisConst.REFRESH_BEAN_KEY, RefreshBeanModelCodec.INSTANCE).fastRemoveAsync(beanName);
+        RedisChangeStream.append(batch, beanName, null, streamMaxLength());
+        batch.execute();
         return 1;
     }
 
-    private List<RefreshBeanModel> parseList(Collection<String> jsonList) {
-        return jsonList.stream().map(RefreshBeanModel::parse).toList();
+    // 记录与变更日志在同一个 MULTI/EXEC 中写入；启用单点编译时先行编译，编译失败时拒绝写入，字节码先于记录发布
+    private void put(RefreshBeanModel refreshBeanModel) {
+        var bytecodeFanout = bytecodeFanoutProvider.getIfAvailable();
+        var bytecode = Assert.isNull(bytecodeFanout) ? null : bytecodeFanout.compile(refreshBeanModel);
+        var batch = redissonClient.createBatch(BatchOptions.defaults().executionMode(BatchOptions.ExecutionMode.IN_MEMORY_ATOMIC));
+        if (Assert.isNotNull(bytecode)) BytecodeFanout.publish(batch, bytecode);
+        batch.<String, RefreshBeanModel>getMapCache(RedisConst.REFRESH_BEAN_KEY, RefreshBeanModelCodec.INSTANCE).fastPutAsync(refreshBeanModel.beanName(), refreshBeanModel);
+        RedisChangeStream.append(batch, refreshBeanModel.beanName(), refreshBeanModel.contentHash(), streamMaxLength());
+        batch.execute();
+    }
+
+    private int streamMaxLength() {
+        return dynamicBeanProperties.getRedis().getChangeStream().getMaxLength();
+    }
+
+    // 值由 RefreshBeanModelCodec 直接在响应字节上编解码
+    private RMapCache<String, RefreshBeanModel> rMapCache() {
+        return redissonClient.getMapCache(RedisConst.REFRESH_BEAN_KEY, RefreshBeanModelCodec.INSTANCE);
     }
 }
@@ -0,0 +1,34 @@
+package shop.zailushang.spring.boot.util;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+
+// 启动期创建的连接（Hikari 连接池、RedissonClient）移交给主容器时的工厂 Bean：
+// 以 BeanDefinition 的形式替换自动配置的同名 Bean，产品照常经过 BeanPostProcessor（如指标、健康检查的绑定），容器关闭时由 destroyer 释放
+// 产品为已启动的连接，不再绑定配置属性（启动期创建时已按 spring.datasource.* 等绑定，且已启动的 Hikari 连接池不允许再修改配置）
+public class EarlyResourceFactoryBean<T> implements FactoryBean<T>, DisposableBean {
+
+    private final T instance;
+
+    private final DisposableBean destroyer;
+
+    public EarlyResourceFactoryBean(T instance, DisposableBean destroyer) {
+        this.instance = instance;
+        this.destroyer = destroyer;
+    }
+
+    @Override
+    public T getObject() {
+        return instance;
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return instance.getClass();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        destroyer.destroy();
+    }
+}
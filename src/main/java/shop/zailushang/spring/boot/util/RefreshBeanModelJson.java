@@ -0,0 +1,45 @@
+package shop.zailushang.spring.boot.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+// RefreshBeanModel 的 JSON 读写：共享的 ObjectReader、ObjectWriter 线程安全，复用 Jackson 的序列化器缓存
+// 不依赖任何数据源，RefreshBeanModel 与 Redis 的 RefreshBeanModelCodec 共用
+public final class RefreshBeanModelJson {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final ObjectReader READER = OBJECT_MAPPER.readerFor(RefreshBeanModel.class);
+
+    private static final ObjectWriter WRITER = OBJECT_MAPPER.writerFor(RefreshBeanModel.class);
+
+    private RefreshBeanModelJson() {
+    }
+
+    public static ObjectReader reader() {
+        return READER;
+    }
+
+    public static ObjectWriter writer() {
+        return WRITER;
+    }
+
+    public static String toJson(RefreshBeanModel refreshBeanModel) {
+        try {
+            return WRITER.writeValueAsString(refreshBeanModel);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static RefreshBeanModel parse(String jsonStr) {
+        try {
+            return READER.readValue(jsonStr);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -1,88 +1,446 @@
 package shop.zailushang.spring.boot.util;
 
+import com.zaxxer.hikari.HikariDataSource;
 import groovy.lang.GroovyClassLoader;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import shop.zailushang.spring.boot.autoconfigure.DynamicBeanProperties;
+import shop.zailushang.spring.boot.framework.ClassLoaderTracker;
+import shop.zailushang.spring.boot.framework.SAM;
 import shop.zailushang.spring.boot.framework.SAMProxyFactoryBean;
+import shop.zailushang.spring.boot.framework.ScriptClassCache;
 import shop.zailushang.spring.boot.framework.ScriptEngineCreator;
 import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.framework.RefreshBeanSnapshot;
 import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.pubsub.redis.CompactRefreshBeanStore;
+import shop.zailushang.spring.boot.pubsub.redis.RedisChangeStream;
 import shop.zailushang.spring.boot.pubsub.redis.RedisConst;
+import shop.zailushang.spring.boot.pubsub.redis.RefreshBeanModelCodec;
 
+import javax.script.ScriptException;
+import javax.sql.DataSource;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Slf4j
 public class RefreshableBeanDefinitionResolver {
-    // 从数据库中获取所有需要动态注册的Bean定义
-    public static Set<BeanDefinitionHolder> resolveBeanDefinitionFromDatabase(Environment environment, ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
-        var jdbcTemplate = resolverEarlyJdbcTemplate(environment);
-        var refreshBeanList = jdbcTemplate.query(
-                "select * from refresh_bean",
-                (rs, rowNum) -> new RefreshBeanModel(
-                        rs.getLong("id"),
-                        rs.getString("bean_name"),
-                        rs.getString("lambda_script"),
-                        rs.getString("description")
-                ));
-        return refreshBeanList.stream()
-                .map(refreshBeanModel -> resolveBeanDefinitionFromModel(refreshBeanModel, scriptEngineCreator, refreshableScope))
-                .peek(beanDefinitionHolder -> log.debug("register beanDefinition from database, {} => {}", beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition()))
-                .collect(Collectors.toSet());
-    }
-
-    // 从Redis中获取所有需要动态注册的Bean定义
-    public static Set<BeanDefinitionHolder> resolveBeanDefinitionFromRedis(Environment environment, ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
+    // 按 bean_name 增量拉取时，单条 in 查询（HMGET）的最大参数个数
+    private static final int SNAPSHOT_FETCH_CHUNK = 500;
+
+    // 从数据库中获取所有需要动态注册的Bean定义，逐个注册至 registry，返回注册的数量
+    public static int resolveBeanDefinitionFromDatabase(Environment environment, BeanDefinitionRegistry registry, ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
+        var properties = DynamicBeanProperties.resolve(environment);
+        var dataSource = resolverEarlyDataSource(environment);
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        // 以快照启动且后台加载任务未能及时退出时置为 false，不再移交仍被其使用的连接池
+        var shared = new AtomicBoolean(properties.getStartup().isShareEarlyConnections());
+        try {
+            // 启用快照时，仅拉取 updated_at 发生变化的行
+            if (properties.getSnapshot().isEnabled()) {
+                var refreshBeanList = loadWithSnapshot(environment, refreshableScope, "database", snapshotEntries -> loadFromDatabase(jdbcTemplate, snapshotEntries), shared);
+                return resolveBeanDefinitionFromModels(refreshBeanList.stream().sorted(Comparator.comparing(RefreshBeanModel::beanName)), environment, scriptEngineCreator, refreshableScope, "database", registrar(registry));
+            }
+            // 按 fetchSize 分批从游标中读取，边读取边编译，不在内存中物化整张表
+            jdbcTemplate.setFetchSize(properties.getStartup().getChunkSize());
+            try (var refreshBeanStream = jdbcTemplate.queryForStream("select * from refresh_bean order by bean_name", (rs, rowNum) -> mapToModel(rs))) {
+                return resolveBeanDefinitionFromModels(refreshBeanStream, environment, scriptEngineCreator, refreshableScope, "database", registrar(registry));
+            }
+        } finally {
+            handOver(registry, DataSource.class, dataSource, dataSource::close, shared.get());
+        }
+    }
+
+    // 从Redis中获取所有需要动态注册的Bean定义，逐个注册至 registry，返回注册的数量
+    public static int resolveBeanDefinitionFromRedis(Environment environment, BeanDefinitionRegistry registry, ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
+        var properties = DynamicBeanProperties.resolve(environment);
+        var chunkSize = properties.getStartup().getChunkSize();
         var redissonClient = resolverEarlyRedissonClient(environment);
-        var rMapCache = redissonClient.<String, String>getMapCache(RedisConst.REFRESH_BEAN_KEY);
+        var compact = properties.getRedis().getLayout() == DynamicBeanProperties.Layout.COMPACT;
+        var shared = new AtomicBoolean(properties.getStartup().isShareEarlyConnections());
         try {
-            return rMapCache
-                    .values()
-                    .stream()
-                    .map(RefreshBeanModel::parse)
-                    .map(refreshBeanModel -> resolveBeanDefinitionFromModel(refreshBeanModel, scriptEngineCreator, refreshableScope))
-                    .peek(beanDefinitionHolder -> log.debug("register beanDefinition from redis, {} => {}", beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition()))
-                    .collect(Collectors.toSet());
+            // 在加载之前确保本节点的消费组存在，加载期间发生的变更由变更日志补齐
+            if (properties.getRedis().getChangeFeed() == DynamicBeanProperties.ChangeFeed.STREAM)
+                RedisChangeStream.ensureGroup(redissonClient, RedisChangeStream.consumerGroup(properties.getRedis().getChangeStream().getConsumerGroup(), environment));
+            // RMapCache 中没有版本信息，快照仅用于 redis 过慢时兜底；compact 布局以 sidecar 中的内容摘要为版本，仅拉取摘要发生变化的记录
+            if (properties.getSnapshot().isEnabled()) {
+                var refreshBeanList = loadWithSnapshot(environment, refreshableScope, "redis", snapshotEntries -> compact
+                        ? loadFromCompactRedis(redissonClient, chunkSize, snapshotEntries)
+                        : loadFromRedis(redissonClient, chunkSize).map(refreshBeanModel -> RefreshBeanSnapshot.Entry.of(refreshBeanModel, 0)).toList(), shared);
+                return resolveBeanDefinitionFromModels(refreshBeanList.stream().sorted(Comparator.comparing(RefreshBeanModel::beanName)), environment, scriptEngineCreator, refreshableScope, "redis", registrar(registry));
+            }
+            // 按 chunkSize 分批 HSCAN，边读取边编译边注册，避免单个巨大的响应阻塞连接
+            // HSCAN 的顺序由哈希槽决定，注册顺序不按 beanName 排序（排序须先物化全部记录）；动态 Bean 之间不存在依赖，注册顺序不影响结果
+            var refreshBeanStream = compact
+                    ? CompactRefreshBeanStore.records(redissonClient).values(chunkSize).stream()
+                    : loadFromRedis(redissonClient, chunkSize);
+            return resolveBeanDefinitionFromModels(refreshBeanStream, environment, scriptEngineCreator, refreshableScope, "redis", registrar(registry));
         } finally {
-            redissonClient.shutdown();
+            handOver(registry, RedissonClient.class, redissonClient, redissonClient::shutdown, shared.get());
+        }
+    }
+
+    // 以 HSCAN 分批迭代 RMapCache 中的值，由 RefreshBeanModelCodec 直接从响应字节解析
+    private static Stream<RefreshBeanModel> loadFromRedis(RedissonClient redissonClient, int chunkSize) {
+        return redissonClient.<String, RefreshBeanModel>getMapCache(RedisConst.REFRESH_BEAN_KEY, RefreshBeanModelCodec.INSTANCE)
+                .values(chunkSize)
+                .stream();
+    }
+
+    // compact 布局：对比 sidecar 中的内容摘要与快照中的版本，仅以 HMGET 拉取新增及变更的记录（仅修改描述时摘要不变，沿用快照）
+    private static List<RefreshBeanSnapshot.Entry> loadFromCompactRedis(RedissonClient redissonClient, int chunkSize, Map<String, RefreshBeanSnapshot.Entry> snapshotEntries) {
+        var records = CompactRefreshBeanStore.records(redissonClient);
+        if (snapshotEntries.isEmpty())
+            return records.values(chunkSize).stream().map(refreshBeanModel -> RefreshBeanSnapshot.Entry.of(refreshBeanModel, refreshBeanModel.contentHash())).toList();
+        // 仅读取 sidecar，不传输脚本
+        var versions = List.copyOf(CompactRefreshBeanStore.metadata(redissonClient).readAllMap().entrySet());
+        return loadChanged(versions, snapshotEntries, "entries", chunk -> records.getAll(Set.copyOf(chunk))
+                .values()
+                .stream()
+                .map(refreshBeanModel -> RefreshBeanSnapshot.Entry.of(refreshBeanModel, refreshBeanModel.contentHash()))
+                .toList());
+    }
+
+    // 将启动期创建的连接移交给主容器：以 EarlyResourceFactoryBean 的 BeanDefinition 替换唯一的同类型自动配置 Bean，产品照常经过 BeanPostProcessor，
+    // 主容器不再重复建立连接，并在关闭时一并释放；关闭共享、存在多个候选或候选类型不兼容（如自定义的数据源）时，直接释放
+    public static <T> void handOver(BeanDefinitionRegistry registry, Class<T> type, T instance, DisposableBean destroyer, boolean shared) {
+        if (shared && registry instanceof DefaultListableBeanFactory beanFactory) {
+            var beanNames = beanFactory.getBeanNamesForType(type, true, false);
+            if (beanNames.length == 1 && !beanFactory.containsSingleton(beanNames[0])) {
+                var beanType = beanFactory.getType(beanNames[0], false);
+                if (Assert.isNotNull(beanType) && beanType.isInstance(instance)) {
+                    var original = beanFactory.getBeanDefinition(beanNames[0]);
+                    var beanDefinition = BeanDefinitionBuilder.genericBeanDefinition(EarlyResourceFactoryBean.class, () -> new EarlyResourceFactoryBean<>(instance, destroyer))
+                            .getBeanDefinition();
+                    // 按类型查找时无需实例化工厂 Bean
+                    beanDefinition.setAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE, instance.getClass());
+                    beanDefinition.setPrimary(original.isPrimary());
+                    beanDefinition.setAutowireCandidate(original.isAutowireCandidate());
+                    // 不允许覆盖 BeanDefinition 时，直接注册同名定义会失败，须先移除
+                    beanFactory.removeBeanDefinition(beanNames[0]);
+                    beanFactory.registerBeanDefinition(beanNames[0], beanDefinition);
+                    log.info("early {} handed over as bean '{}'.", type.getSimpleName(), beanNames[0]);
+                    return;
+                }
+            }
         }
+        try {
+            destroyer.destroy();
+        } catch (Exception e) {
+            log.warn("failed to release early {}.", type.getSimpleName(), e);
+        }
+    }
+
+    // 对比快照中的版本，仅拉取新增及变更的行，未变更的行直接取自快照；已删除的行不会出现在结果中
+    private static List<RefreshBeanSnapshot.Entry> loadFromDatabase(JdbcTemplate jdbcTemplate, Map<String, RefreshBeanSnapshot.Entry> snapshotEntries) {
+        if (snapshotEntries.isEmpty())
+            return jdbcTemplate.query("select * from refresh_bean", (rs, rowNum) -> RefreshBeanSnapshot.Entry.of(mapToModel(rs), rs.getTimestamp("updated_at").getTime()));
+        // 仅查询 bean_name 及版本，不传输脚本
+        var versions = jdbcTemplate.query("select bean_name, updated_at from refresh_bean", (rs, rowNum) -> Map.entry(rs.getString("bean_name"), rs.getTimestamp("updated_at").getTime()));
+        return loadChanged(versions, snapshotEntries, "rows", chunk -> {
+            var placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            return jdbcTemplate.query("select * from refresh_bean where bean_name in (" + placeholders + ")",
+                    (rs, rowNum) -> RefreshBeanSnapshot.Entry.of(mapToModel(rs), rs.getTimestamp("updated_at").getTime()),
+                    chunk.toArray());
+        });
+    }
+
+    // 按 beanName => 版本 找出新增及变更的条目，分批交由 fetcher 拉取，其余直接取自快照；结果按 versions 的顺序排列
+    private static List<RefreshBeanSnapshot.Entry> loadChanged(List<Map.Entry<String, Long>> versions, Map<String, RefreshBeanSnapshot.Entry> snapshotEntries, String unit, Function<List<String>, List<RefreshBeanSnapshot.Entry>> fetcher) {
+        var changedBeanNames = versions.stream()
+                .filter(version -> {
+                    var snapshotEntry = snapshotEntries.get(version.getKey());
+                    return snapshotEntry == null || snapshotEntry.version() != version.getValue();
+                })
+                .map(Map.Entry::getKey)
+                .toList();
+        var changedEntries = new HashMap<String, RefreshBeanSnapshot.Entry>();
+        for (var i = 0; i < changedBeanNames.size(); i += SNAPSHOT_FETCH_CHUNK) {
+            var chunk = changedBeanNames.subList(i, Math.min(i + SNAPSHOT_FETCH_CHUNK, changedBeanNames.size()));
+            fetcher.apply(chunk).forEach(entry -> changedEntries.put(entry.refreshBeanModel().beanName(), entry));
+        }
+        log.info("{} of {} {} changed since last snapshot.", changedBeanNames.size(), versions.size(), unit);
+        var changed = Set.copyOf(changedBeanNames);
+        return versions.stream()
+                .map(version -> changed.contains(version.getKey()) ? changedEntries.get(version.getKey()) : snapshotEntries.get(version.getKey()))
+                // 查询版本与拉取脚本之间被删除的条目
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // 读取快照，在超时时间内从数据源加载并覆盖快照；数据源超时或失败且存在快照时，以快照启动，并标记应用就绪后追赶对账
+    // 返回之前取消并等待加载任务退出，加载任务仍在使用连接时不能移交；未能在 sourceTimeout 内退出时将 shared 置为 false，由调用方直接释放连接使其失败退出
+    private static List<RefreshBeanModel> loadWithSnapshot(Environment environment, RefreshableScope refreshableScope, String source, Function<Map<String, RefreshBeanSnapshot.Entry>, List<RefreshBeanSnapshot.Entry>> loader, AtomicBoolean shared) {
+        var snapshotProperties = DynamicBeanProperties.resolve(environment).getSnapshot();
+        var refreshBeanSnapshot = new RefreshBeanSnapshot(Path.of(snapshotProperties.getFile()));
+        var snapshotEntries = refreshBeanSnapshot.load();
+        var executor = Executors.newSingleThreadExecutor(startupThreadFactory());
+        try {
+            var future = CompletableFuture.supplyAsync(() -> loader.apply(snapshotEntries), executor);
+            // 没有快照时只能等待数据源
+            var entries = snapshotEntries.isEmpty()
+                    ? future.get()
+                    : future.get(snapshotProperties.getSourceTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            refreshBeanSnapshot.store(entries);
+            return entries.stream().map(RefreshBeanSnapshot.Entry::refreshBeanModel).toList();
+        } catch (TimeoutException e) {
+            log.warn("{} did not respond within {}, starting from snapshot of {} beans.", source, snapshotProperties.getSourceTimeout(), snapshotEntries.size());
+            refreshableScope.markStartedFromSnapshot();
+            return snapshotEntries.values().stream().map(RefreshBeanSnapshot.Entry::refreshBeanModel).toList();
+        } catch (ExecutionException e) {
+            if (snapshotEntries.isEmpty()) throw new RuntimeException(e.getCause());
+            log.warn("failed to load from {}, starting from snapshot of {} beans.", source, snapshotEntries.size(), e.getCause());
+            refreshableScope.markStartedFromSnapshot();
+            return snapshotEntries.values().stream().map(RefreshBeanSnapshot.Entry::refreshBeanModel).toList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            if (!cancel(executor, snapshotProperties.getSourceTimeout())) {
+                log.warn("{} loader did not stop within {}, early connection will be released instead of handed over.", source, snapshotProperties.getSourceTimeout());
+                shared.set(false);
+            }
+        }
+    }
+
+    // 中断加载任务并等待其退出，返回是否已退出
+    private static boolean cancel(ExecutorService executor, Duration timeout) {
+        executor.shutdownNow();
+        try {
+            return executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // 已有的表可能尚未添加 compile_static、language 列（见 README 中的 ALTER TABLE），缺失时视为动态编译的 groovy 脚本，不影响启动
+    private static RefreshBeanModel mapToModel(ResultSet rs) throws SQLException {
+        return new RefreshBeanModel(
+                rs.getLong("id"),
+                rs.getString("bean_name"),
+                rs.getString("lambda_script"),
+                rs.getString("description"),
+                hasColumn(rs, "compile_static") && rs.getBoolean("compile_static"),
+                hasColumn(rs, "language") ? rs.getString("language") : null
+        );
+    }
+
+    // 结果集中是否包含该列
+    private static boolean hasColumn(ResultSet rs, String column) throws SQLException {
+        var metaData = rs.getMetaData();
+        for (var i = 1; i <= metaData.getColumnCount(); i++) {
+            if (column.equalsIgnoreCase(metaData.getColumnLabel(i))) return true;
+        }
+        return false;
+    }
+
+    // 逐个注册至 registry
+    private static Consumer<BeanDefinitionHolder> registrar(BeanDefinitionRegistry registry) {
+        return beanDefinitionHolder -> registry.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+    }
+
+    // 批量解析 BeanDefinition：按 dynamic-bean.startup.parallelism 并发编译，单个脚本失败时仅记录 beanName，不影响其他脚本，返回交给 registrar 的数量
+    // 流式消费：同时在途的编译任务不超过 parallelism 的两倍，按读取顺序逐个交给 registrar，不在内存中收集结果，启动内存不随脚本总数增长
+    public static int resolveBeanDefinitionFromModels(Stream<RefreshBeanModel> refreshBeanStream, Environment environment, ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope, String source, Consumer<BeanDefinitionHolder> registrar) {
+        var startup = DynamicBeanProperties.resolve(environment).getStartup();
+        var registered = new AtomicInteger();
+        // 延迟模式下仅注册携带原始脚本的 BeanDefinition，无需编译
+        if (startup.getResolution() == DynamicBeanProperties.Resolution.LAZY) {
+            refreshBeanStream
+                    .map(refreshBeanModel -> resolveLazyBeanDefinitionFromModel(refreshBeanModel, scriptEngineCreator, refreshableScope))
+                    .forEach(beanDefinitionHolder -> {
+                        log.debug("register lazy beanDefinition from {}, {}", source, beanDefinitionHolder.getBeanName());
+                        registrar.accept(beanDefinitionHolder);
+                        registered.incrementAndGet();
+                    });
+            return registered.get();
+        }
+        var parallelism = startup.getParallelism();
+        var executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, startupThreadFactory()) : null;
+        try {
+            var counted = counting(registrar, registered);
+            var failedBeanNames = new ArrayList<String>();
+            var inFlight = new ArrayDeque<Map.Entry<String, CompletableFuture<BeanDefinitionHolder>>>();
+            var window = Math.max(1, parallelism * 2);
+            var total = new AtomicInteger();
+            refreshBeanStream.forEach(refreshBeanModel -> {
+                total.incrementAndGet();
+                // 顺序模式：在当前线程中直接编译
+                if (Assert.isNull(executor)) {
+                    collect(refreshBeanModel.beanName(), () -> resolveBeanDefinitionFromModel(refreshBeanModel, scriptEngineCreator, refreshableScope), counted, failedBeanNames, source);
+                    return;
+                }
+                inFlight.add(Map.entry(refreshBeanModel.beanName(), CompletableFuture.supplyAsync(() -> resolveBeanDefinitionFromModel(refreshBeanModel, scriptEngineCreator, refreshableScope), executor)));
+                // 在途任务达到上限时，等待最早提交的任务完成，再继续读取
+                if (inFlight.size() >= window) collect(inFlight.poll(), counted, failedBeanNames, source);
+            });
+            while (!inFlight.isEmpty()) collect(inFlight.poll(), counted, failedBeanNames, source);
+            if (!failedBeanNames.isEmpty())
+                log.error("{} of {} beanDefinitions from {} were skipped: {}", failedBeanNames.size(), total.get(), source, failedBeanNames);
+            return registered.get();
+        } finally {
+            if (Assert.isNotNull(executor)) executor.shutdownNow();
+        }
+    }
+
+    // 交给 registrar 的同时计数
+    private static Consumer<BeanDefinitionHolder> counting(Consumer<BeanDefinitionHolder> registrar, AtomicInteger registered) {
+        return beanDefinitionHolder -> {
+            registrar.accept(beanDefinitionHolder);
+            registered.incrementAndGet();
+        };
+    }
+
+    // 等待单个编译任务完成，失败时仅记录 beanName；脚本抛出的 Error（如 StackOverflowError、ExceptionInInitializerError）同样只跳过该 Bean，与并行模式（由 join 包装）一致
+    private static void collect(Map.Entry<String, CompletableFuture<BeanDefinitionHolder>> inFlight, Consumer<BeanDefinitionHolder> registrar, List<String> failedBeanNames, String source) {
+        collect(inFlight.getKey(), inFlight.getValue()::join, registrar, failedBeanNames, source);
+    }
+
+    private static void collect(String beanName, Supplier<BeanDefinitionHolder> resolver, Consumer<BeanDefinitionHolder> registrar, List<String> failedBeanNames, String source) {
+        BeanDefinitionHolder beanDefinitionHolder;
+        try {
+            beanDefinitionHolder = resolver.get();
+        } catch (RuntimeException | Error e) {
+            failedBeanNames.add(beanName);
+            log.error("failed to resolve beanDefinition from {}: {}", source, beanName, e instanceof CompletionException ? e.getCause() : e);
+            return;
+        }
+        // 注册失败（如 beanName 冲突）不属于脚本错误，照常抛出
+        log.debug("register beanDefinition from {}, {} => {}", source, beanName, beanDefinitionHolder.getBeanDefinition());
+        registrar.accept(beanDefinitionHolder);
     }
 
     // 根据 RefreshBeanModel 创建 BeanDefinitionHolder
     public static BeanDefinitionHolder resolveBeanDefinitionFromModel(RefreshBeanModel refreshBeanModel, ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
-        var lambdaScript = refreshBeanModel.lambdaScript();
-        var beanName = refreshBeanModel.beanName();
-        // 每个动态类使用唯一的 ClassLoader 加载，用完即抛，防止内存泄露
+        var target = resolveTarget(refreshBeanModel, scriptEngineCreator, refreshableScope);
+        var targetResolver = resolveTargetResolver(refreshBeanModel, scriptEngineCreator, refreshableScope);
+        refreshableScope.recordContentHash(refreshBeanModel.beanName(), refreshBeanModel.contentHash());
+        // 生成 Bean定义：BeanDefinition 仅在首次实例化时交出已编译的目标对象并清除自身的引用，否则目标对象被替换或淘汰后，其 ClassLoader 仍被 BeanDefinition 引用而无法回收
+        var initialTarget = new AtomicReference<>(target);
+        var beanDefinition = BeanDefinitionBuilder.genericBeanDefinition(SAMProxyFactoryBean.class, () -> {
+                    var current = initialTarget.getAndSet(null);
+                    // 再次实例化（正常流程中不会发生）时，按延迟模式重新编译
+                    return Assert.isNull(current)
+                            ? SAMProxyFactoryBean.lazy(() -> resolveTarget(refreshBeanModel, scriptEngineCreator, refreshableScope))
+                            : SAMProxyFactoryBean.evictable(current, targetResolver);
+                })
+                .setScope(refreshableScope.name())
+                .getBeanDefinition();
+        beanDefinition.setAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE, SAM.class);
+        return new BeanDefinitionHolder(beanDefinition, refreshBeanModel.beanName());
+    }
+
+    // 根据 RefreshBeanModel 创建延迟编译的 BeanDefinitionHolder，仅携带原始脚本，首次调用时才编译
+    public static BeanDefinitionHolder resolveLazyBeanDefinitionFromModel(RefreshBeanModel refreshBeanModel, ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
+        var beanDefinition = BeanDefinitionBuilder.genericBeanDefinition(SAMProxyFactoryBean.class, () -> SAMProxyFactoryBean.lazy(() -> resolveTarget(refreshBeanModel, scriptEngineCreator, refreshableScope)))
+                .setScope(refreshableScope.name())
+                .getBeanDefinition();
+        // 显式声明产品类型，按类型查找 Bean 时无需实例化（编译）
+        beanDefinition.setAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE, SAM.class);
+        refreshableScope.recordContentHash(refreshBeanModel.beanName(), refreshBeanModel.contentHash());
+        return new BeanDefinitionHolder(beanDefinition, refreshBeanModel.beanName());
+    }
+
+    // 有界驻留模式下，淘汰后重新编译所用的解析器；未启用有界驻留时为 null
+    public static Supplier<SAM<Object, Object>> resolveTargetResolver(RefreshBeanModel refreshBeanModel, ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
+        return refreshableScope.isBounded() ? () -> resolveTarget(refreshBeanModel, scriptEngineCreator, refreshableScope) : null;
+    }
+
+    // 编译脚本，记录编译耗时，并登记本次创建的 ClassLoader
+    public static SAM<Object, Object> resolveTarget(RefreshBeanModel refreshBeanModel, ScriptEngineCreator scriptEngineCreator, RefreshableScope refreshableScope) {
+        var start = System.nanoTime();
         try (var classLoader = new GroovyClassLoader()) {
-            var scriptEngine = scriptEngineCreator.createScriptEngine(classLoader);
-            var target = scriptEngine.eval(lambdaScript);
-            // 生成 Bean定义
-            var beanDefinition = BeanDefinitionBuilder.genericBeanDefinition(SAMProxyFactoryBean.class)
-                    .addConstructorArgValue(target)
-                    .setScope(refreshableScope.name())
-                    .getBeanDefinition();
-            return new BeanDefinitionHolder(beanDefinition, beanName);
+            var target = evaluate(refreshBeanModel, scriptEngineCreator, classLoader);
+            refreshableScope.recordCompile(refreshBeanModel.beanName(), System.nanoTime() - start);
+            refreshableScope.classLoaderTracker().track(refreshBeanModel.beanName(), classLoader, target);
+            return target;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
-    // 获取 Early JdbcTemplate
-    private static JdbcTemplate resolverEarlyJdbcTemplate(Environment environment) {
+    // 编译脚本，生成 SAM 实现类对象，不登记到任何 Bean：目标对象不可达后清理其 ClassInfo
+    public static SAM<Object, Object> resolveTarget(RefreshBeanModel refreshBeanModel, ScriptEngineCreator scriptEngineCreator) {
+        // 每个动态类使用唯一的 ClassLoader 加载，目标对象被替换、删除后随之回收（须清理 Groovy 的 ClassInfo 缓存，见 ClassLoaderTracker）
+        try (var classLoader = new GroovyClassLoader()) {
+            var target = evaluate(refreshBeanModel, scriptEngineCreator, classLoader);
+            ClassLoaderTracker.releaseWhenUnreachable(target);
+            return target;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SAM<Object, Object> evaluate(RefreshBeanModel refreshBeanModel, ScriptEngineCreator scriptEngineCreator, ClassLoader classLoader) throws ScriptException {
+        // 按 Bean 的编译选项创建引擎：静态编译的脚本，类型错误在此处即抛出，而非首次调用时
+        var scriptEngine = scriptEngineCreator.createScriptEngine(classLoader, refreshBeanModel);
+        try (var ignored = ScriptClassCache.compiling(refreshBeanModel)) {
+            return (SAM<Object, Object>) scriptEngine.eval(refreshBeanModel.lambdaScript());
+        }
+    }
+
+    // 启动期编译线程，由当前线程创建，继承其 ContextClassLoader
+    private static ThreadFactory startupThreadFactory() {
+        var counter = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, "dynamic-bean-startup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // 获取 Early DataSource：与主容器相同的 Hikari 连接池，连接参数取自 spring.datasource，连接池参数取自 spring.datasource.hikari
+    private static HikariDataSource resolverEarlyDataSource(Environment environment) {
         log.debug("Starting to access the early datasource.");
-        var url = environment.getProperty("spring.datasource.url");
-        var username = environment.getProperty("spring.datasource.username");
-        var password = environment.getProperty("spring.datasource.password");
-        var dataSource = new DriverManagerDataSource(url, username, password);
-        return new JdbcTemplate(dataSource);
+        var dataSource = Binder.get(environment)
+                .bind("spring.datasource.hikari", HikariDataSource.class)
+                .orElseGet(HikariDataSource::new);
+        dataSource.setJdbcUrl(environment.getProperty("spring.datasource.url"));
+        dataSource.setUsername(environment.getProperty("spring.datasource.username"));
+        dataSource.setPassword(environment.getProperty("spring.datasource.password"));
+        var driverClassName = environment.getProperty("spring.datasource.driver-class-name");
+        if (Assert.strNotBlank(driverClassName)) dataSource.setDriverClassName(driverClassName);
+        return dataSource;
     }
 
     // 获取 Early RedissonClient
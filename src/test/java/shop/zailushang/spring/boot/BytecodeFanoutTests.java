@@ -0,0 +1,93 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.framework.ScriptClassCache;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.pubsub.redis.BytecodeFanout;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// 单点编译：两个节点（各自的容器、RefreshableScope 及字节码缓存）运行于同一个 JVM，以直接投递消息代替 redis channel
+// 写入节点编译一次，其他节点由收到的字节码定义类，不再编译；被篡改或内容摘要不符的消息不被采用，按原流程在本地编译；编译失败的脚本在写入前即被拒绝
+public class BytecodeFanoutTests {
+
+    private static final String SCRIPT = "return { param -> param.replace('PHP', 'Java') } as shop.zailushang.spring.boot.framework.SAM";
+
+    private static final String ILL_TYPED_SCRIPT = "return { String param -> param.noSuchMethod() } as shop.zailushang.spring.boot.framework.SAM<String, String>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compileOnceDefineEverywhere() throws Exception {
+        var writer = new Node(tempDir.resolve("writer"));
+        var reader = new Node(tempDir.resolve("reader"));
+        List<BytecodeFanout> channel = List.of(writer.bytecodeFanout, reader.bytecodeFanout);
+
+        var refreshBeanModel = new RefreshBeanModel(1L, "fanout-task", SCRIPT, null);
+        var message = writer.bytecodeFanout.compile(refreshBeanModel);
+        channel.forEach(bytecodeFanout -> bytecodeFanout.onMessage("stand-in", message));
+
+        // 两个节点随后处理各自收到的刷新事件
+        for (var node : List.of(writer, reader)) {
+            node.eventProcessor.processEvent(RefreshBeanEvent.addWith(refreshBeanModel));
+            var sam = (SAM<Object, Object>) node.applicationContext.getBean("fanout-task", SAM.class);
+            Assertions.assertEquals("Java is the best language", sam.execute("PHP is the best language"));
+        }
+        Assertions.assertEquals(1, writer.scriptClassCache.missCount());
+        Assertions.assertEquals(0, reader.scriptClassCache.missCount());
+        Assertions.assertEquals(1, reader.scriptClassCache.hitCount());
+
+        // 被篡改的消息被拒绝，读取节点在本地编译
+        var updated = new RefreshBeanModel(1L, "fanout-task", SCRIPT.replace("Java", "Kotlin"), null);
+        var tampered = writer.bytecodeFanout.compile(updated);
+        tampered[tampered.length / 2] ^= 1;
+        Assertions.assertThrows(Exception.class, () -> BytecodeFanout.decode(tampered));
+        reader.bytecodeFanout.onMessage("stand-in", tampered);
+        reader.eventProcessor.processEvent(RefreshBeanEvent.updateWith(refreshBeanModel, updated));
+        Assertions.assertEquals(1, reader.scriptClassCache.missCount());
+
+        // 内容摘要与随后应用的记录不一致的字节码不被采用，读取节点在本地编译
+        var rewritten = new RefreshBeanModel(1L, "fanout-task", SCRIPT.replace("Java", "Go"), null);
+        var bytecode = BytecodeFanout.decode(writer.bytecodeFanout.compile(rewritten));
+        reader.bytecodeFanout.onMessage("stand-in", BytecodeFanout.encode(bytecode.nodeId(), bytecode.beanName(), bytecode.contentHash() + 1, bytecode.classes()));
+        reader.eventProcessor.processEvent(RefreshBeanEvent.updateWith(updated, rewritten));
+        Assertions.assertEquals(2, reader.scriptClassCache.missCount());
+        Assertions.assertEquals(1, reader.scriptClassCache.hitCount());
+
+        // 编译失败时拒绝写入，不产生任何消息
+        var illTyped = new RefreshBeanModel(1L, "fanout-task", ILL_TYPED_SCRIPT, null, true, null);
+        Assertions.assertThrows(RuntimeException.class, () -> writer.bytecodeFanout.compile(illTyped));
+
+        writer.applicationContext.close();
+        reader.applicationContext.close();
+    }
+
+    // 一个节点：独立的容器、作用域、字节码缓存及原生引擎
+    private static final class Node {
+        private final GenericApplicationContext applicationContext = new GenericApplicationContext();
+        private final ScriptClassCache scriptClassCache;
+        private final DefaultEventProcessor eventProcessor;
+        private final BytecodeFanout bytecodeFanout;
+
+        private Node(Path cacheDirectory) {
+            var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+            applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+            applicationContext.refresh();
+            this.scriptClassCache = new ScriptClassCache(cacheDirectory);
+            var scriptEngineCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), scriptClassCache);
+            this.eventProcessor = new DefaultEventProcessor(applicationContext.getDefaultListableBeanFactory(), refreshableScope, scriptEngineCreator);
+            this.bytecodeFanout = new BytecodeFanout(scriptClassCache, scriptEngineCreator);
+        }
+    }
+}
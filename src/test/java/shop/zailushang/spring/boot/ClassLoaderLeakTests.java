@@ -0,0 +1,71 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.ClassLoaderTracker;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+// 反复更新同一个 Bean 后，被替换的脚本 ClassLoader 应全部被回收，删除后不再有存活的 ClassLoader
+public class ClassLoaderLeakTests {
+
+    private static final String BEAN_NAME = "leak-test";
+
+    private static final int UPDATES = 500;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatedUpdatesDoNotLeak() throws InterruptedException {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        applicationContext.refresh();
+        var scriptEngineCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+        var eventProcessor = new DefaultEventProcessor(applicationContext.getDefaultListableBeanFactory(), refreshableScope, scriptEngineCreator);
+
+        var current = model(0);
+        var beanDefinitionHolder = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModel(current, scriptEngineCreator, refreshableScope);
+        applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+        var sam = (SAM<Object, Object>) applicationContext.getBean(BEAN_NAME, SAM.class);
+        Assertions.assertEquals("zailushang0", sam.execute("zailushang"));
+
+        for (var i = 1; i <= UPDATES; i++) {
+            var next = model(i);
+            eventProcessor.processEvent(RefreshBeanEvent.updateWith(current, next));
+            // 每个版本都被调用过，Groovy 已为其脚本类建立 ClassInfo
+            Assertions.assertEquals("zailushang" + i, sam.execute("zailushang"));
+            current = next;
+        }
+
+        var report = collect(refreshableScope.classLoaderTracker());
+        Assertions.assertEquals(0, report.retired());
+        Assertions.assertEquals(1, report.live());
+
+        eventProcessor.processEvent(RefreshBeanEvent.deleteWith(RefreshBeanModel.withBeanName(BEAN_NAME)));
+        sam = null;
+        report = collect(refreshableScope.classLoaderTracker());
+        Assertions.assertEquals(0, report.live());
+        applicationContext.close();
+    }
+
+    // 多次 GC，直到应卸载的 ClassLoader 全部被回收或超出次数
+    private static ClassLoaderTracker.Report collect(ClassLoaderTracker classLoaderTracker) throws InterruptedException {
+        var report = classLoaderTracker.report();
+        for (var i = 0; i < 20 && report.retired() > 0; i++) {
+            System.gc();
+            Thread.sleep(100);
+            report = classLoaderTracker.report();
+        }
+        return report;
+    }
+
+    private static RefreshBeanModel model(int version) {
+        return new RefreshBeanModel(1L, BEAN_NAME, "return { param -> param + '" + version + "' } as shop.zailushang.spring.boot.framework.SAM", null);
+    }
+}
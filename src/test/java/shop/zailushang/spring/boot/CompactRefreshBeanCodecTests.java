@@ -0,0 +1,53 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.redis.CompactRefreshBeanCodec;
+import shop.zailushang.spring.boot.pubsub.redis.CompactRefreshBeanStore;
+
+import java.io.IOException;
+
+// compact 布局：二进制记录往返一致，长脚本压缩存储，损坏的记录在解码时报错；内容摘要与描述无关
+public class CompactRefreshBeanCodecTests {
+
+    private static final String SCRIPT = "return { param -> param.replace('PHP', 'Java') } as shop.zailushang.spring.boot.framework.SAM";
+
+    @Test
+    void roundTrip() throws Exception {
+        var encoder = CompactRefreshBeanCodec.INSTANCE.getMapValueEncoder();
+        var decoder = CompactRefreshBeanCodec.INSTANCE.getMapValueDecoder();
+        var small = new RefreshBeanModel(1L, "compact:small", SCRIPT, null, false, RefreshBeanModel.GROOVY);
+        var large = new RefreshBeanModel(null, "compact-large", (SCRIPT + "\n").repeat(50), "压缩", true, RefreshBeanModel.GROOVY);
+        for (var refreshBeanModel : new RefreshBeanModel[]{small, large}) {
+            var encoded = encoder.encode(refreshBeanModel);
+            try {
+                Assertions.assertEquals(refreshBeanModel, decoder.decode(encoded, null));
+            } finally {
+                encoded.release();
+            }
+        }
+
+        var encoded = encoder.encode(large);
+        try {
+            Assertions.assertTrue(encoded.readableBytes() < large.lambdaScript().length() / 4);
+            encoded.setByte(encoded.writerIndex() - 3, encoded.getByte(encoded.writerIndex() - 3) ^ 0x55);
+            Assertions.assertThrows(IOException.class, () -> decoder.decode(encoded, null));
+        } finally {
+            encoded.release();
+        }
+    }
+
+    @Test
+    void contentHashAndChange() {
+        var refreshBeanModel = new RefreshBeanModel(1L, "compact-test", SCRIPT, "before", false, RefreshBeanModel.GROOVY);
+        var contentHash = refreshBeanModel.contentHash();
+        Assertions.assertEquals(contentHash, new RefreshBeanModel(1L, "compact-test", SCRIPT, "after", false, RefreshBeanModel.GROOVY).contentHash());
+        Assertions.assertNotEquals(contentHash, new RefreshBeanModel(1L, "compact-test", SCRIPT, "before", true, RefreshBeanModel.GROOVY).contentHash());
+
+        var upsert = CompactRefreshBeanStore.Change.parse(CompactRefreshBeanStore.Change.upsert("a:b", contentHash).encode());
+        Assertions.assertEquals("a:b", upsert.beanName());
+        Assertions.assertEquals(contentHash, upsert.contentHash());
+        Assertions.assertTrue(CompactRefreshBeanStore.Change.parse(CompactRefreshBeanStore.Change.remove("a:b").encode()).removed());
+    }
+}
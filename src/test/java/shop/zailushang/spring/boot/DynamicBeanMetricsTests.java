@@ -0,0 +1,58 @@
+package shop.zailushang.spring.boot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.MicrometerDynamicBeanMetrics;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+// 使用 SimpleMeterRegistry 校验动态 Bean 指标，无需 mysql、redis
+public class DynamicBeanMetricsTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordMetrics() {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        applicationContext.refresh();
+        var scriptEngineCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+
+        // 指标绑定前编译（模拟启动期），绑定时回放
+        var before = new RefreshBeanModel(1L, "run-metrics", "return { param -> param + '1' } as shop.zailushang.spring.boot.framework.SAM", null);
+        var beanDefinitionHolder = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModel(before, scriptEngineCreator, refreshableScope);
+        applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+
+        var meterRegistry = new SimpleMeterRegistry();
+        refreshableScope.bindMetrics(new MicrometerDynamicBeanMetrics(meterRegistry, refreshableScope));
+
+        var sam = (SAM<Object, Object>) applicationContext.getBean("run-metrics", SAM.class);
+        for (var i = 0; i < 3; i++) sam.execute("zailushang");
+
+        var after = new RefreshBeanModel(1L, "run-metrics", "return { param -> param + '2' } as shop.zailushang.spring.boot.framework.SAM", null);
+        new DefaultEventProcessor(applicationContext.getDefaultListableBeanFactory(), refreshableScope, scriptEngineCreator)
+                .processEvent(RefreshBeanEvent.updateWith(before, after));
+        Assertions.assertEquals("zailushang2", sam.execute("zailushang"));
+
+        Assertions.assertEquals(4, meterRegistry.get("dynamic.bean.execution").tag("bean", "run-metrics").timer().count());
+        Assertions.assertEquals(2, meterRegistry.get("dynamic.bean.compile").tag("bean", "run-metrics").timer().count());
+        Assertions.assertEquals(1, meterRegistry.get("dynamic.bean.event").tag("type", "update").timer().count());
+        Assertions.assertEquals(1, meterRegistry.get("dynamic.bean.scope.size").gauge().value());
+        // 默认不发布按 Bean 的百分位直方图
+        Assertions.assertEquals(0, meterRegistry.get("dynamic.bean.compile").tag("bean", "run-metrics").timer().takeSnapshot().histogramCounts().length);
+
+        // 删除后，该 Bean 的调用计时与编译计时均被移除
+        new DefaultEventProcessor(applicationContext.getDefaultListableBeanFactory(), refreshableScope, scriptEngineCreator)
+                .processEvent(RefreshBeanEvent.deleteWith(after));
+        Assertions.assertTrue(meterRegistry.find("dynamic.bean.execution").tag("bean", "run-metrics").meters().isEmpty());
+        Assertions.assertTrue(meterRegistry.find("dynamic.bean.compile").tag("bean", "run-metrics").meters().isEmpty());
+        applicationContext.close();
+    }
+}
@@ -0,0 +1,70 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 启动期连接的移交：顶替同类型 Bean 的定义，照常经过 BeanPostProcessor，随容器关闭释放；不共享时立即释放，无需 mysql、redis
+public class EarlyResourceHandOverTests {
+
+    @Test
+    void handOverThroughLifecycle() {
+        var applicationContext = new GenericApplicationContext();
+        var created = new AtomicInteger();
+        applicationContext.registerBeanDefinition("resource", BeanDefinitionBuilder.genericBeanDefinition(Resource.class, () -> {
+            created.incrementAndGet();
+            return new Resource();
+        }).getBeanDefinition());
+        var postProcessed = new ArrayList<Object>();
+        applicationContext.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof Resource) postProcessed.add(bean);
+                return bean;
+            }
+        });
+
+        var early = new Resource();
+        RefreshableBeanDefinitionResolver.handOver(applicationContext.getDefaultListableBeanFactory(), Resource.class, early, early::close, true);
+        applicationContext.refresh();
+
+        Assertions.assertSame(early, applicationContext.getBean(Resource.class));
+        Assertions.assertSame(early, applicationContext.getBean("resource"));
+        Assertions.assertEquals(1, postProcessed.size());
+        Assertions.assertSame(early, postProcessed.getFirst());
+        Assertions.assertEquals(0, created.get());
+        Assertions.assertFalse(early.closed);
+
+        applicationContext.close();
+        Assertions.assertTrue(early.closed);
+    }
+
+    @Test
+    void releaseWhenNotShared() {
+        var applicationContext = new GenericApplicationContext();
+        applicationContext.registerBeanDefinition("resource", BeanDefinitionBuilder.genericBeanDefinition(Resource.class, Resource::new).getBeanDefinition());
+
+        var early = new Resource();
+        RefreshableBeanDefinitionResolver.handOver(applicationContext.getDefaultListableBeanFactory(), Resource.class, early, early::close, false);
+        Assertions.assertTrue(early.closed);
+
+        applicationContext.refresh();
+        Assertions.assertNotSame(early, applicationContext.getBean(Resource.class));
+        applicationContext.close();
+    }
+
+    public static class Resource {
+
+        private volatile boolean closed;
+
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// 原地替换：替换时正在执行的调用在旧目标对象上执行完毕，替换后的调用立即使用新目标对象，期间 Bean 始终可用，无需 mysql、redis
+public class HotSwapTests {
+
+    // param 为 [已进入, 放行]：进入后等待放行
+    private static final String BLOCKING_SCRIPT = "return { param -> param[0].countDown(); param[1].await(); 'v1' } as shop.zailushang.spring.boot.framework.SAM";
+
+    private static final String UPDATED_SCRIPT = "return { param -> 'v2' } as shop.zailushang.spring.boot.framework.SAM";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void swapWhileCallsInFlight() throws Exception {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        var scriptEngineCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+        var before = new RefreshBeanModel(1L, "swap-task", BLOCKING_SCRIPT, null);
+        var beanDefinitionHolder = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModel(before, scriptEngineCreator, refreshableScope);
+        applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+        applicationContext.refresh();
+
+        // 调用方长期持有的委托对象
+        var sam = (SAM<Object, Object>) applicationContext.getBean("swap-task", SAM.class);
+        var entered = new CountDownLatch(4);
+        var release = new CountDownLatch(1);
+        var inFlight = List.of(
+                CompletableFuture.supplyAsync(() -> sam.execute(List.of(entered, release))),
+                CompletableFuture.supplyAsync(() -> sam.execute(List.of(entered, release))),
+                CompletableFuture.supplyAsync(() -> sam.execute(List.of(entered, release))),
+                CompletableFuture.supplyAsync(() -> sam.execute(List.of(entered, release)))
+        );
+        Assertions.assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+        var after = new RefreshBeanModel(1L, "swap-task", UPDATED_SCRIPT, null);
+        new DefaultEventProcessor(applicationContext.getDefaultListableBeanFactory(), refreshableScope, scriptEngineCreator)
+                .processEvent(RefreshBeanEvent.updateWith(before, after));
+
+        // 替换后的调用使用新目标对象，旧调用仍在执行
+        Assertions.assertEquals("v2", sam.execute(List.of(entered, release)));
+        Assertions.assertEquals("v2", ((SAM<Object, Object>) applicationContext.getBean("swap-task", SAM.class)).execute(null));
+        Assertions.assertSame(sam, applicationContext.getBean("swap-task", SAM.class));
+        inFlight.forEach(future -> Assertions.assertFalse(future.isDone()));
+
+        // 放行后，旧调用在旧目标对象上执行完毕
+        release.countDown();
+        for (var future : inFlight) Assertions.assertEquals("v1", future.get(10, TimeUnit.SECONDS));
+        applicationContext.close();
+    }
+}
@@ -0,0 +1,110 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.JavaSourceScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.PolyglotScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+// java 语言：源码经 javac 编译后与 Groovy 脚本一样注册、刷新，可在两种语言间切换，编译错误在刷新时抛出
+public class JavaSourceTests {
+
+    private static final String BEAN_NAME = "java-test";
+
+    private static final String JAVA_SOURCE = """
+            package demo;
+
+            import shop.zailushang.spring.boot.framework.SAMSource;
+
+            public class JavaTask extends SAMSource<String, String> {
+                @Override
+                public String execute(String param) {
+                    itl.set(param);
+                    return param.replace("PHP", "Java");
+                }
+            }
+            """;
+
+    private static final String BROKEN_JAVA_SOURCE = """
+            import shop.zailushang.spring.boot.framework.SAM;
+
+            public class BrokenTask implements SAM<String, String> {
+                @Override
+                public String execute(String param) {
+                    return param.noSuchMethod();
+                }
+            }
+            """;
+
+    // 注释、字符串中的 class 声明及非 public 的辅助类不影响入口类的确定
+    private static final String DECOY_JAVA_SOURCE = """
+            // public class Decoy implements SAM<String, String> {}
+            import shop.zailushang.spring.boot.framework.SAM;
+
+            class Helper {
+                static final String SUFFIX = " public class Other {}";
+            }
+
+            public class RealTask implements SAM<String, String> {
+                @Override
+                public String execute(String param) {
+                    return param + Helper.SUFFIX;
+                }
+            }
+            """;
+
+    private static final String GROOVY_SCRIPT = "return { param -> param.replace('PHP', 'Groovy') } as shop.zailushang.spring.boot.framework.SAM";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compileAndSwitchLanguage() {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        applicationContext.refresh();
+        var inheritableThreadLocal = new InheritableThreadLocal<>();
+        var scriptEngineCreator = new PolyglotScriptEngineCreator(
+                new NativeGroovyScriptEngineCreator(applicationContext, inheritableThreadLocal, null),
+                new JavaSourceScriptEngineCreator(applicationContext, inheritableThreadLocal, null)
+        );
+        var eventProcessor = new DefaultEventProcessor(applicationContext.getDefaultListableBeanFactory(), refreshableScope, scriptEngineCreator);
+
+        var current = new RefreshBeanModel(1L, BEAN_NAME, JAVA_SOURCE, null, null, RefreshBeanModel.JAVA);
+        var beanDefinitionHolder = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModel(current, scriptEngineCreator, refreshableScope);
+        applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+        var sam = (SAM<Object, Object>) applicationContext.getBean(BEAN_NAME, SAM.class);
+        Assertions.assertEquals("Java is the best language", sam.execute("PHP is the best language"));
+        // itl 作为 SAMSource 的字段注入
+        Assertions.assertEquals("PHP is the best language", inheritableThreadLocal.get());
+
+        // 编译错误：刷新失败，旧的目标对象继续生效
+        var broken = new RefreshBeanModel(1L, BEAN_NAME, BROKEN_JAVA_SOURCE, null, null, RefreshBeanModel.JAVA);
+        var updateEvent = RefreshBeanEvent.updateWith(current, broken);
+        Assertions.assertThrows(RuntimeException.class, () -> eventProcessor.processEvent(updateEvent));
+        Assertions.assertEquals("Java is the best language", sam.execute("PHP is the best language"));
+
+        // 切换为 groovy
+        var groovy = new RefreshBeanModel(1L, BEAN_NAME, GROOVY_SCRIPT, null);
+        eventProcessor.processEvent(RefreshBeanEvent.updateWith(current, groovy));
+        Assertions.assertEquals("Groovy is the best language", sam.execute("PHP is the best language"));
+        applicationContext.close();
+    }
+
+    @Test
+    void classNameFromCompilerOutput() {
+        var applicationContext = new GenericApplicationContext();
+        applicationContext.refresh();
+        var scriptEngineCreator = new JavaSourceScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+        var sam = RefreshableBeanDefinitionResolver.resolveTarget(new RefreshBeanModel(1L, BEAN_NAME, DECOY_JAVA_SOURCE, null, null, RefreshBeanModel.JAVA), scriptEngineCreator);
+        Assertions.assertEquals("RealTask", sam.getClass().getName());
+        Assertions.assertEquals("x public class Other {}", sam.execute("x"));
+        applicationContext.close();
+    }
+}
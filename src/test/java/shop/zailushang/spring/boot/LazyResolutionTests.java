@@ -0,0 +1,69 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.framework.ScriptEngineCreator;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 延迟模式：并发的首次调用只触发一次编译（single-flight），无需 mysql、redis
+public class LazyResolutionTests {
+
+    private static final int THREADS = 16;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentFirstCallCompilesOnce() throws Exception {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        var nativeCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+        // 统计编译次数，并放慢编译以扩大并发窗口
+        var compiles = new AtomicInteger();
+        ScriptEngineCreator scriptEngineCreator = classLoader -> {
+            compiles.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return nativeCreator.createScriptEngine(classLoader);
+        };
+
+        var refreshBeanModel = new RefreshBeanModel(1L, "lazy-task", "return { param -> param + '!' } as shop.zailushang.spring.boot.framework.SAM", null);
+        var beanDefinitionHolder = RefreshableBeanDefinitionResolver.resolveLazyBeanDefinitionFromModel(refreshBeanModel, scriptEngineCreator, refreshableScope);
+        applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+        applicationContext.refresh();
+        Assertions.assertEquals(0, compiles.get());
+
+        var barrier = new CyclicBarrier(THREADS);
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            var futures = new ArrayList<CompletableFuture<Object>>();
+            for (var i = 0; i < THREADS; i++) {
+                var param = "call-" + i;
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        barrier.await();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                    return ((SAM<Object, Object>) applicationContext.getBean("lazy-task", SAM.class)).execute(param);
+                }, executor));
+            }
+            for (var i = 0; i < THREADS; i++) Assertions.assertEquals("call-" + i + "!", futures.get(i).get());
+        }
+        Assertions.assertEquals(1, compiles.get());
+        applicationContext.close();
+    }
+}
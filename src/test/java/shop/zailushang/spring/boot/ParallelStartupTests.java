@@ -0,0 +1,85 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// 启动期批量编译：并发与顺序模式的结果一致，按读取顺序排列，单个脚本失败（含抛出 Error）时仅跳过该 Bean，无需 mysql、redis
+public class ParallelStartupTests {
+
+    private static final int BEAN_COUNT = 40;
+
+    private static final int BROKEN = 17;
+
+    // 脚本求值时抛出 Error
+    private static final int THROWING_ERROR = 23;
+
+    @Test
+    void sequentialAndParallel() {
+        resolveInOrderAndSkipFailures(1);
+        resolveInOrderAndSkipFailures(4);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resolveInOrderAndSkipFailures(int parallelism) {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        var scriptEngineCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+        var environment = new MockEnvironment().withProperty("dynamic-bean.startup.parallelism", String.valueOf(parallelism));
+
+        var refreshBeanStream = IntStream.range(0, BEAN_COUNT)
+                .mapToObj(i -> new RefreshBeanModel((long) i, "startup-" + i, switch (i) {
+                    case BROKEN -> "return { param -> ";
+                    case THROWING_ERROR -> "throw new AssertionError('broken')";
+                    default -> "return { param -> param + '" + i + "' } as shop.zailushang.spring.boot.framework.SAM";
+                }, null));
+        var beanDefinitionHolders = new ArrayList<BeanDefinitionHolder>();
+        var registered = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModels(refreshBeanStream, environment, scriptEngineCreator, refreshableScope, "test", beanDefinitionHolders::add);
+
+        var expected = IntStream.range(0, BEAN_COUNT).filter(i -> i != BROKEN && i != THROWING_ERROR).mapToObj(i -> "startup-" + i).toList();
+        Assertions.assertEquals(expected.size(), registered);
+        Assertions.assertEquals(expected, beanDefinitionHolders.stream().map(BeanDefinitionHolder::getBeanName).toList());
+
+        beanDefinitionHolders.forEach(beanDefinitionHolder -> applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition()));
+        applicationContext.refresh();
+        var sam = (SAM<Object, Object>) applicationContext.getBean("startup-39", SAM.class);
+        Assertions.assertEquals("x39", sam.execute("x"));
+        applicationContext.close();
+    }
+
+    // 流式注册：每个 BeanDefinition 交给 registrar 时，已读取但尚未注册的记录不超过在途窗口（parallelism 的两倍）
+    @Test
+    void windowedRegistration() {
+        var parallelism = 3;
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        var scriptEngineCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+        var environment = new MockEnvironment().withProperty("dynamic-bean.startup.parallelism", String.valueOf(parallelism));
+
+        var read = new AtomicInteger();
+        var maxAhead = new AtomicInteger();
+        var registered = new AtomicInteger();
+        var refreshBeanStream = IntStream.range(0, BEAN_COUNT)
+                .mapToObj(i -> new RefreshBeanModel((long) i, "window-" + i, "return { param -> param } as shop.zailushang.spring.boot.framework.SAM", null))
+                .peek(refreshBeanModel -> read.incrementAndGet());
+        var total = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModels(refreshBeanStream, environment, scriptEngineCreator, refreshableScope, "test", beanDefinitionHolder -> {
+            Assertions.assertEquals("window-" + registered.get(), beanDefinitionHolder.getBeanName());
+            maxAhead.accumulateAndGet(read.get() - registered.incrementAndGet(), Math::max);
+        });
+
+        Assertions.assertEquals(BEAN_COUNT, total);
+        Assertions.assertTrue(maxAhead.get() <= parallelism * 2, "read ahead of registration: " + maxAhead.get());
+    }
+}
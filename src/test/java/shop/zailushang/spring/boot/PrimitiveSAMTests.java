@@ -0,0 +1,78 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.IntPredicateSAM;
+import shop.zailushang.spring.boot.framework.JavaSourceScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.PolyglotScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+// 原始类型视图：随刷新生效，目标对象在特化接口与泛型 SAM 之间切换时结果一致
+public class PrimitiveSAMTests {
+
+    private static final String BEAN_NAME = "primitive-test";
+
+    private static final String JAVA_SOURCE = """
+            public class MultipleOfThree implements shop.zailushang.spring.boot.framework.IntPredicateSAM {
+                @Override
+                public boolean test(int param) {
+                    return param % 3 == 0;
+                }
+            }
+            """;
+
+    private static final String GROOVY_LAMBDA = "shop.zailushang.spring.boot.framework.IntPredicateSAM sam = (int param) -> param % 5 == 0; return sam";
+
+    private static final String GROOVY_GENERIC = "return { param -> param % 7 == 0 } as shop.zailushang.spring.boot.framework.SAM";
+
+    // Groovy 真值为 true 的非布尔返回值
+    private static final String GROOVY_TRUTHY = "return { param -> 'yes' } as shop.zailushang.spring.boot.framework.SAM";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void viewFollowsRefresh() {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        applicationContext.refresh();
+        var scriptEngineCreator = new PolyglotScriptEngineCreator(
+                new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null),
+                new JavaSourceScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null)
+        );
+        var eventProcessor = new DefaultEventProcessor(applicationContext.getDefaultListableBeanFactory(), refreshableScope, scriptEngineCreator);
+
+        var current = new RefreshBeanModel(1L, BEAN_NAME, JAVA_SOURCE, null, null, RefreshBeanModel.JAVA);
+        var beanDefinitionHolder = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModel(current, scriptEngineCreator, refreshableScope);
+        applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+        var sam = (SAM<Object, Object>) applicationContext.getBean(BEAN_NAME, SAM.class);
+        var predicate = IntPredicateSAM.of(sam);
+        Assertions.assertTrue(predicate.test(9));
+        Assertions.assertFalse(predicate.test(10));
+        // 泛型调用方不受影响
+        Assertions.assertEquals(true, sam.execute(9));
+
+        var lambda = new RefreshBeanModel(1L, BEAN_NAME, GROOVY_LAMBDA, null, true, RefreshBeanModel.GROOVY);
+        eventProcessor.processEvent(RefreshBeanEvent.updateWith(current, lambda));
+        Assertions.assertTrue(predicate.test(10));
+        Assertions.assertFalse(predicate.negate().test(10));
+
+        // 目标对象不再是特化接口时，视图经 execute 装箱调用
+        var generic = new RefreshBeanModel(1L, BEAN_NAME, GROOVY_GENERIC, null);
+        eventProcessor.processEvent(RefreshBeanEvent.updateWith(lambda, generic));
+        Assertions.assertTrue(predicate.test(14));
+        Assertions.assertFalse(predicate.test(10));
+
+        // 返回值不是布尔值时明确报错，而不是按 Groovy 真值转换或抛出 ClassCastException
+        var truthy = new RefreshBeanModel(1L, BEAN_NAME, GROOVY_TRUTHY, null);
+        eventProcessor.processEvent(RefreshBeanEvent.updateWith(generic, truthy));
+        Assertions.assertThrows(IllegalStateException.class, () -> predicate.test(1));
+        applicationContext.close();
+    }
+}
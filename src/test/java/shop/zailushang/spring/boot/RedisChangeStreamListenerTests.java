@@ -0,0 +1,96 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.StreamMessageId;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanBatchEvent;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.pubsub.redis.RedisChangeStreamListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// 变更日志的批次按 beanName 合并为净变更，仅拉取一次最新记录，无需 redis
+public class RedisChangeStreamListenerTests {
+
+    @Test
+    void coalescePerBean() {
+        var b = new RefreshBeanModel(2L, "b", "script-b2", null);
+        var c = new RefreshBeanModel(3L, "c", "script-c", null);
+        var d = new RefreshBeanModel(4L, "d", "script-d", null);
+        var records = Map.of("b", b, "c", c, "d", d);
+        var fetched = new ArrayList<Set<String>>();
+        var submitted = new ArrayList<RefreshBeanBatchEvent>();
+        // d 的内容摘要与本节点已应用的一致
+        var appliedHashes = Map.of("d", d.contentHash());
+        var redisChangeStreamListener = new RedisChangeStreamListener(
+                null,
+                refreshBeanBatchEvent -> {
+                    submitted.add(refreshBeanBatchEvent);
+                    return CompletableFuture.completedFuture(null);
+                },
+                appliedHashes,
+                "group",
+                (redissonClient, beanNames) -> {
+                    fetched.add(beanNames);
+                    var result = new HashMap<String, RefreshBeanModel>();
+                    beanNames.stream().filter(records::containsKey).forEach(beanName -> result.put(beanName, records.get(beanName)));
+                    return result;
+                },
+                100,
+                Duration.ofSeconds(1),
+                3,
+                false
+        );
+
+        var entries = new LinkedHashMap<StreamMessageId, Map<String, String>>();
+        // UPSERT + UPSERT + DELETE => DEL，不拉取
+        entries.put(new StreamMessageId(1000, 0), upsert("a", 1));
+        entries.put(new StreamMessageId(1000, 1), upsert("a", 2));
+        entries.put(new StreamMessageId(1001, 0), delete("a"));
+        // UPSERT + UPSERT => 以最新记录更新，版本号取最后一个条目
+        entries.put(new StreamMessageId(1001, 1), upsert("b", 1));
+        entries.put(new StreamMessageId(1002, 0), upsert("b", 2));
+        // DELETE + UPSERT => 以最新记录更新
+        entries.put(new StreamMessageId(1002, 1), delete("c"));
+        entries.put(new StreamMessageId(1003, 0), upsert("c", 3));
+        // 内容摘要未变化 => 跳过
+        entries.put(new StreamMessageId(1003, 1), upsert("d", 4));
+        // 记录已不存在 => DEL
+        entries.put(new StreamMessageId(1004, 0), upsert("e", 5));
+
+        Assertions.assertTrue(redisChangeStreamListener.processEntries(entries).isDone());
+        Assertions.assertEquals(List.of(Set.of("b", "c", "d", "e")), fetched);
+        Assertions.assertEquals(1, submitted.size());
+        var events = submitted.getFirst().getSource();
+        Assertions.assertEquals(List.of("a", "b", "c", "e"), events.stream().map(RefreshBeanEvent::beanName).toList());
+        Assertions.assertEquals(List.of("del", "update", "update", "del"), events.stream().map(RefreshBeanEvent::typeName).toList());
+        Assertions.assertEquals(b, events.get(1).getSource().get(RefreshBeanEvent.EventType.ADD));
+        Assertions.assertEquals(c, events.get(2).getSource().get(RefreshBeanEvent.EventType.ADD));
+        Assertions.assertEquals(1002L << 16, events.get(1).getVersion());
+        // 事件时间取批次中最早一条变更的写入时间
+        Assertions.assertEquals(1000L, submitted.getFirst().getTimestamp());
+
+        // 批次内无净变更时不提交
+        var unchanged = new LinkedHashMap<StreamMessageId, Map<String, String>>();
+        unchanged.put(new StreamMessageId(1005, 0), upsert("d", 4));
+        Assertions.assertTrue(redisChangeStreamListener.processEntries(unchanged).isDone());
+        Assertions.assertEquals(1, submitted.size());
+    }
+
+    private static Map<String, String> upsert(String beanName, long contentHash) {
+        return Map.of("bean", beanName, "hash", HexFormat.of().toHexDigits(contentHash));
+    }
+
+    private static Map<String, String> delete(String beanName) {
+        return Map.of("bean", beanName, "hash", "-");
+    }
+}
@@ -8,6 +8,7 @@ import org.redisson.client.codec.StringCodec;
 import org.redisson.config.Config;
 import shop.zailushang.spring.boot.model.RefreshBeanModel;
 import shop.zailushang.spring.boot.pubsub.redis.RedisConst;
+import shop.zailushang.spring.boot.pubsub.redis.RefreshBeanModelCodec;
 import shop.zailushang.spring.boot.util.Assert;
 
 import java.util.List;
@@ -34,9 +35,9 @@ public class RedisTestDataInit {
         if (Assert.strNotBlank(password)) singleServerConfig.setPassword(password);
         var redissonClient = Redisson.create(config);
         try {
-            var rMapCache = redissonClient.<String, String>getMapCache(RedisConst.REFRESH_BEAN_KEY, StringCodec.INSTANCE);
+            var rMapCache = redissonClient.<String, RefreshBeanModel>getMapCache(RedisConst.REFRESH_BEAN_KEY, RefreshBeanModelCodec.INSTANCE);
             rMapCache.clear();
-            refreshBeanList.forEach(refreshBeanModel -> rMapCache.fastPut(refreshBeanModel.beanName(), refreshBeanModel.toJson()));
+            refreshBeanList.forEach(refreshBeanModel -> rMapCache.fastPut(refreshBeanModel.beanName(), refreshBeanModel));
         } finally {
             redissonClient.shutdown();
         }
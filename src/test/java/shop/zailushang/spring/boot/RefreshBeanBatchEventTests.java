@@ -0,0 +1,54 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanBatchEvent;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+
+// 批次内按 beanName 合并净变更，无需 mysql、canal
+public class RefreshBeanBatchEventTests {
+
+    @Test
+    void coalesceChanges() {
+        var a1 = new RefreshBeanModel(1L, "a", "script-a1", null);
+        var a2 = new RefreshBeanModel(1L, "a", "script-a2", null);
+        var a3 = new RefreshBeanModel(1L, "a", "script-a3", null);
+        var b1 = new RefreshBeanModel(2L, "b", "script-b1", null);
+        var b2 = new RefreshBeanModel(2L, "b", "script-b2", null);
+        var c1 = new RefreshBeanModel(3L, "c", "script-c1", null);
+        var d1 = new RefreshBeanModel(4L, "d", "script-d1", null);
+        var d1WithDescription = new RefreshBeanModel(4L, "d", "script-d1", "description");
+
+        var refreshBeanBatchEvent = RefreshBeanBatchEvent.builder()
+                // INSERT + UPDATE + UPDATE => ADD 最终状态
+                .insert(a1).update(a1, a2).update(a2, a3)
+                // UPDATE + DELETE => DEL
+                .update(b1, b2).delete(b2)
+                // INSERT + DELETE => 无变更
+                .insert(c1).delete(c1)
+                // 仅修改 description => 无需重新编译
+                .update(d1, d1WithDescription)
+                .build();
+
+        var events = refreshBeanBatchEvent.getSource();
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(a3, events.get(0).getSource().get(RefreshBeanEvent.EventType.ADD));
+        Assertions.assertEquals("add", events.get(0).typeName());
+        Assertions.assertEquals(b1, events.get(1).getSource().get(RefreshBeanEvent.EventType.DEL));
+        Assertions.assertEquals("del", events.get(1).typeName());
+    }
+
+    @Test
+    void coalesceUpdates() {
+        var a1 = new RefreshBeanModel(1L, "a", "script-a1", null);
+        var a2 = new RefreshBeanModel(1L, "a", "script-a2", null);
+        var a3 = new RefreshBeanModel(1L, "a", "script-a3", null);
+
+        var events = RefreshBeanBatchEvent.builder().update(a1, a2).update(a2, a3).build().getSource();
+        Assertions.assertEquals(1, events.size());
+        Assertions.assertTrue(events.getFirst().isUpdate());
+        Assertions.assertEquals(a1, events.getFirst().getSource().get(RefreshBeanEvent.EventType.DEL));
+        Assertions.assertEquals(a3, events.getFirst().getSource().get(RefreshBeanEvent.EventType.ADD));
+    }
+}
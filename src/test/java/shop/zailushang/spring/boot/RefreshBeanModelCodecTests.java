@@ -0,0 +1,40 @@
+package shop.zailushang.spring.boot;
+
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.StringCodec;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.redis.RefreshBeanModelCodec;
+
+import java.nio.charset.StandardCharsets;
+
+// RefreshBeanModelCodec 与 StringCodec 写入的字节互相可读，已有数据无需迁移
+public class RefreshBeanModelCodecTests {
+
+    private static final RefreshBeanModel MODEL = new RefreshBeanModel(1L, "codec-test", "return { param -> param } as shop.zailushang.spring.boot.framework.SAM", "编解码", true, RefreshBeanModel.GROOVY);
+
+    @Test
+    void compatibleWithStringCodec() throws Exception {
+        var encoded = RefreshBeanModelCodec.INSTANCE.getMapValueEncoder().encode(MODEL);
+        try {
+            var jsonStr = (String) StringCodec.INSTANCE.getMapValueDecoder().decode(encoded, null);
+            Assertions.assertEquals(MODEL, RefreshBeanModel.parse(jsonStr));
+        } finally {
+            encoded.release();
+        }
+
+        // 堆内存走数组解析，直接内存走流式解析
+        var bytes = MODEL.toJson().getBytes(StandardCharsets.UTF_8);
+        var heap = Unpooled.wrappedBuffer(bytes);
+        Assertions.assertEquals(MODEL, RefreshBeanModelCodec.INSTANCE.getMapValueDecoder().decode(heap, null));
+        Assertions.assertFalse(heap.isReadable());
+        var direct = Unpooled.directBuffer().writeBytes(bytes);
+        try {
+            Assertions.assertEquals(MODEL, RefreshBeanModelCodec.INSTANCE.getMapValueDecoder().decode(direct, null));
+            Assertions.assertFalse(direct.isReadable());
+        } finally {
+            direct.release();
+        }
+    }
+}
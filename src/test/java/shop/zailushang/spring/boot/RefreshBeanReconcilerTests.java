@@ -0,0 +1,140 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanBatchEvent;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanReconciler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// 周期性对账：偏差须连续两轮一致才修复，同一偏差只修复一次，被拒绝的修复下一轮重试，数据源再次变更后重新检测，无需 mysql、redis
+public class RefreshBeanReconcilerTests {
+
+    @Test
+    void confirmAndRepairOnce() {
+        var refreshableScope = new RefreshableScope(new DefaultListableBeanFactory());
+        var source = new HashMap<String, Long>();
+        refreshableScope.recordContentHash("same", 1);
+        source.put("same", 1L);
+        refreshableScope.recordContentHash("stale", 2);
+        source.put("stale", 3L);
+        source.put("missing", 4L);
+        refreshableScope.recordContentHash("orphan", 5);
+
+        var batches = new ArrayList<RefreshBeanBatchEvent>();
+        var digestSource = new RefreshBeanReconciler.DigestSource() {
+            @Override
+            public Map<String, Long> digests() {
+                return Map.copyOf(source);
+            }
+
+            @Override
+            public Map<String, RefreshBeanModel> fetch(Collection<String> beanNames) {
+                var refreshBeanModels = new HashMap<String, RefreshBeanModel>();
+                beanNames.forEach(beanName -> refreshBeanModels.put(beanName, new RefreshBeanModel(1L, beanName, "script-" + source.get(beanName), null)));
+                return refreshBeanModels;
+            }
+        };
+        var refreshBeanReconciler = new RefreshBeanReconciler(refreshableScope, digestSource, accept(batches), Duration.ofMinutes(5), Duration.ZERO);
+
+        // 首轮仅记录为待确认
+        Assertions.assertTrue(refreshBeanReconciler.reconcile().isEmpty());
+        var confirmed = refreshBeanReconciler.reconcile();
+        Assertions.assertEquals(List.of("stale", "missing", "orphan"), List.copyOf(confirmed.keySet()));
+        Assertions.assertEquals(1, batches.size());
+        Assertions.assertEquals(List.of("update", "add", "del"), batches.getFirst().getSource().stream().map(RefreshBeanEvent::typeName).toList());
+
+        // 修复未生效（如编译失败）时不再重试
+        Assertions.assertTrue(refreshBeanReconciler.reconcile().isEmpty());
+        Assertions.assertEquals(1, batches.size());
+
+        // 数据源再次变更后重新检测
+        source.put("stale", 6L);
+        Assertions.assertTrue(refreshBeanReconciler.reconcile().isEmpty());
+        Assertions.assertEquals(Map.of("stale", new RefreshBeanReconciler.Drift(RefreshBeanReconciler.Kind.STALE, 6L)), refreshBeanReconciler.reconcile());
+    }
+
+    @Test
+    void catchUpWithoutConfirmation() {
+        var refreshableScope = new RefreshableScope(new DefaultListableBeanFactory());
+        refreshableScope.recordContentHash("stale", 1);
+        var source = Map.of("stale", 2L, "missing", 3L);
+        var batches = new ArrayList<RefreshBeanBatchEvent>();
+        var digestSource = new RefreshBeanReconciler.DigestSource() {
+            @Override
+            public Map<String, Long> digests() {
+                return source;
+            }
+
+            @Override
+            public Map<String, RefreshBeanModel> fetch(Collection<String> beanNames) {
+                var refreshBeanModels = new HashMap<String, RefreshBeanModel>();
+                beanNames.forEach(beanName -> refreshBeanModels.put(beanName, new RefreshBeanModel(1L, beanName, "script-" + source.get(beanName), null)));
+                return refreshBeanModels;
+            }
+        };
+        var refreshBeanReconciler = new RefreshBeanReconciler(refreshableScope, digestSource, accept(batches), Duration.ofMinutes(5), Duration.ZERO);
+
+        // 以快照启动后的追赶：首轮即修复，不等待第二轮确认
+        refreshBeanReconciler.catchUp();
+        Assertions.assertEquals(1, batches.size());
+        Assertions.assertEquals(List.of("update", "add"), batches.getFirst().getSource().stream().map(RefreshBeanEvent::typeName).toList());
+    }
+
+    @Test
+    void retryRejectedRepair() {
+        var refreshableScope = new RefreshableScope(new DefaultListableBeanFactory());
+        refreshableScope.recordContentHash("stale", 1);
+        var source = Map.of("stale", 2L);
+        var digestSource = new RefreshBeanReconciler.DigestSource() {
+            @Override
+            public Map<String, Long> digests() {
+                return source;
+            }
+
+            @Override
+            public Map<String, RefreshBeanModel> fetch(Collection<String> beanNames) {
+                var refreshBeanModels = new HashMap<String, RefreshBeanModel>();
+                beanNames.forEach(beanName -> refreshBeanModels.put(beanName, new RefreshBeanModel(1L, beanName, "script-" + source.get(beanName), null)));
+                return refreshBeanModels;
+            }
+        };
+        var batches = new ArrayList<RefreshBeanBatchEvent>();
+        // 首次提交被拒绝（如队列已满）
+        var rejected = new AtomicBoolean();
+        Function<RefreshBeanBatchEvent, CompletableFuture<Void>> sink = refreshBeanBatchEvent -> {
+            if (rejected.compareAndSet(false, true)) return CompletableFuture.failedFuture(new RejectedExecutionException("queue is full"));
+            batches.add(refreshBeanBatchEvent);
+            return CompletableFuture.completedFuture(null);
+        };
+        var refreshBeanReconciler = new RefreshBeanReconciler(refreshableScope, digestSource, sink, Duration.ofMinutes(5), Duration.ZERO);
+
+        Assertions.assertTrue(refreshBeanReconciler.reconcile().isEmpty());
+        Assertions.assertEquals(1, refreshBeanReconciler.reconcile().size());
+        Assertions.assertTrue(batches.isEmpty());
+        // 被拒绝的偏差仍待确认，下一轮直接重新修复，修复完成后不再重试
+        Assertions.assertEquals(1, refreshBeanReconciler.reconcile().size());
+        Assertions.assertEquals(1, batches.size());
+        Assertions.assertTrue(refreshBeanReconciler.reconcile().isEmpty());
+    }
+
+    private static Function<RefreshBeanBatchEvent, CompletableFuture<Void>> accept(List<RefreshBeanBatchEvent> batches) {
+        return refreshBeanBatchEvent -> {
+            batches.add(refreshBeanBatchEvent);
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import shop.zailushang.spring.boot.framework.RefreshBeanSnapshot;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// 启动快照读写，无需 mysql、redis
+public class RefreshBeanSnapshotTests {
+
+    @Test
+    void storeAndLoad(@TempDir Path directory) throws Exception {
+        var file = directory.resolve("snapshot.bin");
+        var refreshBeanSnapshot = new RefreshBeanSnapshot(file);
+        Assertions.assertTrue(refreshBeanSnapshot.load().isEmpty());
+
+        // 超过 writeUTF 64KB 上限的脚本，以及为 null 的字段
+        var largeScript = "return { param -> '" + "x".repeat(100_000) + "' } as shop.zailushang.spring.boot.framework.SAM";
+        var entries = List.of(
+                RefreshBeanSnapshot.Entry.of(new RefreshBeanModel(1L, "large", largeScript, "描述信息"), 1L),
+                RefreshBeanSnapshot.Entry.of(new RefreshBeanModel(null, "nullable", "return null", null), 0L)
+        );
+        refreshBeanSnapshot.store(entries);
+
+        var loaded = refreshBeanSnapshot.load();
+        Assertions.assertEquals(List.of("large", "nullable"), List.copyOf(loaded.keySet()));
+        Assertions.assertEquals(entries.get(0), loaded.get("large"));
+        Assertions.assertEquals(entries.get(1), loaded.get("nullable"));
+
+        // 损坏的快照当作不存在处理
+        Files.write(file, new byte[]{1, 2, 3});
+        Assertions.assertTrue(refreshBeanSnapshot.load().isEmpty());
+    }
+
+    @Test
+    void rejectDigestMismatch(@TempDir Path directory) {
+        var refreshBeanSnapshot = new RefreshBeanSnapshot(directory.resolve("snapshot.bin"));
+        var refreshBeanModel = new RefreshBeanModel(1L, "tampered", "return null", null);
+        refreshBeanSnapshot.store(List.of(
+                RefreshBeanSnapshot.Entry.of(new RefreshBeanModel(2L, "intact", "return 1", null), 1L),
+                new RefreshBeanSnapshot.Entry(refreshBeanModel, 1L, RefreshBeanSnapshot.Entry.of(new RefreshBeanModel(1L, "tampered", "return 2", null), 1L).digest())
+        ));
+        // 任一条目的摘要与脚本不一致时，整个快照视为损坏
+        Assertions.assertTrue(refreshBeanSnapshot.load().isEmpty());
+    }
+}
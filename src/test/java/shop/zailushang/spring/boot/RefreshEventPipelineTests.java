@@ -0,0 +1,128 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import shop.zailushang.spring.boot.framework.DynamicBeanExecutors;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanBatchEvent;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.pubsub.event.RefreshEventPipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// 刷新事件流水线：同一 Bean 按序处理，排队事件合并，过期事件被丢弃，队列已满时拒绝而非阻塞，无需 mysql、redis
+public class RefreshEventPipelineTests {
+
+    @Test
+    void coalesceAndDropStale() throws Exception {
+        var dynamicBeanExecutors = new DynamicBeanExecutors(false, 4, 16);
+        var processed = new ArrayList<String>();
+        var gate = new CountDownLatch(1);
+        var refreshEventPipeline = new RefreshEventPipeline(refreshBeanEvent -> {
+            var source = refreshBeanEvent.getSource();
+            var refreshBeanModel = source.containsKey(RefreshBeanEvent.EventType.ADD) ? source.get(RefreshBeanEvent.EventType.ADD) : source.get(RefreshBeanEvent.EventType.DEL);
+            synchronized (processed) {
+                processed.add(refreshBeanEvent.typeName() + ":" + refreshBeanModel.lambdaScript());
+            }
+            if ("0".equals(refreshBeanModel.lambdaScript())) await(gate);
+        }, dynamicBeanExecutors, 16);
+
+        // 首个事件处理期间，后续事件合并为一个净变更，版本号更小的事件被丢弃
+        refreshEventPipeline.submit(insert(1, "0"));
+        var completions = new ArrayList<CompletableFuture<Void>>();
+        for (var i = 1; i < 100; i++) completions.add(refreshEventPipeline.submit(insert(i + 1, String.valueOf(i))));
+        completions.add(refreshEventPipeline.submit(insert(50, "stale")));
+        gate.countDown();
+        CompletableFuture.allOf(completions.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("add:0", "add:99"), snapshot(processed));
+
+        // 已处理版本号之前的事件被丢弃
+        refreshEventPipeline.submit(insert(10, "stale")).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("add:0", "add:99"), snapshot(processed));
+
+        // 删除之后乱序到达的旧事件同样被丢弃
+        refreshEventPipeline.submit(delete(200, "99")).get(10, TimeUnit.SECONDS);
+        refreshEventPipeline.submit(insert(150, "stale")).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("add:0", "add:99", "del:99"), snapshot(processed));
+
+        // 未携带版本号的事件总是处理
+        refreshEventPipeline.submit(RefreshBeanEvent.addWith(new RefreshBeanModel(1L, "a", "unversioned", null))).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("add:0", "add:99", "del:99", "add:unversioned"), snapshot(processed));
+        dynamicBeanExecutors.destroy();
+    }
+
+    @Test
+    void rejectWhenFull() throws Exception {
+        var dynamicBeanExecutors = new DynamicBeanExecutors(false, 1, 1);
+        var gate = new CountDownLatch(1);
+        var refreshEventPipeline = new RefreshEventPipeline(refreshBeanEvent -> await(gate), dynamicBeanExecutors, 1);
+
+        var first = refreshEventPipeline.submit(insert(1, "a"));
+        // 容量已被占满，提交立即返回被拒绝的 future，而不是阻塞提交线程
+        var rejected = refreshEventPipeline.submit(RefreshBeanEvent.addWith(new RefreshBeanModel(2L, "b", "b", null)));
+        var exception = Assertions.assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+
+        gate.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        dynamicBeanExecutors.destroy();
+    }
+
+    @Test
+    void recoverFromError() throws Exception {
+        var dynamicBeanExecutors = new DynamicBeanExecutors(false, 1, 4);
+        var processed = new ArrayList<String>();
+        var refreshEventPipeline = new RefreshEventPipeline(refreshBeanEvent -> {
+            var lambdaScript = refreshBeanEvent.getSource().get(RefreshBeanEvent.EventType.ADD).lambdaScript();
+            // 如脚本中失败的 assert
+            if ("error".equals(lambdaScript)) throw new AssertionError(lambdaScript);
+            synchronized (processed) {
+                processed.add(lambdaScript);
+            }
+        }, dynamicBeanExecutors, 1);
+
+        // Error 不会使该 Bean 的队列滞留，之后的事件照常处理，容量已归还
+        refreshEventPipeline.submit(insert(1, "error")).get(10, TimeUnit.SECONDS);
+        refreshEventPipeline.submit(insert(2, "ok")).get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("ok"), snapshot(processed));
+        dynamicBeanExecutors.destroy();
+    }
+
+    private static RefreshBeanEvent insert(long version, String lambdaScript) {
+        return RefreshBeanBatchEvent.builder()
+                .version(version)
+                .insert(new RefreshBeanModel(1L, "a", lambdaScript, null))
+                .build()
+                .getSource()
+                .getFirst();
+    }
+
+    private static RefreshBeanEvent delete(long version, String lambdaScript) {
+        return RefreshBeanBatchEvent.builder()
+                .version(version)
+                .delete(new RefreshBeanModel(1L, "a", lambdaScript, null))
+                .build()
+                .getSource()
+                .getFirst();
+    }
+
+    private static List<String> snapshot(List<String> processed) {
+        synchronized (processed) {
+            return List.copyOf(processed);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
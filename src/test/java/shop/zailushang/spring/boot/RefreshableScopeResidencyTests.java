@@ -0,0 +1,65 @@
+package shop.zailushang.spring.boot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.MicrometerDynamicBeanMetrics;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+import java.util.ArrayList;
+
+// 有界驻留：超出上限的 SAM 被淘汰后，再次调用时透明地重新编译，且编译的是最近一次刷新后的脚本
+public class RefreshableScopeResidencyTests {
+
+    private static final int MAXIMUM_SIZE = 2;
+
+    private static final int BEAN_COUNT = 10;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictAndReload() {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        refreshableScope.bound(MAXIMUM_SIZE, null);
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        applicationContext.refresh();
+        var meterRegistry = new SimpleMeterRegistry();
+        refreshableScope.bindMetrics(new MicrometerDynamicBeanMetrics(meterRegistry, refreshableScope));
+        var scriptEngineCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+
+        var sams = new ArrayList<SAM<Object, Object>>();
+        for (var i = 0; i < BEAN_COUNT; i++) {
+            var beanDefinitionHolder = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModel(model(i, "v1"), scriptEngineCreator, refreshableScope);
+            applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+            sams.add((SAM<Object, Object>) applicationContext.getBean("bean-" + i, SAM.class));
+        }
+        for (var i = 0; i < BEAN_COUNT; i++) Assertions.assertEquals("zailushang" + i + "v1", sams.get(i).execute("zailushang"));
+        refreshableScope.boundedSAMResidency().cleanUp();
+        Assertions.assertTrue(refreshableScope.residentSize() <= MAXIMUM_SIZE);
+        Assertions.assertTrue(meterRegistry.get("dynamic.bean.scope.eviction").counter().count() >= BEAN_COUNT - MAXIMUM_SIZE);
+
+        // 刷新后再淘汰，重新编译的应为新脚本
+        new DefaultEventProcessor(applicationContext.getDefaultListableBeanFactory(), refreshableScope, scriptEngineCreator)
+                .processEvent(RefreshBeanEvent.updateWith(model(0, "v1"), model(0, "v2")));
+        for (var round = 0; round < 3; round++)
+            for (var i = 0; i < BEAN_COUNT; i++)
+                Assertions.assertEquals("zailushang" + i + (i == 0 ? "v2" : "v1"), sams.get(i).execute("zailushang"));
+        refreshableScope.boundedSAMResidency().cleanUp();
+
+        Assertions.assertEquals(BEAN_COUNT, refreshableScope.size());
+        Assertions.assertTrue(refreshableScope.residentSize() <= MAXIMUM_SIZE);
+        Assertions.assertTrue(meterRegistry.get("dynamic.bean.scope.reload").counter().count() > 0);
+        applicationContext.close();
+    }
+
+    private static RefreshBeanModel model(int i, String version) {
+        return new RefreshBeanModel((long) i, "bean-" + i, "return { param -> param + '" + i + version + "' } as shop.zailushang.spring.boot.framework.SAM", null);
+    }
+}
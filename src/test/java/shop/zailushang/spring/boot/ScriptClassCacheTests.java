@@ -0,0 +1,103 @@
+package shop.zailushang.spring.boot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import shop.zailushang.spring.boot.framework.MicrometerDynamicBeanMetrics;
+import shop.zailushang.spring.boot.framework.ScriptClassCache;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 字节码缓存：命中、未命中计数及指标，并发写入同一摘要时已发布的条目不被替换，读取方只会看到完整的类集合，无需 mysql、redis
+public class ScriptClassCacheTests {
+
+    private static final Map<String, byte[]> CLASSES = Map.of("Script1", new byte[]{1}, "Script1$_run_closure1", new byte[]{2}, "Script1$_run_closure2", new byte[]{3});
+
+    @Test
+    void hitAndMiss(@TempDir Path directory) {
+        var scriptClassCache = new ScriptClassCache(directory);
+        var meterRegistry = new SimpleMeterRegistry();
+        MicrometerDynamicBeanMetrics.bindScriptClassCache(meterRegistry, scriptClassCache);
+        var digest = ScriptClassCache.digest("return null");
+        var compiles = new AtomicInteger();
+
+        Assertions.assertEquals(CLASSES.keySet(), scriptClassCache.computeIfAbsent(digest, () -> {
+            compiles.incrementAndGet();
+            return CLASSES;
+        }).keySet());
+        // 另一个实例（模拟重启）命中磁盘上的条目
+        var restarted = new ScriptClassCache(directory);
+        Assertions.assertArrayEquals(new byte[]{2}, restarted.computeIfAbsent(digest, () -> {
+            compiles.incrementAndGet();
+            return Map.of();
+        }).get("Script1$_run_closure1"));
+
+        Assertions.assertEquals(1, compiles.get());
+        Assertions.assertEquals(1, scriptClassCache.missCount());
+        Assertions.assertEquals(1, restarted.hitCount());
+        Assertions.assertEquals(1, meterRegistry.get("dynamic.bean.script.cache").tag("result", "miss").functionCounter().count());
+        Assertions.assertEquals(0, meterRegistry.get("dynamic.bean.script.cache").tag("result", "hit").functionCounter().count());
+
+        // 已存在的条目不被其他节点提供的字节码替换
+        var refreshBeanModel = new RefreshBeanModel(1L, "cached", "return null", null);
+        restarted.offer("cached", refreshBeanModel.contentHash(), Map.of(digest, Map.of("Other", new byte[]{9})));
+        try (var ignored = ScriptClassCache.compiling(refreshBeanModel)) {
+            Assertions.assertEquals(CLASSES.keySet(), restarted.computeIfAbsent(digest, Map::of).keySet());
+        }
+        Assertions.assertEquals(CLASSES.keySet(), new ScriptClassCache(directory).computeIfAbsent(digest, Map::of).keySet());
+    }
+
+    // 缓存的类文件会被直接执行：新建的目录仅本用户可访问，其他用户可写的目录拒绝使用；缓存键随 Groovy、Java 版本变化
+    @Test
+    void privateDirectory(@TempDir Path directory) throws Exception {
+        Assumptions.assumeTrue(Files.getFileAttributeView(directory, PosixFileAttributeView.class) != null);
+        var created = directory.resolve("created");
+        new ScriptClassCache(created);
+        Assertions.assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(created)));
+
+        var shared = Files.createDirectory(directory.resolve("shared"));
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxrwxrwx"));
+        Assertions.assertThrows(IllegalStateException.class, () -> new ScriptClassCache(shared));
+
+        Assertions.assertNotEquals(ScriptClassCache.digest("return null"), ScriptClassCache.cacheKey("return null"));
+    }
+
+    @Test
+    void concurrentStoreAndLoad(@TempDir Path directory) throws Exception {
+        var threads = 8;
+        var rounds = 50;
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (var round = 0; round < rounds; round++) {
+                var scriptClassCache = new ScriptClassCache(directory);
+                var digest = ScriptClassCache.digest("round " + round);
+                var start = new CountDownLatch(1);
+                var futures = new ArrayList<CompletableFuture<Map<String, byte[]>>>();
+                for (var i = 0; i < threads; i++) {
+                    futures.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                        return scriptClassCache.computeIfAbsent(digest, () -> CLASSES);
+                    }, executor));
+                }
+                start.countDown();
+                for (var future : futures) Assertions.assertEquals(CLASSES.keySet(), future.get().keySet());
+                Assertions.assertEquals(threads, scriptClassCache.hitCount() + scriptClassCache.missCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package shop.zailushang.spring.boot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import shop.zailushang.spring.boot.framework.NativeGroovyScriptEngineCreator;
+import shop.zailushang.spring.boot.framework.RefreshableScope;
+import shop.zailushang.spring.boot.framework.SAM;
+import shop.zailushang.spring.boot.model.RefreshBeanModel;
+import shop.zailushang.spring.boot.pubsub.event.DefaultEventProcessor;
+import shop.zailushang.spring.boot.pubsub.event.RefreshBeanEvent;
+import shop.zailushang.spring.boot.util.RefreshableBeanDefinitionResolver;
+
+// 静态编译：类型错误在刷新时即抛出，旧的目标对象继续生效；同样的脚本动态编译时，直到调用才会出错
+public class StaticCompileTests {
+
+    private static final String BEAN_NAME = "static-test";
+
+    private static final String TYPED_SCRIPT = "return { String param -> param.replace('PHP', 'Java') } as shop.zailushang.spring.boot.framework.SAM<String, String>";
+
+    private static final String LAMBDA_SCRIPT = "shop.zailushang.spring.boot.framework.SAM<String, String> sam = (String param) -> param.toUpperCase(); return sam";
+
+    private static final String ILL_TYPED_SCRIPT = "return { String param -> param.noSuchMethod() } as shop.zailushang.spring.boot.framework.SAM<String, String>";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void typeErrorsAreReportedAtRefresh() {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        applicationContext.getDefaultListableBeanFactory().registerScope(refreshableScope.name(), refreshableScope);
+        applicationContext.refresh();
+        var scriptEngineCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+        var eventProcessor = new DefaultEventProcessor(applicationContext.getDefaultListableBeanFactory(), refreshableScope, scriptEngineCreator);
+
+        var current = new RefreshBeanModel(1L, BEAN_NAME, TYPED_SCRIPT, null, true, null);
+        var beanDefinitionHolder = RefreshableBeanDefinitionResolver.resolveBeanDefinitionFromModel(current, scriptEngineCreator, refreshableScope);
+        applicationContext.registerBeanDefinition(beanDefinitionHolder.getBeanName(), beanDefinitionHolder.getBeanDefinition());
+        var sam = (SAM<Object, Object>) applicationContext.getBean(BEAN_NAME, SAM.class);
+        Assertions.assertEquals("Java is the best language", sam.execute("PHP is the best language"));
+
+        // 类型错误：刷新失败，旧的目标对象继续生效
+        var illTyped = new RefreshBeanModel(1L, BEAN_NAME, ILL_TYPED_SCRIPT, null, true, null);
+        var updateEvent = RefreshBeanEvent.updateWith(current, illTyped);
+        Assertions.assertThrows(RuntimeException.class, () -> eventProcessor.processEvent(updateEvent));
+        Assertions.assertEquals("Java is the best language", sam.execute("PHP is the best language"));
+
+        // Java 风格的 lambda 编译为 invokedynamic，目标对象不再是 JDK 代理
+        var lambda = new RefreshBeanModel(1L, BEAN_NAME, LAMBDA_SCRIPT, null, true, null);
+        eventProcessor.processEvent(RefreshBeanEvent.updateWith(current, lambda));
+        Assertions.assertEquals("ZAILUSHANG", sam.execute("zailushang"));
+        applicationContext.close();
+    }
+
+    @Test
+    void dynamicCompileDefersTypeErrorsToCallTime() {
+        var applicationContext = new GenericApplicationContext();
+        var refreshableScope = new RefreshableScope(applicationContext.getDefaultListableBeanFactory());
+        applicationContext.refresh();
+        var scriptEngineCreator = new NativeGroovyScriptEngineCreator(applicationContext, new InheritableThreadLocal<>(), null);
+
+        var sam = RefreshableBeanDefinitionResolver.resolveTarget(new RefreshBeanModel(1L, BEAN_NAME, ILL_TYPED_SCRIPT, null), scriptEngineCreator, refreshableScope);
+        Assertions.assertThrows(RuntimeException.class, () -> sam.execute("zailushang"));
+        applicationContext.close();
+    }
+}